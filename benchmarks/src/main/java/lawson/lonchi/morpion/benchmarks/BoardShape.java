@@ -0,0 +1,53 @@
+package lawson.lonchi.morpion.benchmarks;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Dimensions de plateau paramétrées sous la forme {@code largeurxhauteurxk},
+ * et partie de référence rejouée par les benchmarks.
+ */
+final class BoardShape {
+
+    final int width;
+
+    final int height;
+
+    final int winningCount;
+
+    private BoardShape(int width, int height, int winningCount) {
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+    }
+
+    static BoardShape parse(String shape) {
+        String[] parts = shape.split("x");
+        return new BoardShape(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    /**
+    * Tire une partie aléatoire complète avec une graine fixe, pour que chaque
+    * exécution rejoue exactement les mêmes coups.
+    *
+    * @return Les lignes et colonnes des coups, entrelacées.
+    */
+    int[] referenceGame() {
+        TicTacToeEngine engine = new TicTacToeEngine(width, height, winningCount);
+        SplittableRandom random = new SplittableRandom(0xBE7CL);
+        int[] moves = new int[2 * width * height];
+        int count = 0;
+        while (!engine.isGameOver()) {
+            int row = random.nextInt(height);
+            int column = random.nextInt(width);
+            if (engine.play(row, column)) {
+                moves[count++] = row;
+                moves[count++] = column;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(moves, 0, result, 0, count);
+        return result;
+    }
+}
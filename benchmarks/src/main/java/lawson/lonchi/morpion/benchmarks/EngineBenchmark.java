@@ -0,0 +1,75 @@
+package lawson.lonchi.morpion.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Coût du moteur sans JavaFX : application des coups avec détection du gagnant,
+ * et test d'un coup gagnant sur toutes les cases.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"3x3x3", "7x7x4", "19x19x5"})
+    public String shape;
+
+    private TicTacToeEngine engine;
+
+    private TicTacToeEngine midGame;
+
+    private int[] moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BoardShape board = BoardShape.parse(shape);
+        engine = new TicTacToeEngine(board.width, board.height, board.winningCount);
+        moves = board.referenceGame();
+        midGame = new TicTacToeEngine(board.width, board.height, board.winningCount);
+        for (int i = 0; i < moves.length - 2; i += 2) {
+            midGame.play(moves[i], moves[i + 1]);
+        }
+    }
+
+    @Benchmark
+    public Owner playGame() {
+        engine.restart();
+        for (int i = 0; i < moves.length; i += 2) {
+            engine.play(moves[i], moves[i + 1]);
+        }
+        return engine.getWinner();
+    }
+
+    @Benchmark
+    public int winningMoveScan() {
+        int count = 0;
+        Owner player = midGame.getTurn();
+        for (int row = 0; row < midGame.getHeight(); row++) {
+            for (int column = 0; column < midGame.getWidth(); column++) {
+                if (midGame.getOwner(row, column) == Owner.NONE && midGame.isWinningMove(row, column, player)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
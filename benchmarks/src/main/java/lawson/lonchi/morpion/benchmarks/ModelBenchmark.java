@@ -0,0 +1,106 @@
+package lawson.lonchi.morpion.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+
+/**
+ * Coût du modèle observable : {@code play} (qui inclut la détection du gagnant),
+ * {@code restart} sur un plateau plein et le recalcul de la liaison du message de fin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({"3x3x3", "7x7x4", "19x19x5"})
+    public String shape;
+
+    private TicTacToeModel model;
+
+    private int[] moves;
+
+    private Owner winner = Owner.FIRST;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BoardShape board = BoardShape.parse(shape);
+        model = new TicTacToeModel(board.width, board.height, board.winningCount);
+        moves = board.referenceGame();
+    }
+
+    /**
+    * Une partie complète jouée par {@code play}, suivie de {@code restart}.
+    */
+    @Benchmark
+    public Owner playGame() {
+        for (int i = 0; i < moves.length; i += 2) {
+            model.play(moves[i], moves[i + 1]);
+        }
+        Owner winner = model.winnerProperty().get();
+        model.restart();
+        return winner;
+    }
+
+    /**
+    * Recalcul du message de fin de partie, tel que le fait la vue : le gagnant change à
+    * chaque appel, ce qui invalide la liaison (le coût de {@code setWinner} est inclus).
+    */
+    @Benchmark
+    public String endOfGameMessage() {
+        winner = winner.opposite();
+        model.setWinner(winner);
+        return model.getEndOfGameMessage().get();
+    }
+
+    /**
+    * {@code restart} seul, sur un plateau en fin de partie.
+    */
+    @State(Scope.Thread)
+    public static class FinishedGame {
+
+        @Param({"3x3x3", "7x7x4", "19x19x5"})
+        public String shape;
+
+        TicTacToeModel model;
+
+        private int[] moves;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BoardShape board = BoardShape.parse(shape);
+            model = new TicTacToeModel(board.width, board.height, board.winningCount);
+            moves = board.referenceGame();
+        }
+
+        @Setup(Level.Invocation)
+        public void replay() {
+            for (int i = 0; i < moves.length; i += 2) {
+                model.play(moves[i], moves[i + 1]);
+            }
+        }
+    }
+
+    @Benchmark
+    public TicTacToeModel restart(FinishedGame game) {
+        game.model.restart();
+        return game.model;
+    }
+}
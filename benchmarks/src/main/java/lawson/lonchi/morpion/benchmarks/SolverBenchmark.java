@@ -0,0 +1,59 @@
+package lawson.lonchi.morpion.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lawson.lonchi.morpion.ai.Solver;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Coût de la recherche : résolution complète du 3x3 avec une table vide ou déjà remplie,
+ * et résolution complète du plateau 4x4 (k=4), sans limite de temps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    private final TicTacToeEngine empty = new TicTacToeEngine();
+
+    private Solver warm;
+
+    @Setup
+    public void setUp() {
+        warm = new Solver(3, 3, 3, 12);
+        warm.solve(empty);
+    }
+
+    @Benchmark
+    public Solver.Result solveColdTable() {
+        return new Solver(3, 3, 3, 12).solve(empty);
+    }
+
+    @Benchmark
+    public Solver.Result solveWarmTable() {
+        return warm.solve(empty);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public Solver.Result solve4x4() {
+        return new Solver(4, 4, 4, 18).solve(new TicTacToeEngine(4, 4, 4), Owner.FIRST, 0);
+    }
+}
@@ -1,24 +1,93 @@
 package lawson.lonchi.morpion;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import lawson.lonchi.morpion.controller.TicTacToeController;
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.view.TicTacToeView;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 
+/**
+ * Application JavaFX. La vue est construite en Java par défaut ; {@code -Dmorpion.fxml=true}
+ * charge {@code TicTacToeView.fxml} à la place. Le délai entre le lancement du processus et le
+ * premier affichage est écrit sur la sortie d'erreur et exposé par la jauge {@code ui.startupMillis}.
+ * Avec {@code -Dmorpion.training=true}, l'application s'arrête après le premier affichage :
+ * c'est l'exécution d'entraînement qui produit l'archive CDS de la distribution.
+ */
 public class App extends Application {
 
     private static Scene scene;
 
+    private TicTacToeController controller;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
-        Parent root = FXMLLoader.load(getClass().getResource("/lawson/lonchi/morpion/view/TicTacToeView.fxml"));
+        long fxStart = System.nanoTime();
+        Parent root;
+        if (Boolean.getBoolean("morpion.fxml")) {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/lawson/lonchi/morpion/view/TicTacToeView.fxml"));
+            root = loader.load();
+            controller = loader.getController();
+        } else {
+            TicTacToeView view = new TicTacToeView();
+            controller = new TicTacToeController();
+            controller.attach(view);
+            root = view;
+        }
         primaryStage.setTitle("Jeu de Morpion");
-        primaryStage.setScene(new Scene(root, 500, 500));
+        scene = new Scene(root, 500, 500);
+        Runnable[] firstFrame = new Runnable[1];
+        firstFrame[0] = () -> {
+            scene.removePostLayoutPulseListener(firstFrame[0]);
+            firstFrameShown(fxStart);
+        };
+        scene.addPostLayoutPulseListener(firstFrame[0]);
+        if (Metrics.ENABLED) {
+            // Durée de la passe CSS et de mise en page de chaque pulse d'affichage.
+            LatencyHistogram layoutTime = Metrics.get().histogram("ui.layout");
+            long[] layoutStart = new long[1];
+            scene.addPreLayoutPulseListener(() -> layoutStart[0] = System.nanoTime());
+            scene.addPostLayoutPulseListener(() -> layoutTime.record(System.nanoTime() - layoutStart[0]));
+        }
+        primaryStage.setScene(scene);
         primaryStage.show();
     }
 
+    /**
+    * Mesure le démarrage au premier pulse, puis lance ce qui peut attendre (JMX, rapports de métriques).
+    */
+    private static void firstFrameShown(long fxStart) {
+        long sinceStart = (System.nanoTime() - fxStart) / 1_000_000;
+        long sinceLaunch = ProcessHandle.current().info().startInstant()
+                .map(launch -> Duration.between(launch, Instant.now()).toMillis()).orElse(-1L);
+        System.err.println("Premier affichage : " + sinceLaunch + " ms après le lancement, "
+                + sinceStart + " ms après Application.start");
+        if (Boolean.getBoolean("morpion.training")) {
+            Platform.exit();
+            return;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.get().gauge("ui.startupMillis", () -> sinceLaunch);
+            Thread metrics = new Thread(Metrics::startFromSystemProperties, "morpion-metrics-start");
+            metrics.setDaemon(true);
+            metrics.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.dispose();
+        }
+    }
+
     static void setRoot(String fxml) throws IOException {
         scene.setRoot(loadFXML(fxml));
     }
@@ -32,4 +101,4 @@ public class App extends Application {
         launch();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package lawson.lonchi.morpion.ai;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Évaluation immuable d'une position, conservée dans un {@link PositionCache} :
+ * issue (exacte si la position est résolue), meilleur coup et statistiques de visites.
+ * Les valeurs sont données du point de vue du joueur au trait, qui fait partie du hash.
+ */
+public final class Evaluation {
+
+    private final Owner outcome;
+
+    private final boolean exact;
+
+    private final int bestMove;
+
+    private final long visits;
+
+    private final double value;
+
+    private Evaluation(Owner outcome, boolean exact, int bestMove, long visits, double value) {
+        this.outcome = outcome;
+        this.exact = exact;
+        this.bestMove = bestMove;
+        this.visits = visits;
+        this.value = value;
+    }
+
+    /**
+    * Évaluation d'une position résolue en jeu parfait.
+    *
+    * @param outcome  Le gagnant en jeu parfait, ou NONE pour un nul.
+    * @param bestMove La case à jouer, ou -1 si la partie est terminée.
+    * @param toMove   Le joueur au trait.
+    * @return L'évaluation exacte.
+    */
+    public static Evaluation solved(Owner outcome, int bestMove, Owner toMove) {
+        double value = outcome == Owner.NONE ? 0.5 : outcome == toMove ? 1.0 : 0.0;
+        return new Evaluation(outcome, true, bestMove, 0L, value);
+    }
+
+    /**
+    * Évaluation estimée par simulations.
+    *
+    * @param bestMove La case la plus visitée.
+    * @param visits   Le nombre de simulations.
+    * @param value    Le score moyen du coup, entre 0 (perte) et 1 (gain).
+    * @return L'évaluation estimée.
+    */
+    public static Evaluation estimated(int bestMove, long visits, double value) {
+        return new Evaluation(Owner.NONE, false, bestMove, visits, value);
+    }
+
+    /**
+    * @return Le gagnant en jeu parfait, ou NONE pour un nul ou une évaluation estimée.
+    */
+    public Owner getOutcome() {
+        return outcome;
+    }
+
+    /**
+    * @return true si la position est résolue.
+    */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+    * @return La case à jouer, ou -1.
+    */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+    * @return Le nombre de simulations de l'estimation, 0 pour une évaluation exacte.
+    */
+    public long getVisits() {
+        return visits;
+    }
+
+    /**
+    * @return Le score du joueur au trait, entre 0 (perte) et 1 (gain).
+    */
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return (exact ? "exact " + outcome : String.format("%d visites", visits))
+                + String.format(" coup=%d valeur=%.3f", bestMove, value);
+    }
+}
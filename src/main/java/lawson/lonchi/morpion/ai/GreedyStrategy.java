@@ -0,0 +1,49 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.ThreatIndex;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Stratégie gloutonne : gagne immédiatement si possible, sinon bloque la victoire
+ * immédiate de l'adversaire, sinon joue au hasard. Si la position tient déjà un
+ * {@link ThreatIndex}, les cases gagnantes y sont lues sans parcourir le plateau ;
+ * sinon le plateau est parcouru, sans attacher d'index à la position de l'appelant.
+ */
+public class GreedyStrategy implements Strategy {
+
+    @Override
+    public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+        Owner player = position.getTurn();
+        if (position.hasThreatIndex()) {
+            ThreatIndex threats = position.getThreatIndex();
+            int win = threats.findCompletingSquare(player);
+            if (win >= 0) {
+                return win;
+            }
+            int block = threats.findCompletingSquare(player.opposite());
+            return block >= 0 ? block : RandomStrategy.randomFreeSquare(position, random);
+        }
+        int block = -1;
+        int width = position.getWidth();
+        for (int square = 0; square < position.getSize(); square++) {
+            if (position.getOwner(square) != Owner.NONE) {
+                continue;
+            }
+            if (position.isWinningMove(square / width, square % width, player)) {
+                return square;
+            }
+            if (block < 0 && position.isWinningMove(square / width, square % width, player.opposite())) {
+                block = square;
+            }
+        }
+        return block >= 0 ? block : RandomStrategy.randomFreeSquare(position, random);
+    }
+
+    @Override
+    public String getName() {
+        return "greedy";
+    }
+}
@@ -0,0 +1,410 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Recherche arborescente Monte-Carlo (UCT) pour les plateaux trop grands pour le
+ * {@link Solver}. Plusieurs threads parcourent le même arbre (parallélisme d'arbre) :
+ * les visites et les scores des nœuds sont mis à jour par opérations atomiques, sans
+ * verrou, et chaque nœud traversé reçoit une perte virtuelle (sa visite est comptée
+ * dès la descente, son score seulement après la simulation), ce qui écarte les autres
+ * threads du même chemin. Chaque thread joue descente et simulation sur son propre
+ * moteur puis les annule coup par coup : aucune position n'est copiée par itération.
+ * <p>
+ * Sur les grands plateaux, seules les cases à distance au plus {@value #NEIGHBOURHOOD}
+ * d'un pion existant sont développées.
+ */
+public class MonteCarloSearch implements AutoCloseable {
+
+    private static final double EXPLORATION = Math.sqrt(2.0);
+
+    /**
+    * Nombre de visites d'une feuille avant son développement.
+    */
+    private static final int EXPANSION_THRESHOLD = 2;
+
+    /**
+    * Au-delà de cette taille de plateau, seules les cases voisines des pions sont candidates.
+    */
+    private static final int FULL_EXPANSION_SIZE = 49;
+
+    private static final int NEIGHBOURHOOD = 2;
+
+    /**
+    * Nombre d'itérations entre deux lectures de l'horloge.
+    */
+    private static final int CLOCK_INTERVAL = 64;
+
+    private static final LongAdder ITERATIONS = Metrics.get().counter("mcts.iterations");
+
+    private static final LongAdder SEARCH_NANOS = Metrics.get().counter("mcts.searchNanos");
+
+    static {
+        Metrics.get().gauge("mcts.iterationsPerSecond", () -> {
+            long nanos = SEARCH_NANOS.sum();
+            return nanos == 0 ? 0L : (long) (ITERATIONS.sum() * 1e9 / nanos);
+        });
+    }
+
+    private final int threads;
+
+    private final ExecutorService pool;
+
+    /**
+    * Crée une recherche à un seul thread, exécutée dans le thread appelant.
+    */
+    public MonteCarloSearch() {
+        this(1);
+    }
+
+    /**
+    * @param threads Le nombre de threads parcourant l'arbre, le thread appelant compris.
+    */
+    public MonteCarloSearch(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Nombre de threads invalide : " + threads);
+        }
+        this.threads = threads;
+        this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "morpion-mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+    * Cherche un coup pour le joueur au trait, jusqu'à épuisement du premier des deux budgets.
+    *
+    * @param position      La position (non modifiée), partie non terminée.
+    * @param budgetMillis  Le budget en millisecondes, ou 0 pour ne pas limiter le temps.
+    * @param maxIterations Le nombre maximal d'itérations, ou 0 pour ne pas le limiter.
+    * @param random        Le générateur de l'appelant ; chaque thread en reçoit une branche.
+    * @return Le coup le plus visité et les statistiques de la recherche.
+    */
+    public Result search(TicTacToeEngine position, long budgetMillis, long maxIterations, SplittableRandom random) {
+        if (budgetMillis <= 0 && maxIterations <= 0) {
+            throw new IllegalArgumentException("La recherche doit être bornée en temps ou en itérations");
+        }
+        long start = System.nanoTime();
+        if (position.isGameOver()) {
+            return new Result(-1, position.getWidth(), 0, 0.0, 0L);
+        }
+        Node root = new Node(-1);
+        Search search = new Search(root, budgetMillis <= 0 ? Long.MAX_VALUE : start + budgetMillis * 1_000_000L,
+                maxIterations <= 0 ? Long.MAX_VALUE : maxIterations);
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Worker worker = new Worker(search, new TicTacToeEngine(position), random.split());
+            helpers.add(pool.submit(worker));
+        }
+        new Worker(search, new TicTacToeEngine(position), random.split()).run();
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                search.deadline = 0L;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec d'un thread de recherche", e.getCause());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long iterations = search.iterations.get();
+        ITERATIONS.add(iterations);
+        SEARCH_NANOS.add(elapsed);
+
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        double value = best.visits == 0 ? 0.0 : best.score / (2.0 * best.visits);
+        return new Result(best.square, position.getWidth(), iterations, value, elapsed);
+    }
+
+    /**
+    * Arrête les threads de recherche.
+    */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+    * Nœud de l'arbre partagé. Le score est compté en demi-points du point de vue du
+    * joueur qui a joué le coup menant au nœud : 2 par victoire, 1 par match nul.
+    */
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+
+        private static final AtomicLongFieldUpdater<Node> SCORE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "score");
+
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        private final int square;
+
+        private volatile int visits;
+
+        private volatile long score;
+
+        private volatile Node[] children;
+
+        Node(int square) {
+            this.square = square;
+        }
+    }
+
+    /**
+    * État partagé d'une recherche.
+    */
+    private static final class Search {
+
+        private final Node root;
+
+        private final long maxIterations;
+
+        private final AtomicLong iterations = new AtomicLong();
+
+        private volatile long deadline;
+
+        Search(Node root, long deadline, long maxIterations) {
+            this.root = root;
+            this.deadline = deadline;
+            this.maxIterations = maxIterations;
+        }
+    }
+
+    /**
+    * Boucle d'un thread : sélection, développement, simulation, rétropropagation.
+    */
+    private static final class Worker implements Runnable {
+
+        private final Search search;
+
+        private final TicTacToeEngine engine;
+
+        private final SplittableRandom random;
+
+        private final int width;
+
+        private final int rootMoves;
+
+        private final Node[] path;
+
+        private final int[] free;
+
+        Worker(Search search, TicTacToeEngine engine, SplittableRandom random) {
+            this.search = search;
+            this.engine = engine;
+            this.random = random;
+            this.width = engine.getWidth();
+            this.rootMoves = engine.getMoveCount();
+            this.path = new Node[engine.getFreeSquares() + 1];
+            this.free = new int[engine.getSize()];
+        }
+
+        @Override
+        public void run() {
+            long done = 0;
+            while (search.iterations.getAndIncrement() < search.maxIterations) {
+                if (++done % CLOCK_INTERVAL == 0 && System.nanoTime() > search.deadline) {
+                    break;
+                }
+                iterate();
+            }
+            search.iterations.decrementAndGet();
+        }
+
+        private void iterate() {
+            Node node = search.root;
+            Node.VISITS.incrementAndGet(node);
+            int depth = 0;
+            while (!engine.isGameOver()) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node != search.root && node.visits <= EXPANSION_THRESHOLD) {
+                        break;
+                    }
+                    children = expand(node);
+                }
+                node = select(children, node.visits);
+                // Perte virtuelle : la visite est comptée avant que le score ne soit connu.
+                Node.VISITS.incrementAndGet(node);
+                engine.play(node.square / width, node.square % width);
+                path[depth++] = node;
+            }
+            Owner winner = engine.isGameOver() ? engine.getWinner() : rollout();
+            for (int i = 0; i < depth; i++) {
+                Owner mover = engine.getMoveOwner(rootMoves + i);
+                int points = winner == Owner.NONE ? 1 : winner == mover ? 2 : 0;
+                if (points != 0) {
+                    Node.SCORE.addAndGet(path[i], points);
+                }
+            }
+            while (engine.getMoveCount() > rootMoves) {
+                engine.undo();
+            }
+        }
+
+        private Node select(Node[] children, int parentVisits) {
+            double logParent = Math.log(Math.max(1, parentVisits));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double value = child.score / (2.0 * visits) + EXPLORATION * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private Node[] expand(Node node) {
+            int count = 0;
+            int size = engine.getSize();
+            boolean neighboursOnly = size > FULL_EXPANSION_SIZE && engine.getFreeSquares() < size;
+            for (int square = 0; square < size; square++) {
+                if (engine.getOwner(square) == Owner.NONE && (!neighboursOnly || hasNeighbour(square))) {
+                    free[count++] = square;
+                }
+            }
+            if (count == 0) {
+                // Aucune case libre n'est voisine d'un pion (les pions sont entourés de cases
+                // occupées) : toutes les cases libres sont candidates.
+                for (int square = 0; square < size; square++) {
+                    if (engine.getOwner(square) == Owner.NONE) {
+                        free[count++] = square;
+                    }
+                }
+            }
+            Node[] created = new Node[count];
+            for (int i = 0; i < count; i++) {
+                created[i] = new Node(free[i]);
+            }
+            Node.CHILDREN.compareAndSet(node, null, created);
+            return node.children;
+        }
+
+        private boolean hasNeighbour(int square) {
+            int row = square / width;
+            int column = square % width;
+            for (int r = Math.max(0, row - NEIGHBOURHOOD); r <= Math.min(engine.getHeight() - 1, row + NEIGHBOURHOOD); r++) {
+                for (int c = Math.max(0, column - NEIGHBOURHOOD); c <= Math.min(width - 1, column + NEIGHBOURHOOD); c++) {
+                    if (engine.getOwner(r, c) != Owner.NONE) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+        * Termine la partie au hasard, en tirant les cases libres sans remise.
+        */
+        private Owner rollout() {
+            int count = 0;
+            for (int square = 0; square < engine.getSize(); square++) {
+                if (engine.getOwner(square) == Owner.NONE) {
+                    free[count++] = square;
+                }
+            }
+            while (!engine.isGameOver()) {
+                int pick = random.nextInt(count);
+                int square = free[pick];
+                free[pick] = free[--count];
+                engine.play(square / width, square % width);
+            }
+            return engine.getWinner();
+        }
+    }
+
+    /**
+    * Résultat d'une recherche : coup choisi et statistiques.
+    */
+    public static final class Result {
+
+        private final int square;
+
+        private final int width;
+
+        private final long iterations;
+
+        private final double value;
+
+        private final long elapsedNanos;
+
+        Result(int square, int width, long iterations, double value, long elapsedNanos) {
+            this.square = square;
+            this.width = width;
+            this.iterations = iterations;
+            this.value = value;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+        * @return L'indice de la case à jouer, ou -1 si la partie est terminée.
+        */
+        public int getSquare() {
+            return square;
+        }
+
+        public int getRow() {
+            return square < 0 ? -1 : square / width;
+        }
+
+        public int getColumn() {
+            return square < 0 ? -1 : square % width;
+        }
+
+        public long getIterations() {
+            return iterations;
+        }
+
+        /**
+        * @return Le score moyen du coup choisi pour le joueur au trait, entre 0 (perte) et 1 (gain).
+        */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+        * @return Le débit de la recherche, en itérations par seconde.
+        */
+        public double getIterationsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : iterations * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("(%d, %d) valeur=%.3f itérations=%d (%.0f/s)", getRow(), getColumn(), value,
+                    iterations, getIterationsPerSecond());
+        }
+    }
+}
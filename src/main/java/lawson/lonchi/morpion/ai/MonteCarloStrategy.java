@@ -0,0 +1,65 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Joue le coup le plus visité par une {@link MonteCarloSearch}. Avec un
+ * {@link PositionCache}, une position déjà résolue, ou déjà estimée avec au moins
+ * autant d'itérations, est jouée sans nouvelle recherche.
+ */
+public class MonteCarloStrategy implements Strategy {
+
+    private final MonteCarloSearch search;
+
+    private final long budgetMillis;
+
+    private final long iterations;
+
+    private final PositionCache cache;
+
+    /**
+    * @param search       La recherche, éventuellement multi-thread.
+    * @param budgetMillis Le budget par coup en millisecondes, ou 0.
+    * @param iterations   Le nombre d'itérations par coup, ou 0.
+    */
+    public MonteCarloStrategy(MonteCarloSearch search, long budgetMillis, long iterations) {
+        this(search, budgetMillis, iterations, null);
+    }
+
+    /**
+    * @param search       La recherche, éventuellement multi-thread.
+    * @param budgetMillis Le budget par coup en millisecondes, ou 0.
+    * @param iterations   Le nombre d'itérations par coup, ou 0.
+    * @param cache        Le cache des évaluations, ou null.
+    */
+    public MonteCarloStrategy(MonteCarloSearch search, long budgetMillis, long iterations, PositionCache cache) {
+        this.search = search;
+        this.budgetMillis = budgetMillis;
+        this.iterations = iterations;
+        this.cache = cache;
+    }
+
+    @Override
+    public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+        if (cache == null) {
+            return search.search(position, budgetMillis, iterations, random).getSquare();
+        }
+        long key = position.getHash();
+        Evaluation cached = cache.get(key);
+        if (cached != null && (cached.isExact() || cached.getVisits() >= Math.max(1, iterations))) {
+            return cached.getBestMove();
+        }
+        MonteCarloSearch.Result result = search.search(position, budgetMillis, iterations, random);
+        if (result.getSquare() >= 0) {
+            cache.put(key, Evaluation.estimated(result.getSquare(), result.getIterations(), result.getValue()));
+        }
+        return result.getSquare();
+    }
+
+    @Override
+    public String getName() {
+        return "mcts";
+    }
+}
@@ -0,0 +1,210 @@
+package lawson.lonchi.morpion.ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Table complète du morpion 3x3, chargée par projection mémoire en lecture seule.
+ * Chaque position est indexée par son codage en base 3
+ * (case i vaut 0 si libre, 1 pour X, 2 pour O, pondérée par 3^i) et occupe un octet :
+ * <ul>
+ * <li>bit 7 : position atteignable ;</li>
+ * <li>bits 4-5 : valeur + 1 du point de vue du joueur au trait (0 perte, 1 nul, 2 gain) ;</li>
+ * <li>bits 0-3 : meilleur coup + 1 (0 si la partie est terminée).</li>
+ * </ul>
+ * Le fichier est produit à la compilation par {@link OpeningBookGenerator} et placé à côté
+ * de cette classe, dans les ressources du module ({@link #shared()}). Son ouverture
+ * est en O(1) et plusieurs JVM d'une même machine partagent le cache de pages ; chaque
+ * coup joué par l'ordinateur est ensuite une simple lecture indexée, sans allocation.
+ * Seul le morpion 3x3 à 3 pions alignés est couvert ({@link #covers}).
+ */
+public class OpeningBook {
+
+    static final int MAGIC = 0x4D424F4B;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+
+    static final int REACHABLE = 0x80;
+
+    public static final int LOSS = -1;
+
+    public static final int DRAW = 0;
+
+    public static final int WIN = 1;
+
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+    * Nom de la ressource, relatif au paquetage de cette classe.
+    */
+    public static final String RESOURCE = "tictactoe.book";
+
+    private static final int[] POWERS_OF_THREE = new int[TicTacToeEngine.DEFAULT_WIDTH * TicTacToeEngine.DEFAULT_HEIGHT];
+
+    static {
+        POWERS_OF_THREE[0] = 1;
+        for (int i = 1; i < POWERS_OF_THREE.length; i++) {
+            POWERS_OF_THREE[i] = POWERS_OF_THREE[i - 1] * 3;
+        }
+    }
+
+    private final ByteBuffer buffer;
+
+    private OpeningBook(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+    * @return La table des ressources du module, ou null si elle n'a pas été générée.
+    */
+    public static OpeningBook shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    private static class SharedHolder {
+        private static final OpeningBook INSTANCE = loadResource();
+    }
+
+    private static OpeningBook loadResource() {
+        URL url = OpeningBook.class.getResource(RESOURCE);
+        if (url == null) {
+            return null;
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return open(Paths.get(url.toURI()));
+            }
+            // Dans une archive ou une image jlink, la ressource ne peut pas être projetée.
+            try (InputStream input = url.openStream()) {
+                byte[] bytes = input.readAllBytes();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+                buffer.flip();
+                return new OpeningBook(validate(buffer, url.toString()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+    * Projette un fichier de table en mémoire.
+    *
+    * @param path Le chemin du fichier produit par {@link OpeningBookGenerator}.
+    * @return La table prête à être interrogée.
+    * @throws IOException Si le fichier est illisible ou n'est pas une table valide.
+    */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(validate(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    path.toString()));
+        }
+    }
+
+    private static ByteBuffer validate(ByteBuffer buffer, String name) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != POWERS_OF_THREE.length
+                || buffer.getInt(12) != POWERS_OF_THREE[POWERS_OF_THREE.length - 1] * 3
+                || buffer.limit() != HEADER_SIZE + buffer.getInt(12)) {
+            throw new IOException("Table d'ouvertures invalide : " + name);
+        }
+        return buffer;
+    }
+
+    /**
+    * @param engine La position.
+    * @return true si la table couvre le plateau de la position (3x3, 3 pions alignés).
+    */
+    public static boolean covers(TicTacToeEngine engine) {
+        return engine.getWidth() == TicTacToeEngine.DEFAULT_WIDTH && engine.getHeight() == TicTacToeEngine.DEFAULT_HEIGHT
+                && engine.getWinningCount() == TicTacToeEngine.DEFAULT_WINNING_COUNT;
+    }
+
+    /**
+    * Calcule l'indice en base 3 d'une position 3x3.
+    *
+    * @param engine La position.
+    * @return L'indice de la position dans la table.
+    * @throws IllegalArgumentException Si la table ne couvre pas le plateau.
+    */
+    public static int index(TicTacToeEngine engine) {
+        if (!covers(engine)) {
+            throw new IllegalArgumentException("La table ne couvre que le morpion 3x3 : "
+                    + engine.getWidth() + "x" + engine.getHeight() + ", k=" + engine.getWinningCount());
+        }
+        int index = 0;
+        for (int square = 0; square < POWERS_OF_THREE.length; square++) {
+            Owner owner = engine.getOwner(square);
+            if (owner != Owner.NONE) {
+                index += (owner == Owner.FIRST ? 1 : 2) * POWERS_OF_THREE[square];
+            }
+        }
+        return index;
+    }
+
+    /**
+    * Retourne le meilleur coup d'une position.
+    *
+    * @param index L'indice de la position.
+    * @return L'indice de la case à jouer, ou -1 si la partie est terminée ou la position inconnue.
+    */
+    public int bestMove(int index) {
+        int entry = buffer.get(HEADER_SIZE + index) & 0xFF;
+        return (entry & REACHABLE) == 0 ? -1 : (entry & 0x0F) - 1;
+    }
+
+    /**
+    * Retourne la valeur théorique d'une position pour le joueur au trait.
+    *
+    * @param index L'indice de la position.
+    * @return WIN, DRAW, LOSS, ou UNKNOWN si la position n'est pas atteignable.
+    */
+    public int value(int index) {
+        int entry = buffer.get(HEADER_SIZE + index) & 0xFF;
+        return (entry & REACHABLE) == 0 ? UNKNOWN : ((entry >>> 4) & 0x03) - 1;
+    }
+
+    /**
+    * Retourne le meilleur coup pour une position du moteur.
+    * La table suppose que X et O alternent : une position où le trait a été passé
+    * n'y figure pas.
+    *
+    * @param engine Une position.
+    * @return L'indice de la case à jouer, ou -1 si la table ne couvre pas la position.
+    */
+    public int bestMove(TicTacToeEngine engine) {
+        int stones = engine.getSize() - engine.getFreeSquares();
+        if (!covers(engine) || engine.getTurn() != ((stones & 1) == 0 ? Owner.FIRST : Owner.SECOND)) {
+            return -1;
+        }
+        return bestMove(index(engine));
+    }
+
+    static byte encode(int move, int value) {
+        return (byte) (REACHABLE | ((value + 1) << 4) | (move + 1));
+    }
+
+    static int positionCount() {
+        return POWERS_OF_THREE[POWERS_OF_THREE.length - 1] * 3;
+    }
+
+    static int power(int square) {
+        return POWERS_OF_THREE[square];
+    }
+}
@@ -0,0 +1,116 @@
+package lawson.lonchi.morpion.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Étape de build qui énumère toutes les positions 3x3 atteignables avec les règles de
+ * {@link TicTacToeEngine#play} et écrit la table lue par {@link OpeningBook}.
+ * Usage : {@code OpeningBookGenerator <fichier de sortie>}.
+ */
+public class OpeningBookGenerator {
+
+    private final byte[] entries = new byte[OpeningBook.positionCount()];
+
+    private final int[] scores = new int[OpeningBook.positionCount()];
+
+    private int reachable;
+
+    /**
+    * Parcourt l'arbre de jeu à partir du plateau vide en mémorisant chaque position.
+    *
+    * @return Les octets de la table, indexés par codage en base 3.
+    */
+    byte[] generate() {
+        search(new TicTacToeEngine(), 0);
+        return entries;
+    }
+
+    /**
+    * Minimax mémoïsé : le score est positif si le joueur au trait gagne,
+    * et d'autant plus grand que la victoire est rapide.
+    */
+    private int search(TicTacToeEngine engine, int index) {
+        if (entries[index] != 0) {
+            return scores[index];
+        }
+        reachable++;
+        int stones = engine.getSize() - engine.getFreeSquares();
+        if (engine.getWinner() != Owner.NONE) {
+            // Le joueur précédent vient de gagner.
+            return record(index, -1, -(engine.getSize() + 1 - stones));
+        }
+        if (engine.isBoardFull()) {
+            return record(index, -1, 0);
+        }
+        int digit = engine.getTurn() == Owner.FIRST ? 1 : 2;
+        int best = Integer.MIN_VALUE;
+        int bestMove = -1;
+        for (int square = 0; square < engine.getSize(); square++) {
+            if (engine.getOwner(square) != Owner.NONE) {
+                continue;
+            }
+            engine.play(square / engine.getWidth(), square % engine.getWidth());
+            int score = -search(engine, index + digit * OpeningBook.power(square));
+            engine.undo();
+            if (score > best) {
+                best = score;
+                bestMove = square;
+            }
+        }
+        return record(index, bestMove, best);
+    }
+
+    private int record(int index, int move, int score) {
+        scores[index] = score;
+        entries[index] = OpeningBook.encode(move, Integer.signum(score));
+        return score;
+    }
+
+    /**
+    * Écrit la table dans un fichier : en-tête (magique, version, nombre de cases,
+    * nombre d'entrées) suivi d'un octet par position.
+    *
+    * @param path Le fichier de sortie.
+    * @throws IOException En cas d'erreur d'écriture.
+    */
+    public void write(Path path) throws IOException {
+        byte[] table = generate();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE);
+        header.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION)
+                .putInt(TicTacToeEngine.DEFAULT_WIDTH * TicTacToeEngine.DEFAULT_HEIGHT).putInt(table.length).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+    * @return Le nombre de positions atteignables énumérées par le dernier appel.
+    */
+    public int getReachable() {
+        return reachable;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "tictactoe.book");
+        OpeningBookGenerator generator = new OpeningBookGenerator();
+        generator.write(path);
+        System.out.println(generator.getReachable() + " positions écrites dans " + path);
+    }
+}
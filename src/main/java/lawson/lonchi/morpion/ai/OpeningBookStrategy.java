@@ -0,0 +1,40 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Joue le coup de l'{@link OpeningBook} quand la table couvre la position, et délègue
+ * à une autre stratégie sinon : sur le morpion 3x3, chaque coup est une lecture indexée
+ * au lieu d'une recherche.
+ */
+public class OpeningBookStrategy implements Strategy {
+
+    private final OpeningBook book;
+
+    private final Strategy fallback;
+
+    /**
+    * @param book     La table d'ouvertures.
+    * @param fallback La stratégie des positions hors de la table.
+    */
+    public OpeningBookStrategy(OpeningBook book, Strategy fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+        int move = book.bestMove(position);
+        return move >= 0 ? move : fallback.chooseMove(position, random);
+    }
+
+    /**
+    * @return Le nom de la stratégie déléguée : la table ne change pas le jeu, seulement son coût.
+    */
+    @Override
+    public String getName() {
+        return fallback.getName();
+    }
+}
@@ -0,0 +1,165 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import lawson.lonchi.morpion.metrics.Metrics;
+
+/**
+ * Cache borné d'évaluations de positions, indexé par hash de Zobrist
+ * ({@link lawson.lonchi.morpion.model.TicTacToeEngine#getHash()}), partagé par les
+ * joueurs artificiels, les suggestions et les analyses de toutes les parties : les
+ * ouvertures, rejouées sans cesse, ne sont évaluées qu'une fois.
+ * <p>
+ * Le cache est découpé en segments indépendants, choisis par les bits de poids fort du
+ * hash ; chaque segment est une liste LRU ({@link LinkedHashMap} en ordre d'accès)
+ * protégée par son propre moniteur, si bien que des threads qui consultent des
+ * positions différentes ne se gênent presque jamais. Quand un segment est plein,
+ * sa position la moins récemment consultée est évincée.
+ */
+public final class PositionCache {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final LongAdder HITS = Metrics.get().counter("cache.hits");
+
+    private static final LongAdder MISSES = Metrics.get().counter("cache.misses");
+
+    private static final LongAdder EVICTIONS = Metrics.get().counter("cache.evictions");
+
+    private final Segment[] segments;
+
+    private final int shift;
+
+    /**
+    * @param capacity Le nombre maximal de positions, réparti entre les segments.
+    */
+    public PositionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacité invalide : " + capacity);
+        }
+        // Environ 4 segments par cœur, d'au moins 16 positions chacun.
+        int count = Integer.highestOneBit(Math.max(1, Math.min(4 * Runtime.getRuntime().availableProcessors(),
+                capacity / 16)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((capacity + count - 1) / count);
+        }
+        shift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+    * @return Le cache commun de l'application, dimensionné par {@code -Dmorpion.cache.size}.
+    */
+    public static PositionCache shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    private static class SharedHolder {
+        private static final PositionCache INSTANCE = new PositionCache(
+        Integer.getInteger("morpion.cache.size", DEFAULT_CAPACITY));
+    }
+
+    private Segment segment(long key) {
+        // Le décalage de 64 bits est sans effet en Java : un seul segment prend l'indice 0.
+        return segments.length == 1 ? segments[0] : segments[(int) (key >>> shift)];
+    }
+
+    /**
+    * Cherche une position, qui devient la plus récemment consultée.
+    *
+    * @param key Le hash de la position.
+    * @return L'évaluation, ou null si la position est absente.
+    */
+    public Evaluation get(long key) {
+        Segment segment = segment(key);
+        Evaluation evaluation;
+        synchronized (segment) {
+            evaluation = segment.get(key);
+        }
+        if (Metrics.ENABLED) {
+            (evaluation == null ? MISSES : HITS).increment();
+        }
+        return evaluation;
+    }
+
+    /**
+    * Enregistre l'évaluation d'une position, en remplaçant la précédente.
+    *
+    * @param key        Le hash de la position.
+    * @param evaluation L'évaluation.
+    */
+    public void put(long key, Evaluation evaluation) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, evaluation);
+        }
+    }
+
+    /**
+    * Retourne l'évaluation en cache, ou la calcule et l'enregistre. Le calcul se fait hors
+    * verrou : deux threads qui manquent la même position peuvent l'évaluer tous les deux,
+    * le dernier résultat enregistré l'emporte.
+    *
+    * @param key       Le hash de la position.
+    * @param evaluator Le calcul de l'évaluation.
+    * @return L'évaluation.
+    */
+    public Evaluation get(long key, Supplier<Evaluation> evaluator) {
+        Evaluation evaluation = get(key);
+        if (evaluation == null) {
+            evaluation = evaluator.get();
+            put(key, evaluation);
+        }
+        return evaluation;
+    }
+
+    /**
+    * @return Le nombre de positions en cache.
+    */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+    * Vide le cache.
+    */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<Long, Evaluation> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(Math.min(capacity, 1 << 12) * 4 / 3 + 1, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Evaluation> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            if (Metrics.ENABLED) {
+                EVICTIONS.increment();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Joue uniformément au hasard parmi les cases libres.
+ */
+public class RandomStrategy implements Strategy {
+
+    @Override
+    public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+        return randomFreeSquare(position, random);
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+
+    /**
+    * Tire une case libre au hasard, sans allocation.
+    *
+    * @param position La position.
+    * @param random   Le générateur.
+    * @return L'indice d'une case libre.
+    */
+    static int randomFreeSquare(TicTacToeEngine position, SplittableRandom random) {
+        int choice = random.nextInt(position.getFreeSquares());
+        int square = 0;
+        while (position.getOwner(square) != Owner.NONE || choice-- > 0) {
+            square++;
+        }
+        return square;
+    }
+}
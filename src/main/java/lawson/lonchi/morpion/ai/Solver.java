@@ -0,0 +1,398 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.Zobrist;
+
+/**
+ * Solveur en jeu parfait : negamax avec élagage alpha-bêta, adossé à une table de
+ * transposition indexée par hash de Zobrist. Les positions sont ramenées à une forme
+ * canonique sous les symétries du plateau, si bien que des positions équivalentes
+ * partagent la même entrée.
+ * La table est conservée d'un appel à l'autre et peut être partagée entre threads :
+ * chaque appel à {@link #solve} utilise son propre état de recherche.
+ * La recherche travaille sur une seule copie de la position, en jouant puis en
+ * annulant chaque coup ({@link TicTacToeEngine#undo()}) plutôt qu'en copiant le moteur.
+ */
+public class Solver {
+
+    private static final int DEFAULT_TABLE_BITS = 20;
+
+    private static final int INFINITY = Short.MAX_VALUE;
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final LongAdder NODES = Metrics.get().counter("ai.nodes");
+
+    private static final LongAdder SEARCH_NANOS = Metrics.get().counter("ai.searchNanos");
+
+    private static final LatencyHistogram SEARCH_TIME = Metrics.get().histogram("ai.search");
+
+    static {
+        Metrics.get().gauge("ai.nodesPerSecond", () -> {
+            long nanos = SEARCH_NANOS.sum();
+            return nanos == 0 ? 0L : (long) (NODES.sum() * 1e9 / nanos);
+        });
+    }
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final int size;
+
+    private final Zobrist zobrist;
+
+    private final int[][] transforms;
+
+    private final int[][] inverses;
+
+    private final int[] moveOrder;
+
+    private final TranspositionTable table;
+
+    /**
+    * Crée un solveur pour un plateau m,n,k avec une table de 2^20 entrées.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    public Solver(int width, int height, int winningCount) {
+        this(width, height, winningCount, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+    * Crée un solveur pour un plateau m,n,k.
+    * La table ne vaut que pour ces dimensions et ce nombre de pions à aligner.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param tableBits    Le logarithme en base 2 du nombre d'entrées de la table.
+    */
+    public Solver(int width, int height, int winningCount, int tableBits) {
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.size = width * height;
+        this.zobrist = new Zobrist(size);
+        this.transforms = Symmetries.transforms(width, height);
+        this.inverses = Symmetries.inverses(transforms);
+        this.moveOrder = centerFirstOrder(width, height);
+        this.table = new TranspositionTable(tableBits);
+    }
+
+    /**
+    * Résout complètement une position pour le joueur au trait du moteur.
+    *
+    * @param position La position à analyser (non modifiée).
+    * @return Le meilleur coup et son score exact.
+    */
+    public Result solve(TicTacToeEngine position) {
+        return solve(position, position.getTurn(), 0);
+    }
+
+    /**
+    * Cherche le meilleur coup pour un joueur donné, dans un budget de temps.
+    * La recherche procède par approfondissement itératif ; si le budget expire,
+    * le résultat de la dernière itération complète est renvoyé.
+    *
+    * @param position     La position à analyser (non modifiée).
+    * @param toMove       Le joueur au trait.
+    * @param budgetMillis Le budget en millisecondes, ou 0 pour une résolution complète.
+    * @return Le meilleur coup trouvé et son score du point de vue de {@code toMove}.
+    */
+    public Result solve(TicTacToeEngine position, Owner toMove, long budgetMillis) {
+        if (position.getWidth() != width || position.getHeight() != height
+                || position.getWinningCount() != winningCount) {
+            throw new IllegalArgumentException("La position ne correspond pas au plateau m,n,k du solveur");
+        }
+        if (!Metrics.ENABLED) {
+            return search(position, toMove, budgetMillis);
+        }
+        long start = System.nanoTime();
+        Result result = search(position, toMove, budgetMillis);
+        long elapsed = System.nanoTime() - start;
+        NODES.add(result.getNodes());
+        SEARCH_NANOS.add(elapsed);
+        SEARCH_TIME.record(elapsed);
+        return result;
+    }
+
+    private Result search(TicTacToeEngine position, Owner toMove, long budgetMillis) {
+        TicTacToeEngine root = new TicTacToeEngine(position);
+        if (root.getTurn() != toMove) {
+            root.nextPlayer();
+        }
+        int empties = root.getFreeSquares();
+        if (root.isGameOver() || empties == 0) {
+            return new Result(-1, -1, -1, 0, true, 0, 0L);
+        }
+        Search search = new Search(root, budgetMillis == 0 ? NO_DEADLINE : System.nanoTime() + budgetMillis * 1_000_000L);
+        if (budgetMillis == 0) {
+            int score = search.negamax(root, empties, -INFINITY, INFINITY, 0);
+            return search.result(score, empties, empties);
+        }
+        Result best = null;
+        for (int depth = 1; depth <= empties; depth++) {
+            int score = search.negamax(root, depth, -INFINITY, INFINITY, 0);
+            if (search.aborted) {
+                break;
+            }
+            best = search.result(score, depth, empties);
+            if (best.isExact()) {
+                break;
+            }
+        }
+        if (best == null) {
+            // Aucune itération complète : on joue le premier coup légal dans l'ordre de recherche.
+            for (int square : moveOrder) {
+                if (root.getOwner(square) == Owner.NONE) {
+                    return new Result(square, square / width, square % width, 0, false, 0, search.nodes);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+    * Vide la table de transposition.
+    */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+    * @return Le score d'une victoire obtenue avec {@code stones} pions sur le plateau.
+    */
+    private int winScore(int stones) {
+        return size + 1 - stones;
+    }
+
+    /**
+    * État propre à une recherche : pile des hash symétriques, compteur de nœuds, échéance.
+    */
+    private class Search {
+
+        private final long[][] hashes;
+
+        private final long deadline;
+
+        private long nodes;
+
+        private boolean aborted;
+
+        private int rootMove = -1;
+
+        Search(TicTacToeEngine root, long deadline) {
+            this.deadline = deadline;
+            this.hashes = new long[root.getFreeSquares() + 1][transforms.length];
+            long side = root.getTurn() == Owner.SECOND ? zobrist.sideKey() : 0L;
+            for (int t = 0; t < transforms.length; t++) {
+                long hash = side;
+                for (int square = 0; square < size; square++) {
+                    Owner owner = root.getOwner(square);
+                    if (owner != Owner.NONE) {
+                        hash ^= zobrist.key(owner, transforms[t][square]);
+                    }
+                }
+                hashes[0][t] = hash;
+            }
+        }
+
+        int negamax(TicTacToeEngine node, int depth, int alpha, int beta, int ply) {
+            nodes++;
+            if ((nodes & 0xFFF) == 0 && deadline != NO_DEADLINE && System.nanoTime() > deadline) {
+                aborted = true;
+            }
+            if (aborted) {
+                return 0;
+            }
+            int stones = size - node.getFreeSquares();
+            if (node.getWinner() != Owner.NONE) {
+                return -winScore(stones);
+            }
+            if (node.isBoardFull() || depth == 0) {
+                return 0;
+            }
+
+            long[] current = hashes[ply];
+            int symmetry = 0;
+            for (int t = 1; t < current.length; t++) {
+                if (current[t] < current[symmetry]) {
+                    symmetry = t;
+                }
+            }
+            long key = current[symmetry];
+
+            int ttMove = -1;
+            long entry = ply == 0 ? TranspositionTable.MISS : table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                int stored = TranspositionTable.move(entry);
+                ttMove = stored < 0 ? -1 : inverses[symmetry][stored];
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    int flag = TranspositionTable.flag(entry);
+                    if (flag == TranspositionTable.EXACT) {
+                        return score;
+                    } else if (flag == TranspositionTable.LOWER_BOUND) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+
+            int alphaOrigin = alpha;
+            int best = -INFINITY;
+            int bestMove = -1;
+            Owner player = node.getTurn();
+            for (int i = -1; i < moveOrder.length; i++) {
+                int square = i < 0 ? ttMove : moveOrder[i];
+                if (square < 0 || (i >= 0 && square == ttMove) || node.getOwner(square) != Owner.NONE) {
+                    continue;
+                }
+                node.play(square / width, square % width);
+                long[] next = hashes[ply + 1];
+                for (int t = 0; t < next.length; t++) {
+                    next[t] = current[t] ^ zobrist.key(player, transforms[t][square]) ^ zobrist.sideKey();
+                }
+                int score = -negamax(node, depth - 1, -beta, -alpha, ply + 1);
+                node.undo();
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = square;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            if (ply == 0) {
+                rootMove = bestMove;
+            }
+            int flag = best <= alphaOrigin ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, transforms[symmetry][bestMove], best, depth, flag);
+            return best;
+        }
+
+        Result result(int score, int depth, int empties) {
+            boolean exact = depth >= empties || score != 0;
+            return new Result(rootMove, rootMove / width, rootMove % width, score, exact, depth, nodes);
+        }
+    }
+
+    /**
+    * Ordonne les cases de la plus centrale à la plus excentrée,
+    * les coups centraux produisant plus de coupures alpha-bêta.
+    */
+    private static int[] centerFirstOrder(int width, int height) {
+        Integer[] squares = new Integer[width * height];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = i;
+        }
+        Arrays.sort(squares, (a, b) -> Integer.compare(
+                distanceToCenter(a, width, height), distanceToCenter(b, width, height)));
+        int[] order = new int[squares.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = squares[i];
+        }
+        return order;
+    }
+
+    private static int distanceToCenter(int square, int width, int height) {
+        int row = square / width;
+        int column = square % width;
+        return Math.abs(2 * row - (height - 1)) + Math.abs(2 * column - (width - 1));
+    }
+
+    /**
+    * Résultat d'une recherche : meilleur coup, score et statistiques.
+    * Le score est positif si le joueur au trait gagne, négatif s'il perd, nul pour
+    * un match nul ; une victoire plus rapide a un score plus élevé.
+    */
+    public static final class Result {
+
+        private final int square;
+
+        private final int row;
+
+        private final int column;
+
+        private final int score;
+
+        private final boolean exact;
+
+        private final int depth;
+
+        private final long nodes;
+
+        Result(int square, int row, int column, int score, boolean exact, int depth, long nodes) {
+            this.square = square;
+            this.row = row;
+            this.column = column;
+            this.score = score;
+            this.exact = exact;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        /**
+        * @return L'indice de la case à jouer, ou -1 si la partie est terminée.
+        */
+        public int getSquare() {
+            return square;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /**
+        * @return true si le score est prouvé, false s'il provient d'une recherche tronquée.
+        */
+        public boolean isExact() {
+            return exact;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + row + ", " + column + ") score=" + score + (exact ? "" : "?")
+                    + " depth=" + depth + " nodes=" + nodes;
+        }
+    }
+}
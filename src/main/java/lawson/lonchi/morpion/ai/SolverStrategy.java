@@ -0,0 +1,65 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Joue le coup du {@link Solver}. La table de transposition du solveur est partagée
+ * par tous les threads qui utilisent la stratégie. Avec un {@link PositionCache}, les
+ * positions résolues y sont enregistrées, et une position déjà résolue (par cette
+ * stratégie ou une autre) est jouée sans recherche.
+ */
+public class SolverStrategy implements Strategy {
+
+    private final Solver solver;
+
+    private final long budgetMillis;
+
+    private final PositionCache cache;
+
+    /**
+    * @param solver       Le solveur, aux dimensions des parties jouées.
+    * @param budgetMillis Le budget par coup en millisecondes, ou 0 pour une résolution complète.
+    */
+    public SolverStrategy(Solver solver, long budgetMillis) {
+        this(solver, budgetMillis, null);
+    }
+
+    /**
+    * @param solver       Le solveur, aux dimensions des parties jouées.
+    * @param budgetMillis Le budget par coup en millisecondes, ou 0 pour une résolution complète.
+    * @param cache        Le cache des positions résolues, ou null.
+    */
+    public SolverStrategy(Solver solver, long budgetMillis, PositionCache cache) {
+        this.solver = solver;
+        this.budgetMillis = budgetMillis;
+        this.cache = cache;
+    }
+
+    @Override
+    public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+        if (cache == null) {
+            return solver.solve(position, position.getTurn(), budgetMillis).getSquare();
+        }
+        long key = position.getHash();
+        Evaluation cached = cache.get(key);
+        if (cached != null && cached.isExact()) {
+            return cached.getBestMove();
+        }
+        Owner toMove = position.getTurn();
+        Solver.Result result = solver.solve(position, toMove, budgetMillis);
+        if (result.isExact()) {
+            int score = result.getScore();
+            Owner outcome = score > 0 ? toMove : score < 0 ? toMove.opposite() : Owner.NONE;
+            cache.put(key, Evaluation.solved(outcome, result.getSquare(), toMove));
+        }
+        return result.getSquare();
+    }
+
+    @Override
+    public String getName() {
+        return "solver";
+    }
+}
@@ -0,0 +1,27 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.SplittableRandom;
+
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Stratégie de jeu interchangeable, utilisée par les simulations et les tournois.
+ * Une même instance peut être appelée depuis plusieurs threads : toute source
+ * d'aléa est fournie par l'appelant.
+ */
+public interface Strategy {
+
+    /**
+    * Choisit un coup pour le joueur au trait.
+    *
+    * @param position La position courante (à ne pas modifier), partie non terminée.
+    * @param random   Le générateur propre au thread appelant.
+    * @return L'indice de la case à jouer ({@code row * width + column}).
+    */
+    int chooseMove(TicTacToeEngine position, SplittableRandom random);
+
+    /**
+    * @return Le nom de la stratégie, pour les rapports.
+    */
+    String getName();
+}
@@ -0,0 +1,60 @@
+package lawson.lonchi.morpion.ai;
+
+/**
+ * Symétries d'un plateau rectangulaire, sous forme de permutations des indices de case.
+ * Un plateau carré a les 8 symétries du groupe diédral, un plateau rectangulaire
+ * n'en garde que 4 (identité, retournements et demi-tour).
+ */
+final class Symmetries {
+
+    private Symmetries() {
+    }
+
+    /**
+    * Calcule les permutations de cases pour chaque symétrie du plateau.
+    * La première permutation est toujours l'identité.
+    *
+    * @param width  Le nombre de colonnes.
+    * @param height Le nombre de lignes.
+    * @return {@code transforms[t][square]} : l'image de la case par la symétrie t.
+    */
+    static int[][] transforms(int width, int height) {
+        int count = width == height ? 8 : 4;
+        int[][] transforms = new int[count][width * height];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                int square = row * width + column;
+                int mirrorRow = height - 1 - row;
+                int mirrorColumn = width - 1 - column;
+                transforms[0][square] = square;
+                transforms[1][square] = row * width + mirrorColumn;
+                transforms[2][square] = mirrorRow * width + column;
+                transforms[3][square] = mirrorRow * width + mirrorColumn;
+                if (count == 8) {
+                    // Plateau carré : transposition et rotations d'un quart de tour.
+                    transforms[4][square] = column * width + row;
+                    transforms[5][square] = column * width + mirrorRow;
+                    transforms[6][square] = mirrorColumn * width + row;
+                    transforms[7][square] = mirrorColumn * width + mirrorRow;
+                }
+            }
+        }
+        return transforms;
+    }
+
+    /**
+    * Inverse chaque permutation.
+    *
+    * @param transforms Les permutations de cases.
+    * @return {@code inverses[t][transforms[t][square]] == square}.
+    */
+    static int[][] inverses(int[][] transforms) {
+        int[][] inverses = new int[transforms.length][transforms[0].length];
+        for (int t = 0; t < transforms.length; t++) {
+            for (int square = 0; square < transforms[t].length; square++) {
+                inverses[t][transforms[t][square]] = square;
+            }
+        }
+        return inverses;
+    }
+}
@@ -0,0 +1,248 @@
+package lawson.lonchi.morpion.ai;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Table de finales d'un petit plateau m,n,k, produite par {@link TablebaseGenerator}
+ * et projetée en mémoire en lecture seule.
+ * Les positions sont rangées par couche (nombre de pions posés) ; dans une couche,
+ * l'indice d'une position est {@code rang(cases occupées) * C(s, x) + rang(cases de X)},
+ * les rangs étant ceux du système combinatoire (ordre colexicographique). Chaque position
+ * occupe un octet :
+ * <ul>
+ * <li>bits 6-7 : 0 si la position est inatteignable, sinon valeur + 2 du point de vue du
+ * joueur au trait (1 perte, 2 nul, 3 gain) ;</li>
+ * <li>bits 0-5 : nombre de coups jusqu'à la fin de partie, en jeu parfait (le gagnant
+ * abrège, le perdant prolonge).</li>
+ * </ul>
+ * Une consultation calcule l'indice en un passage sur les pions et lit un octet : elle ne
+ * dépend pas du nombre de positions et n'alloue rien.
+ */
+public class Tablebase {
+
+    static final int MAGIC = 0x4D54424C;
+
+    static final int VERSION = 1;
+
+    /**
+    * Nombre maximal de cases : au-delà, une couche ne tient plus dans une projection.
+    */
+    static final int MAX_SIZE = 22;
+
+    static final int DISTANCE_MASK = 0x3F;
+
+    public static final int LOSS = -1;
+
+    public static final int DRAW = 0;
+
+    public static final int WIN = 1;
+
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+    * Coefficients binomiaux C(n, k) pour n, k ≤ {@value #MAX_SIZE}.
+    */
+    static final long[][] BINOMIALS = new long[MAX_SIZE + 1][MAX_SIZE + 2];
+
+    static {
+        for (int n = 0; n <= MAX_SIZE; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + (k <= n - 1 ? BINOMIALS[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final MappedByteBuffer[] layers;
+
+    private Tablebase(int width, int height, int winningCount, MappedByteBuffer[] layers) {
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.layers = layers;
+    }
+
+    /**
+    * Taille de l'en-tête : six entiers puis le début de chaque couche et la fin du fichier.
+    */
+    static int headerSize(int size) {
+        return 6 * Integer.BYTES + (size + 2) * Long.BYTES;
+    }
+
+    /**
+    * @return Le nombre de positions d'une couche de {@code stones} pions sur {@code size} cases.
+    */
+    static long layerSize(int size, int stones) {
+        return BINOMIALS[size][stones] * BINOMIALS[stones][(stones + 1) / 2];
+    }
+
+    /**
+    * Indice d'une position dans sa couche.
+    *
+    * @param first  Les cases de X.
+    * @param second Les cases de O.
+    * @return L'indice, entre 0 et {@link #layerSize} exclus.
+    */
+    static long index(long first, long second) {
+        long occupied = first | second;
+        int stones = Long.bitCount(occupied);
+        long occupiedRank = 0;
+        long firstRank = 0;
+        int i = 0;
+        int t = 0;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            occupiedRank += BINOMIALS[square][i + 1];
+            if ((first >>> square & 1) != 0) {
+                t++;
+                firstRank += BINOMIALS[i][t];
+            }
+            i++;
+        }
+        return occupiedRank * BINOMIALS[stones][(stones + 1) / 2] + firstRank;
+    }
+
+    /**
+    * Projette un fichier de table en mémoire.
+    *
+    * @param path Le chemin du fichier produit par {@link TablebaseGenerator}.
+    * @return La table prête à être interrogée.
+    * @throws IOException Si le fichier est illisible ou n'est pas une table valide.
+    */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), headerSize(MAX_SIZE)));
+            header.order(ByteOrder.BIG_ENDIAN);
+            if (header.limit() < headerSize(0) || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Table de finales invalide : " + path);
+            }
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            int winningCount = header.getInt(16);
+            int size = header.getInt(20);
+            if (size != width * height || size > MAX_SIZE || header.limit() < headerSize(size)
+                    || header.getLong(24 + (size + 1) * Long.BYTES) != channel.size()) {
+                throw new IOException("Table de finales invalide : " + path);
+            }
+            MappedByteBuffer[] layers = new MappedByteBuffer[size + 1];
+            for (int stones = 0; stones <= size; stones++) {
+                long start = header.getLong(24 + stones * Long.BYTES);
+                long end = header.getLong(24 + (stones + 1) * Long.BYTES);
+                if (end - start != layerSize(size, stones)) {
+                    throw new IOException("Table de finales invalide : " + path);
+                }
+                layers[stones] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+            return new Tablebase(width, height, winningCount, layers);
+        }
+    }
+
+    /**
+    * @return true si la table porte sur les dimensions et la règle de la partie.
+    */
+    public boolean covers(TicTacToeEngine position) {
+        return position.getWidth() == width && position.getHeight() == height
+                && position.getWinningCount() == winningCount;
+    }
+
+    /**
+    * Lit l'octet d'une position, ou 0 si elle est hors table ou inatteignable.
+    */
+    private int entry(TicTacToeEngine position) {
+        if (!covers(position)) {
+            return 0;
+        }
+        long first = position.getBitboardWord(Owner.FIRST, 0);
+        long second = position.getBitboardWord(Owner.SECOND, 0);
+        int stones = Long.bitCount(first | second);
+        Owner toMove = stones % 2 == 0 ? Owner.FIRST : Owner.SECOND;
+        if (position.getTurn() != toMove && position.getWinner() == Owner.NONE) {
+            return 0;
+        }
+        if (Long.bitCount(first) != (stones + 1) / 2) {
+            return 0;
+        }
+        return layers[stones].get((int) index(first, second)) & 0xFF;
+    }
+
+    /**
+    * Valeur d'une position du point de vue du joueur dont c'est le tour selon le nombre de pions
+    * (X si ce nombre est pair).
+    *
+    * @param position La position.
+    * @return {@link #WIN}, {@link #DRAW}, {@link #LOSS}, ou {@link #UNKNOWN} si la position
+    *         n'est pas dans la table.
+    */
+    public int getValue(TicTacToeEngine position) {
+        int entry = entry(position);
+        return entry == 0 ? UNKNOWN : (entry >>> 6) - 2;
+    }
+
+    /**
+    * @param position La position.
+    * @return Le nombre de coups restants en jeu parfait, ou -1 si la position n'est pas dans la table.
+    */
+    public int getDistance(TicTacToeEngine position) {
+        int entry = entry(position);
+        return entry == 0 ? -1 : entry & DISTANCE_MASK;
+    }
+
+    /**
+    * Retourne un coup optimal : le gain le plus rapide, sinon le nul, sinon la perte la plus lente.
+    *
+    * @param position La position (non modifiée), partie non terminée.
+    * @return L'indice de la case, ou -1 si la position n'est pas dans la table.
+    */
+    public int bestMove(TicTacToeEngine position) {
+        if (entry(position) == 0 || position.isGameOver()) {
+            return -1;
+        }
+        TicTacToeEngine engine = new TicTacToeEngine(position);
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int square = 0; square < engine.getSize(); square++) {
+            if (engine.getOwner(square) != Owner.NONE) {
+                continue;
+            }
+            engine.play(square / width, square % width);
+            int entry = entry(engine);
+            engine.undo();
+            // Score du point de vue du joueur au trait : gagner vite, perdre lentement.
+            int value = -((entry >>> 6) - 2);
+            int distance = entry & DISTANCE_MASK;
+            int score = value * 64 + (value > 0 ? -distance : distance);
+            if (score > bestScore) {
+                bestScore = score;
+                best = square;
+            }
+        }
+        return best;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinningCount() {
+        return winningCount;
+    }
+}
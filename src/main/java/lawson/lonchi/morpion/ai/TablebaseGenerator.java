@@ -0,0 +1,343 @@
+package lawson.lonchi.morpion.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Génère hors ligne la table de finales ({@link Tablebase}) d'un petit plateau m,n,k
+ * par analyse rétrograde : les couches sont traitées du plateau plein vers le plateau vide,
+ * et chaque position est évaluée à partir de ses successeurs, qui sont tous dans la couche
+ * suivante déjà calculée. Les positions d'une couche sont indépendantes : la couche est
+ * découpée par rang de cases occupées dans un {@link ForkJoinPool}.
+ * Les valeurs ne transitent jamais par le tas : chaque couche est écrite directement dans
+ * le fichier projeté en mémoire, et seules la couche en cours et la suivante sont projetées.
+ * Usage : {@code TablebaseGenerator <largeur> <hauteur> <k> [fichier de sortie]}.
+ */
+public class TablebaseGenerator {
+
+    /**
+    * Nombre d'ensembles de cases occupées traités par tâche.
+    */
+    private static final long OCCUPANCIES_PER_TASK = 256;
+
+    private static final int LOSS = 1 << 6;
+
+    private static final int DRAW = 2 << 6;
+
+    private static final int WIN = 3 << 6;
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final int size;
+
+    private final long[] lines;
+
+    private final ForkJoinPool pool;
+
+    private final LongAdder reachable = new LongAdder();
+
+    /**
+    * Crée un générateur utilisant le pool commun.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    public TablebaseGenerator(int width, int height, int winningCount) {
+        this(width, height, winningCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param pool         Le pool d'exécution.
+    */
+    public TablebaseGenerator(int width, int height, int winningCount, ForkJoinPool pool) {
+        if (width < 1 || height < 1 || winningCount < 1 || winningCount > Math.max(width, height)
+                || width * height > Tablebase.MAX_SIZE) {
+            throw new IllegalArgumentException("Plateau invalide ou trop grand pour une table : "
+                    + width + "x" + height + ", k=" + winningCount);
+        }
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.size = width * height;
+        this.lines = lines(width, height, winningCount);
+        this.pool = pool;
+    }
+
+    /**
+    * Énumère les masques de tous les alignements gagnants.
+    */
+    private static long[] lines(int width, int height, int winningCount) {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        List<Long> masks = new ArrayList<>();
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                for (int[] direction : directions) {
+                    int endRow = row + direction[0] * (winningCount - 1);
+                    int endColumn = column + direction[1] * (winningCount - 1);
+                    if (endRow >= height || endColumn < 0 || endColumn >= width) {
+                        continue;
+                    }
+                    long mask = 0;
+                    for (int i = 0; i < winningCount; i++) {
+                        mask |= 1L << ((row + direction[0] * i) * width + column + direction[1] * i);
+                    }
+                    masks.add(mask);
+                }
+            }
+        }
+        return masks.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private boolean hasLine(long stones) {
+        for (long line : lines) {
+            if ((stones & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    * Une position où le dernier joueur a aligné n'est atteignable que si un de ses pions
+    * appartient à tous ses alignements : c'est le coup gagnant.
+    */
+    private boolean hasWinningStone(long stones) {
+        for (long bits = stones; bits != 0; bits &= bits - 1) {
+            if (!hasLine(stones & ~Long.lowestOneBit(bits))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    * Évalue une position. Les successeurs sont lus dans {@code next}, la couche suivante.
+    *
+    * @return L'octet de la position (voir {@link Tablebase}).
+    */
+    private int evaluate(long first, long second, int stones, MappedByteBuffer next) {
+        long mover = stones % 2 == 0 ? first : second;
+        long previous = stones % 2 == 0 ? second : first;
+        if (hasLine(mover)) {
+            return 0;
+        }
+        if (hasLine(previous)) {
+            return hasWinningStone(previous) ? LOSS : 0;
+        }
+        if (stones == size) {
+            return DRAW;
+        }
+        long free = ~(first | second) & (-1L >>> (64 - size));
+        int best = 0;
+        int winDistance = Integer.MAX_VALUE;
+        int lossDistance = 0;
+        for (long bits = free; bits != 0; bits &= bits - 1) {
+            long square = Long.lowestOneBit(bits);
+            int child = stones % 2 == 0
+                    ? next.get((int) Tablebase.index(first | square, second)) & 0xFF
+                    : next.get((int) Tablebase.index(first, second | square)) & 0xFF;
+            int outcome = child & ~Tablebase.DISTANCE_MASK;
+            int distance = (child & Tablebase.DISTANCE_MASK) + 1;
+            if (outcome == LOSS) {
+                best = WIN;
+                winDistance = Math.min(winDistance, distance);
+            } else if (outcome == DRAW) {
+                best = Math.max(best, DRAW);
+            } else {
+                lossDistance = Math.max(lossDistance, distance);
+            }
+        }
+        if (best == WIN) {
+            return WIN | winDistance;
+        }
+        // Un nul se joue jusqu'au plateau plein.
+        return best == DRAW ? DRAW | (size - stones) : LOSS | lossDistance;
+    }
+
+    /**
+    * Écrit la table dans un fichier, couche par couche.
+    *
+    * @param path Le fichier de sortie.
+    * @throws IOException En cas d'erreur d'écriture.
+    */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        reachable.reset();
+        int headerSize = Tablebase.headerSize(size);
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(width).putInt(height)
+                .putInt(winningCount).putInt(size);
+        long[] offsets = new long[size + 2];
+        offsets[0] = headerSize;
+        for (int stones = 0; stones <= size; stones++) {
+            offsets[stones + 1] = offsets[stones] + Tablebase.layerSize(size, stones);
+        }
+        for (long offset : offsets) {
+            header.putLong(offset);
+        }
+        header.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            MappedByteBuffer next = null;
+            for (int stones = size; stones >= 0; stones--) {
+                MappedByteBuffer layer = channel.map(FileChannel.MapMode.READ_WRITE, offsets[stones],
+                        offsets[stones + 1] - offsets[stones]);
+                long occupancies = Tablebase.BINOMIALS[size][stones];
+                pool.invoke(new Slice(stones, 0, occupancies, layer, next));
+                layer.force();
+                next = layer;
+            }
+        }
+    }
+
+    /**
+    * @return Le nombre de positions atteignables écrites par le dernier appel à {@link #write}.
+    */
+    public long getReachable() {
+        return reachable.sum();
+    }
+
+    /**
+    * Position de rang {@code rank} parmi les ensembles de {@code count} cases, en ordre colexicographique.
+    */
+    private static long unrank(long rank, int count, int size) {
+        long mask = 0;
+        int square = size - 1;
+        for (int i = count; i > 0; i--) {
+            while (Tablebase.BINOMIALS[square][i] > rank) {
+                square--;
+            }
+            rank -= Tablebase.BINOMIALS[square][i];
+            mask |= 1L << square;
+            square--;
+        }
+        return mask;
+    }
+
+    /**
+    * Successeur colexicographique d'un ensemble non vide (astuce de Gosper).
+    */
+    private static long nextCombination(long mask) {
+        long lowest = mask & -mask;
+        long ripple = mask + lowest;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+
+    /**
+    * Dépose les bits de {@code selection} sur les cases de {@code occupied}, dans l'ordre.
+    */
+    private static long deposit(long selection, long occupied) {
+        long result = 0;
+        for (long bits = occupied; bits != 0 && selection != 0; bits &= bits - 1, selection >>>= 1) {
+            if ((selection & 1) != 0) {
+                result |= Long.lowestOneBit(bits);
+            }
+        }
+        return result;
+    }
+
+    /**
+    * Évalue les positions d'une couche dont le rang de cases occupées est dans {@code [from, to)}.
+    */
+    private final class Slice extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int stones;
+
+        private final long from;
+
+        private final long to;
+
+        private final transient MappedByteBuffer layer;
+
+        private final transient MappedByteBuffer next;
+
+        Slice(int stones, long from, long to, MappedByteBuffer layer, MappedByteBuffer next) {
+            this.stones = stones;
+            this.from = from;
+            this.to = to;
+            this.layer = layer;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > OCCUPANCIES_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new Slice(stones, from, middle, layer, next), new Slice(stones, middle, to, layer, next));
+                return;
+            }
+            int firstCount = (stones + 1) / 2;
+            long arrangements = Tablebase.BINOMIALS[stones][firstCount];
+            long occupied = unrank(from, stones, size);
+            long count = 0;
+            for (long rank = from; rank < to; rank++) {
+                long index = rank * arrangements;
+                long selection = (1L << firstCount) - 1;
+                for (long arrangement = 0; arrangement < arrangements; arrangement++) {
+                    long first = deposit(selection, occupied);
+                    int entry = evaluate(first, occupied & ~first, stones, next);
+                    layer.put((int) (index + arrangement), (byte) entry);
+                    if (entry != 0) {
+                        count++;
+                    }
+                    if (selection != 0) {
+                        selection = nextCombination(selection);
+                    }
+                }
+                if (occupied != 0) {
+                    occupied = nextCombination(occupied);
+                }
+            }
+            reachable.add(count);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage : TablebaseGenerator <largeur> <hauteur> <k> [fichier de sortie]");
+            System.exit(2);
+        }
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        int winningCount = Integer.parseInt(args[2]);
+        Path path = Paths.get(args.length > 3 ? args[3] : width + "x" + height + "k" + winningCount + ".tb");
+        TablebaseGenerator generator = new TablebaseGenerator(width, height, winningCount);
+        long start = System.nanoTime();
+        generator.write(path);
+        Tablebase tablebase = Tablebase.open(path);
+        TicTacToeEngine empty = new TicTacToeEngine(width, height, winningCount);
+        System.out.printf("%d positions atteignables écrites dans %s en %.1f s ; plateau vide : %s en %d coups%n",
+                generator.getReachable(), path, (System.nanoTime() - start) / 1e9,
+                tablebase.getValue(empty) > 0 ? "gain" : tablebase.getValue(empty) < 0 ? "perte" : "nul",
+                tablebase.getDistance(empty));
+    }
+}
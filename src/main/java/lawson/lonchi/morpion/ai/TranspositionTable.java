@@ -0,0 +1,104 @@
+package lawson.lonchi.morpion.ai;
+
+import java.util.Arrays;
+
+/**
+ * Table de transposition de taille fixe, indexée par hash de Zobrist.
+ * Chaque entrée tient dans deux {@code long} : la donnée compactée et la clé combinée
+ * par XOR avec cette donnée. Une entrée déchirée par une écriture concurrente ne vérifie
+ * plus la clé et est simplement ignorée, ce qui permet de partager la table entre
+ * plusieurs recherches sans verrou.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+
+    public static final int LOWER_BOUND = 1;
+
+    public static final int UPPER_BOUND = 2;
+
+    public static final long MISS = -1L;
+
+    private final long[] keys;
+
+    private final long[] data;
+
+    private final int mask;
+
+    /**
+    * Crée une table de {@code 2^bits} entrées.
+    *
+    * @param bits Le logarithme en base 2 du nombre d'entrées.
+    */
+    public TranspositionTable(int bits) {
+        if (bits < 1 || bits > 30) {
+            throw new IllegalArgumentException("Taille de table invalide : 2^" + bits);
+        }
+        keys = new long[1 << bits];
+        data = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+    * Cherche une position dans la table.
+    *
+    * @param key Le hash canonique de la position.
+    * @return La donnée compactée, ou MISS si la position est absente.
+    */
+    public long probe(long key) {
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        long entry = data[index];
+        if (entry == 0L || (keys[index] ^ entry) != key) {
+            return MISS;
+        }
+        return entry;
+    }
+
+    /**
+    * Enregistre une position, en remplaçant l'entrée existante si elle est moins profonde
+    * ou concerne une autre position.
+    *
+    * @param key   Le hash canonique de la position.
+    * @param move  Le meilleur coup (indice de case canonique), ou -1.
+    * @param score Le score du point de vue du joueur au trait.
+    * @param depth La profondeur restante de la recherche.
+    * @param flag  EXACT, LOWER_BOUND ou UPPER_BOUND.
+    */
+    public void store(long key, int move, int score, int depth, int flag) {
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        long previous = data[index];
+        if (previous != 0L && (keys[index] ^ previous) == key && depth(previous) > depth) {
+            return;
+        }
+        long entry = ((long) (move + 1) & 0xFFFFL)
+                | (((long) score & 0xFFFFL) << 16)
+                | (((long) depth & 0xFFFFL) << 32)
+                | ((long) (flag + 1) << 48);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    /**
+    * Vide la table.
+    */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFFL) - 1;
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFFFFL);
+    }
+
+    public static int flag(long entry) {
+        return (int) (entry >>> 48) - 1;
+    }
+}
@@ -0,0 +1,243 @@
+package lawson.lonchi.morpion.archive;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Statistiques agrégées d'une archive, calculées en une passe et en mémoire bornée :
+ * nombre de parties et de coups, issues, fréquence des ouvertures (les premiers coups,
+ * dans l'ordre) et, pour chaque case, la part des parties gagnées par le joueur qui l'occupait.
+ * Chaque tâche de lecture remplit ses propres statistiques, fusionnées à la fin.
+ */
+public final class ArchiveStatistics {
+
+    /**
+    * Nombre maximal de compteurs d'ouvertures : la profondeur est choisie en conséquence.
+    */
+    static final int MAX_OPENINGS = 1 << 20;
+
+    private static final Owner[] OWNERS = Owner.values();
+
+    private final int width;
+
+    private final int size;
+
+    private final int openingDepth;
+
+    private long games;
+
+    private long invalid;
+
+    private long moves;
+
+    private long resignations;
+
+    private final long[] outcomes = new long[OWNERS.length];
+
+    /**
+    * Parties où chaque case est occupée à la fin, et parties gagnées par son occupant.
+    */
+    private final long[] squarePlays;
+
+    private final long[] squareWins;
+
+    /**
+    * Compteur de chaque ouverture, indexée en base {@code size} par ses premiers coups.
+    */
+    private final long[] openings;
+
+    ArchiveStatistics(int width, int height) {
+        this.width = width;
+        this.size = width * height;
+        int depth = 0;
+        long count = 1;
+        while (depth < 3 && count * size <= MAX_OPENINGS) {
+            count *= size;
+            depth++;
+        }
+        this.openingDepth = depth;
+        squarePlays = new long[size];
+        squareWins = new long[size];
+        openings = new long[(int) count];
+    }
+
+    /**
+    * Valide une partie en la rejouant, puis l'intègre si elle est valide.
+    *
+    * @param engine   Un moteur aux dimensions de l'archive, réutilisé d'une partie à l'autre.
+    * @param record   Les cases jouées.
+    * @param length   Le nombre de coups.
+    * @param winner   Le gagnant enregistré.
+    * @param resigned true si la partie s'est terminée par un abandon.
+    */
+    void record(TicTacToeEngine engine, int[] record, int length, Owner winner, boolean resigned) {
+        if (!GameArchive.replay(engine, record, length, winner, resigned)) {
+            invalid++;
+            return;
+        }
+        games++;
+        moves += length;
+        outcomes[winner.ordinal()]++;
+        if (resigned) {
+            resignations++;
+        }
+        for (int i = 0; i < length; i++) {
+            int square = record[i];
+            squarePlays[square]++;
+            // Les coups de X sont aux rangs pairs.
+            if (winner == ((i & 1) == 0 ? Owner.FIRST : Owner.SECOND)) {
+                squareWins[square]++;
+            }
+        }
+        if (length >= openingDepth) {
+            int opening = 0;
+            for (int i = 0; i < openingDepth; i++) {
+                opening = opening * size + record[i];
+            }
+            openings[opening]++;
+        }
+    }
+
+    /**
+    * Ajoute les statistiques d'une autre tâche.
+    */
+    void merge(ArchiveStatistics other) {
+        games += other.games;
+        invalid += other.invalid;
+        moves += other.moves;
+        resignations += other.resignations;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] += other.outcomes[i];
+        }
+        for (int square = 0; square < size; square++) {
+            squarePlays[square] += other.squarePlays[square];
+            squareWins[square] += other.squareWins[square];
+        }
+        for (int i = 0; i < openings.length; i++) {
+            openings[i] += other.openings[i];
+        }
+    }
+
+    /**
+    * @return Le nombre de parties valides.
+    */
+    public long getGameCount() {
+        return games;
+    }
+
+    /**
+    * @return Le nombre de parties rejetées : coup illégal, partie inachevée ou gagnant incohérent.
+    */
+    public long getInvalidCount() {
+        return invalid;
+    }
+
+    public long getMoveCount() {
+        return moves;
+    }
+
+    public double getAverageLength() {
+        return games == 0 ? 0.0 : (double) moves / games;
+    }
+
+    /**
+    * @param winner Le gagnant, ou NONE pour les nuls.
+    * @return Le nombre de parties de cette issue.
+    */
+    public long getOutcomeCount(Owner winner) {
+        return outcomes[winner.ordinal()];
+    }
+
+    public long getResignationCount() {
+        return resignations;
+    }
+
+    /**
+    * @param square La case.
+    * @return Le nombre de parties où la case a été jouée.
+    */
+    public long getPlayCount(int square) {
+        return squarePlays[square];
+    }
+
+    /**
+    * @param square La case.
+    * @return La part des parties gagnées par le joueur qui a occupé la case, entre 0 et 1.
+    */
+    public double getWinRate(int square) {
+        return squarePlays[square] == 0 ? 0.0 : (double) squareWins[square] / squarePlays[square];
+    }
+
+    /**
+    * @return Le nombre de coups qui forment une ouverture.
+    */
+    public int getOpeningDepth() {
+        return openingDepth;
+    }
+
+    /**
+    * @param squares Les {@link #getOpeningDepth()} premiers coups, dans l'ordre.
+    * @return Le nombre de parties qui commencent ainsi.
+    */
+    public long getOpeningCount(int... squares) {
+        if (squares.length != openingDepth) {
+            throw new IllegalArgumentException("Une ouverture compte " + openingDepth + " coups");
+        }
+        int opening = 0;
+        for (int square : squares) {
+            opening = opening * size + square;
+        }
+        return openings[opening];
+    }
+
+    /**
+    * @param count Le nombre d'ouvertures voulues.
+    * @return Les ouvertures les plus jouées, de la plus fréquente à la moins fréquente.
+    */
+    public List<int[]> getTopOpenings(int count) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < openings.length; i++) {
+            if (openings[i] != 0) {
+                indices.add(i);
+            }
+        }
+        indices.sort(Comparator.comparingLong((Integer i) -> -openings[i]).thenComparingInt(i -> i));
+        List<int[]> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, indices.size()); i++) {
+            int[] squares = new int[openingDepth];
+            int opening = indices.get(i);
+            for (int d = openingDepth - 1; d >= 0; d--) {
+                squares[d] = opening % size;
+                opening /= size;
+            }
+            top.add(squares);
+        }
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format(
+                "%d parties (%d rejetées), %.2f coups en moyenne%nX : %d, O : %d, nuls : %d, abandons : %d",
+                games, invalid, getAverageLength(), outcomes[Owner.FIRST.ordinal()],
+                outcomes[Owner.SECOND.ordinal()], outcomes[Owner.NONE.ordinal()], resignations));
+        builder.append(String.format("%nOuvertures les plus jouées :"));
+        for (int[] opening : getTopOpenings(5)) {
+            StringBuilder squares = new StringBuilder();
+            for (int square : opening) {
+                squares.append(String.format(" (%d, %d)", square / width, square % width));
+            }
+            builder.append(String.format("%n %8d%s", getOpeningCount(opening), squares));
+        }
+        builder.append(String.format("%nTaux de victoire de l'occupant, par case :"));
+        for (int square = 0; square < size; square++) {
+            builder.append(square % width == 0 ? String.format("%n") : " ").append(String.format("%5.3f",
+                    getWinRate(square)));
+        }
+        return builder.toString();
+    }
+}
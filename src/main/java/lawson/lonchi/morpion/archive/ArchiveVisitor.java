@@ -0,0 +1,21 @@
+package lawson.lonchi.morpion.archive;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Reçoit les parties d'une archive, dans l'ordre du fichier.
+ * Les coups sont passés dans un tableau réutilisé d'une partie à l'autre : la lecture
+ * n'alloue aucun objet par partie.
+ */
+public interface ArchiveVisitor {
+
+    /**
+    * Partie terminée.
+    *
+    * @param moves    Les cases jouées ({@code row * width + column}) ; le tableau n'est valable que pendant l'appel.
+    * @param length   Le nombre de coups.
+    * @param winner   Le gagnant, ou NONE pour un nul.
+    * @param resigned true si la partie s'est terminée par un abandon.
+    */
+    void game(int[] moves, int length, Owner winner, boolean resigned);
+}
@@ -0,0 +1,437 @@
+package lawson.lonchi.morpion.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+
+/**
+ * Archive de parties terminées, en colonnes, pour l'analyse de très gros volumes.
+ * Le fichier (gros-boutiste) commence par un en-tête de {@value #HEADER_SIZE} octets
+ * (magique, version, largeur, hauteur, nombre de pions à aligner), suivi de blocs de
+ * parties, puis de l'index des blocs :
+ * <ul>
+ * <li>bloc : nombre de parties, nombre de coups, puis trois colonnes : les longueurs,
+ * les issues (gagnant, plus {@link #RESIGNED} pour un abandon) et les coups, bout à bout ;</li>
+ * <li>index : position et nombre de parties de chaque bloc, puis nombre de blocs,
+ * nombre total de parties et le nombre magique.</li>
+ * </ul>
+ * Longueurs et cases tiennent sur un octet si le plateau a moins de 256 cases, sur deux sinon.
+ * <p>
+ * Les blocs sont indépendants : {@link #analyze()} les répartit entre les threads d'un
+ * pool, chaque tâche projetant ses blocs en mémoire l'un après l'autre. Chaque partie est
+ * validée en la rejouant sur un {@link TicTacToeEngine}, le moteur des règles du
+ * {@link TicTacToeModel} ; la mémoire utilisée ne dépend que de la taille d'un bloc et du
+ * nombre de threads.
+ */
+public final class GameArchive implements AutoCloseable {
+
+    static final int MAGIC = 0x4D474152;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    static final int TRAILER_SIZE = 16;
+
+    static final int MAX_DIMENSION = 0xFF;
+
+    /**
+    * Bit de l'octet d'issue marquant un abandon.
+    */
+    static final int RESIGNED = 0x4;
+
+    private static final Owner[] OWNERS = Owner.values();
+
+    private static final LongAdder GAMES = Metrics.get().counter("archive.games");
+
+    private static final LongAdder INVALID = Metrics.get().counter("archive.invalid");
+
+    private final FileChannel channel;
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final int valueBytes;
+
+    /**
+    * Position de chaque bloc, plus celle de l'index, qui termine le dernier.
+    */
+    private final long[] chunkOffsets;
+
+    private final int[] chunkCounts;
+
+    private final long gameCount;
+
+    private GameArchive(FileChannel channel, int width, int height, int winningCount, long[] chunkOffsets,
+            int[] chunkCounts, long gameCount) {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.valueBytes = valueBytes(width * height);
+        this.chunkOffsets = chunkOffsets;
+        this.chunkCounts = chunkCounts;
+        this.gameCount = gameCount;
+    }
+
+    /**
+    * Ouvre une archive en lecture et lit son index.
+    *
+    * @param path Le chemin de l'archive.
+    * @return L'archive.
+    * @throws IOException Si le fichier est illisible, incomplet ou n'est pas une archive.
+    */
+    public static GameArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Archive invalide : " + path);
+            }
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            int chunkCount = trailer.getInt(0);
+            long indexStart = size - TRAILER_SIZE - (long) chunkCount * INDEX_ENTRY_SIZE;
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || trailer.getInt(12) != MAGIC
+                    || chunkCount < 0 || indexStart < HEADER_SIZE) {
+                throw new IOException("Archive invalide ou non fermée : " + path);
+            }
+            ByteBuffer index = read(channel, indexStart, chunkCount * INDEX_ENTRY_SIZE);
+            long[] offsets = new long[chunkCount + 1];
+            int[] counts = new int[chunkCount];
+            long games = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                offsets[chunk] = index.getLong(chunk * INDEX_ENTRY_SIZE);
+                counts[chunk] = index.getInt(chunk * INDEX_ENTRY_SIZE + 8);
+                games += counts[chunk];
+            }
+            offsets[chunkCount] = indexStart;
+            if (games != trailer.getLong(4)) {
+                throw new IOException("Index de l'archive incohérent : " + path);
+            }
+            return new GameArchive(channel, header.getShort(8) & 0xFFFF, header.getShort(10) & 0xFFFF,
+                    header.getShort(12) & 0xFFFF, offsets, counts, games);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.BIG_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de fichier inattendue à l'octet " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    static int valueBytes(int size) {
+        return size < 0x100 ? 1 : 2;
+    }
+
+    static byte outcome(Owner winner, boolean resigned) {
+        return (byte) (winner.ordinal() | (resigned ? RESIGNED : 0));
+    }
+
+    /**
+    * Rejoue une partie sur un moteur et vérifie qu'elle est terminée et cohérente :
+    * coups légaux, aucun coup après la fin, gagnant conforme au plateau ou, pour un abandon,
+    * partie encore en cours au moment de l'abandon.
+    *
+    * @return true si la partie est valide ; le moteur est alors dans sa position finale.
+    */
+    static boolean replay(TicTacToeEngine engine, int[] record, int length, Owner winner, boolean resigned) {
+        engine.restart();
+        int width = engine.getWidth();
+        if (length < 0 || length > engine.getSize()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int square = record[i];
+            if (square < 0 || square >= engine.getSize() || !engine.play(square / width, square % width)) {
+                return false;
+            }
+        }
+        if (resigned) {
+            if (engine.isGameOver() || winner == Owner.NONE) {
+                return false;
+            }
+            engine.setWinner(winner);
+            return true;
+        }
+        return engine.isGameOver() && engine.getWinner() == winner;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinningCount() {
+        return winningCount;
+    }
+
+    /**
+    * @return Le nombre de parties de l'archive.
+    */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    public int getChunkCount() {
+        return chunkCounts.length;
+    }
+
+    /**
+    * Parcourt séquentiellement toutes les parties, sans les valider.
+    *
+    * @param visitor Le destinataire des parties.
+    * @throws IOException Si l'archive est illisible ou corrompue.
+    */
+    public void forEach(ArchiveVisitor visitor) throws IOException {
+        int[] record = new int[width * height];
+        for (int chunk = 0; chunk < chunkCounts.length; chunk++) {
+            visitChunk(chunk, record, visitor);
+        }
+    }
+
+    /**
+    * Calcule les statistiques de l'archive sur le pool commun.
+    *
+    * @return Les statistiques des parties valides, et le nombre de parties rejetées.
+    * @throws IOException Si l'archive est illisible ou corrompue.
+    */
+    public ArchiveStatistics analyze() throws IOException {
+        return analyze(ForkJoinPool.commonPool());
+    }
+
+    /**
+    * Calcule les statistiques de l'archive en une passe, les blocs étant répartis entre
+    * les threads du pool.
+    *
+    * @param pool Le pool d'exécution.
+    * @return Les statistiques des parties valides, et le nombre de parties rejetées.
+    * @throws IOException Si l'archive est illisible ou corrompue.
+    */
+    public ArchiveStatistics analyze(ForkJoinPool pool) throws IOException {
+        ArchiveStatistics totals = new ArchiveStatistics(width, height);
+        Analysis analysis = new Analysis(0, chunkCounts.length,
+                Math.max(1, chunkCounts.length / (4 * pool.getParallelism())), totals);
+        try {
+            pool.invoke(analysis);
+        } catch (UncheckedChunkException e) {
+            throw e.getCause();
+        }
+        return totals;
+    }
+
+    /**
+    * Charge une partie de l'archive dans un modèle, coup par coup : le modèle est
+    * recommencé, puis la partie y est rejouée (liaisons et écouteurs compris).
+    *
+    * @param game  Le numéro de la partie, de 0 à {@code getGameCount() - 1}.
+    * @param model Un modèle aux dimensions de l'archive.
+    * @throws IOException Si l'archive est illisible, corrompue, ou si la partie est invalide.
+    */
+    public void load(long game, TicTacToeModel model) throws IOException {
+        if (game < 0 || game >= gameCount) {
+            throw new IndexOutOfBoundsException("Partie " + game + " sur " + gameCount);
+        }
+        if (model.getWidth() != width || model.getHeight() != height || model.getWinningCount() != winningCount) {
+            throw new IllegalArgumentException("Le modèle ne correspond pas aux dimensions de l'archive");
+        }
+        int chunk = 0;
+        while (game >= chunkCounts[chunk]) {
+            game -= chunkCounts[chunk++];
+        }
+        int target = (int) game;
+        ArchiveVisitor loader = new ArchiveVisitor() {
+            private int index;
+
+            @Override
+            public void game(int[] moves, int length, Owner winner, boolean resigned) {
+                if (index++ != target) {
+                    return;
+                }
+                if (!replay(new TicTacToeEngine(width, height, winningCount), moves, length, winner, resigned)) {
+                    throw new UncheckedChunkException(new IOException("Partie invalide : " + target));
+                }
+                model.restart();
+                for (int i = 0; i < length; i++) {
+                    model.play(moves[i] / width, moves[i] % width);
+                }
+                if (resigned) {
+                    model.setWinner(winner);
+                }
+            }
+        };
+        try {
+            visitChunk(chunk, new int[width * height], loader);
+        } catch (UncheckedChunkException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+    * Projette un bloc en mémoire et en décode les parties.
+    */
+    private void visitChunk(int chunk, int[] record, ArchiveVisitor visitor) throws IOException {
+        long offset = chunkOffsets[chunk];
+        long length = chunkOffsets[chunk + 1] - offset;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        int games = buffer.getInt(0);
+        long moves = buffer.getInt(4) & 0xFFFFFFFFL;
+        int lengths = 8;
+        int outcomes = lengths + games * valueBytes;
+        int squares = outcomes + games;
+        if (games != chunkCounts[chunk] || squares + moves * valueBytes != length) {
+            throw new IOException("Bloc " + chunk + " corrompu");
+        }
+        for (int game = 0; game < games; game++) {
+            int count = get(buffer, lengths + game * valueBytes);
+            if (count > record.length || squares + (long) count * valueBytes > length) {
+                throw new IOException("Bloc " + chunk + " corrompu à la partie " + game);
+            }
+            for (int i = 0; i < count; i++) {
+                record[i] = get(buffer, squares + i * valueBytes);
+            }
+            squares += count * valueBytes;
+            int outcome = buffer.get(outcomes + game);
+            if ((outcome & 0x3) >= OWNERS.length) {
+                throw new IOException("Bloc " + chunk + " corrompu à la partie " + game);
+            }
+            visitor.game(record, count, OWNERS[outcome & 0x3], (outcome & RESIGNED) != 0);
+        }
+    }
+
+    private int get(ByteBuffer buffer, int position) {
+        return valueBytes == 1 ? buffer.get(position) & 0xFF : buffer.getShort(position) & 0xFFFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+    * Transporte une {@link IOException} hors d'une tâche du pool.
+    */
+    private static final class UncheckedChunkException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UncheckedChunkException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+    * Analyse d'une plage de blocs : découpée en deux tant qu'elle dépasse le seuil, puis
+    * lue séquentiellement avec ses propres statistiques, ajoutées au total à la fin.
+    */
+    private final class Analysis extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        private final int threshold;
+
+        private final ArchiveStatistics totals;
+
+        Analysis(int from, int to, int threshold, ArchiveStatistics totals) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Analysis(from, middle, threshold, totals), new Analysis(middle, to, threshold, totals));
+                return;
+            }
+            ArchiveStatistics local = new ArchiveStatistics(width, height);
+            TicTacToeEngine engine = new TicTacToeEngine(width, height, winningCount);
+            int[] record = new int[width * height];
+            ArchiveVisitor visitor = (moves, length, winner, resigned) -> local.record(engine, moves, length, winner,
+                    resigned);
+            try {
+                for (int chunk = from; chunk < to; chunk++) {
+                    visitChunk(chunk, record, visitor);
+                }
+            } catch (IOException e) {
+                throw new UncheckedChunkException(e);
+            }
+            if (Metrics.ENABLED) {
+                GAMES.add(local.getGameCount());
+                INVALID.add(local.getInvalidCount());
+            }
+            synchronized (totals) {
+                totals.merge(local);
+            }
+        }
+    }
+
+    /**
+    * {@code GameArchive <archive>} affiche les statistiques d'une archive ;
+    * {@code GameArchive import <journal> <archive> [largeur hauteur k]} y importe les
+    * parties terminées d'un journal de coups.
+    */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("import")) {
+            int width = args.length > 5 ? Integer.parseInt(args[3]) : TicTacToeEngine.DEFAULT_WIDTH;
+            int height = args.length > 5 ? Integer.parseInt(args[4]) : TicTacToeEngine.DEFAULT_HEIGHT;
+            int winningCount = args.length > 5 ? Integer.parseInt(args[5]) : TicTacToeEngine.DEFAULT_WINNING_COUNT;
+            try (GameArchiveWriter writer = GameArchiveWriter.create(Paths.get(args[2]), width, height, winningCount)) {
+                System.out.println(writer.importJournal(Paths.get(args[1])) + " parties importées");
+            }
+            return;
+        }
+        if (args.length != 1) {
+            System.err.println("Usage : GameArchive <archive> | GameArchive import <journal> <archive> [largeur hauteur k]");
+            return;
+        }
+        try (GameArchive archive = GameArchive.open(Paths.get(args[0]))) {
+            long start = System.nanoTime();
+            ArchiveStatistics statistics = archive.analyze();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(statistics);
+            System.out.printf("%d blocs analysés en %.2f s (%.0f parties/s)%n", archive.getChunkCount(), seconds,
+                    (statistics.getGameCount() + statistics.getInvalidCount()) / seconds);
+        }
+    }
+}
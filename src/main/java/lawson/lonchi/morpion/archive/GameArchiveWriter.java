@@ -0,0 +1,356 @@
+package lawson.lonchi.morpion.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import lawson.lonchi.morpion.journal.JournalReader;
+import lawson.lonchi.morpion.journal.JournalVisitor;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+
+/**
+ * Écrit une archive de parties terminées au format de {@link GameArchive}.
+ * Les parties sont accumulées colonne par colonne dans un bloc en mémoire, écrit d'un
+ * seul tenant quand il est plein : la mémoire utilisée ne dépend pas de la taille de
+ * l'archive. Chaque partie est rejouée avant d'être acceptée. L'index des blocs est
+ * écrit à la fermeture ; une archive non fermée est illisible.
+ * L'écrivain n'est pas synchronisé.
+ */
+public final class GameArchiveWriter implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_GAMES = 1 << 16;
+
+    /**
+    * Taille visée de la colonne des coups d'un bloc, en octets.
+    */
+    private static final int CHUNK_MOVE_BYTES = 1 << 22;
+
+    private final FileChannel channel;
+
+    private final TicTacToeEngine engine;
+
+    private final int width;
+
+    private final int valueBytes;
+
+    private final int chunkGames;
+
+    private final ByteBuffer lengths;
+
+    private final ByteBuffer outcomes;
+
+    private final ByteBuffer moves;
+
+    private final ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+
+    private long[] chunkOffsets = new long[16];
+
+    private int[] chunkCounts = new int[16];
+
+    private int chunkCount;
+
+    private int games;
+
+    private long totalGames;
+
+    private long position;
+
+    private boolean closed;
+
+    private GameArchiveWriter(FileChannel channel, int width, int height, int winningCount, int chunkGames) {
+        this.channel = channel;
+        this.engine = new TicTacToeEngine(width, height, winningCount);
+        this.width = width;
+        int size = width * height;
+        this.valueBytes = GameArchive.valueBytes(size);
+        this.chunkGames = chunkGames;
+        this.lengths = ByteBuffer.allocate(chunkGames * valueBytes).order(ByteOrder.BIG_ENDIAN);
+        this.outcomes = ByteBuffer.allocate(chunkGames);
+        long moveBytes = Math.min((long) chunkGames * size, Math.max(size, CHUNK_MOVE_BYTES / valueBytes)) * valueBytes;
+        this.moves = ByteBuffer.allocate((int) moveBytes).order(ByteOrder.BIG_ENDIAN);
+        this.position = GameArchive.HEADER_SIZE;
+    }
+
+    /**
+    * Crée une archive vide, en écrasant un fichier existant.
+    *
+    * @param path         Le chemin du fichier.
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @return L'écrivain.
+    * @throws IOException Si le fichier ne peut pas être créé.
+    */
+    public static GameArchiveWriter create(Path path, int width, int height, int winningCount) throws IOException {
+        return create(path, width, height, winningCount, DEFAULT_CHUNK_GAMES);
+    }
+
+    /**
+    * Crée une archive vide, en écrasant un fichier existant.
+    *
+    * @param path         Le chemin du fichier.
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param chunkGames   Le nombre maximal de parties par bloc.
+    * @return L'écrivain.
+    * @throws IOException Si le fichier ne peut pas être créé.
+    */
+    public static GameArchiveWriter create(Path path, int width, int height, int winningCount, int chunkGames)
+            throws IOException {
+        if (width > GameArchive.MAX_DIMENSION || height > GameArchive.MAX_DIMENSION || chunkGames <= 0) {
+            throw new IllegalArgumentException("Archive invalide : " + width + "x" + height + ", " + chunkGames
+                    + " parties par bloc");
+        }
+        // Valide les dimensions avant de créer le fichier.
+        new TicTacToeEngine(width, height, winningCount);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION)
+                    .putShort((short) width).putShort((short) height).putShort((short) winningCount)
+                    .putShort((short) 0).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            return new GameArchiveWriter(channel, width, height, winningCount, chunkGames);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+    * Ajoute la partie d'un modèle.
+    *
+    * @param model Le modèle, dont la partie est terminée.
+    * @throws IOException Si l'écriture d'un bloc a échoué.
+    */
+    public void write(TicTacToeModel model) throws IOException {
+        write(model.getEngine());
+    }
+
+    /**
+    * Ajoute la partie d'un moteur : ses coups joués, son gagnant et, si le gagnant
+    * n'a pas de ligne, un abandon.
+    *
+    * @param position Le moteur, dont la partie est terminée.
+    * @throws IOException Si l'écriture d'un bloc a échoué.
+    */
+    public void write(TicTacToeEngine position) throws IOException {
+        int[] record = new int[position.getMoveCount()];
+        for (int i = 0; i < record.length; i++) {
+            record[i] = position.getMove(i);
+        }
+        Owner winner = position.getWinner();
+        write(record, record.length, winner, winner != Owner.NONE && position.getWinningLine() == TicTacToeEngine.NO_LINE);
+    }
+
+    /**
+    * Ajoute une partie.
+    *
+    * @param record   Les cases jouées ({@code row * width + column}).
+    * @param length   Le nombre de coups.
+    * @param winner   Le gagnant, ou NONE pour un nul.
+    * @param resigned true si la partie s'est terminée par un abandon.
+    * @throws IOException Si l'écriture d'un bloc a échoué.
+    * @throws IllegalArgumentException Si la partie n'est pas une partie terminée valide.
+    */
+    public void write(int[] record, int length, Owner winner, boolean resigned) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Archive fermée");
+        }
+        if (!GameArchive.replay(engine, record, length, winner, resigned)) {
+            throw new IllegalArgumentException("Partie invalide : " + Arrays.toString(Arrays.copyOf(record, length)));
+        }
+        if (moves.remaining() < length * valueBytes) {
+            flush();
+        }
+        put(lengths, length);
+        outcomes.put(GameArchive.outcome(winner, resigned));
+        for (int i = 0; i < length; i++) {
+            put(moves, record[i]);
+        }
+        if (++games == chunkGames) {
+            flush();
+        }
+    }
+
+    private void put(ByteBuffer buffer, int value) {
+        if (valueBytes == 1) {
+            buffer.put((byte) value);
+        } else {
+            buffer.putShort((short) value);
+        }
+    }
+
+    /**
+    * Écrit le bloc en cours : en-tête, colonne des longueurs, des issues puis des coups.
+    */
+    private void flush() throws IOException {
+        if (games == 0) {
+            return;
+        }
+        if (chunkCount == chunkOffsets.length) {
+            chunkOffsets = Arrays.copyOf(chunkOffsets, 2 * chunkCount);
+            chunkCounts = Arrays.copyOf(chunkCounts, 2 * chunkCount);
+        }
+        chunkOffsets[chunkCount] = position;
+        chunkCounts[chunkCount++] = games;
+        chunkHeader.clear();
+        chunkHeader.putInt(games).putInt(moves.position() / valueBytes).flip();
+        lengths.flip();
+        outcomes.flip();
+        moves.flip();
+        position += writeFully(chunkHeader, lengths, outcomes, moves);
+        lengths.clear();
+        outcomes.clear();
+        moves.clear();
+        totalGames += games;
+        games = 0;
+    }
+
+    private long writeFully(ByteBuffer... buffers) throws IOException {
+        long total = 0;
+        for (ByteBuffer buffer : buffers) {
+            total += buffer.remaining();
+        }
+        for (long written = 0; written < total; ) {
+            written += channel.write(buffers);
+        }
+        return total;
+    }
+
+    /**
+    * Importe les parties terminées d'un journal de coups ({@link lawson.lonchi.morpion.journal.MoveJournal})
+    * aux dimensions de l'archive. Les annulations sont rejouées ; les parties inachevées,
+    * recommencées ou d'autres dimensions sont ignorées.
+    *
+    * @param journal Le chemin du journal.
+    * @return Le nombre de parties importées.
+    * @throws IOException Si le journal est illisible ou corrompu, ou si l'écriture a échoué.
+    */
+    public long importJournal(Path journal) throws IOException {
+        JournalImport visitor = new JournalImport();
+        JournalReader.read(journal, visitor);
+        if (visitor.failure != null) {
+            throw visitor.failure;
+        }
+        return visitor.imported;
+    }
+
+    /**
+    * Rejoue le journal, une partie en cours par session, et archive chaque partie qui se termine.
+    */
+    private final class JournalImport implements JournalVisitor {
+
+        private final Map<Long, TicTacToeEngine> playing = new HashMap<>();
+
+        private long imported;
+
+        private IOException failure;
+
+        @Override
+        public void start(long session, int width, int height, int winningCount) {
+            if (width == engine.getWidth() && height == engine.getHeight()
+                    && winningCount == engine.getWinningCount()) {
+                playing.put(session, new TicTacToeEngine(width, height, winningCount));
+            } else {
+                playing.remove(session);
+            }
+        }
+
+        @Override
+        public void move(long session, int moveIndex, int square, Owner owner) {
+            TicTacToeEngine position = playing.get(session);
+            if (position == null) {
+                return;
+            }
+            if (square < 0 || square >= position.getSize()) {
+                playing.remove(session);
+                if (failure == null) {
+                    failure = new IOException("Case " + square + " hors du plateau, coup " + moveIndex
+                            + " de la session " + session);
+                }
+                return;
+            }
+            if (position.getTurn() != owner || !position.play(square / width, square % width)) {
+                playing.remove(session);
+            } else if (position.isGameOver()) {
+                finish(session, position);
+            }
+        }
+
+        @Override
+        public void resign(long session, int moveIndex, Owner owner) {
+            TicTacToeEngine position = playing.get(session);
+            if (position != null && !position.isGameOver()) {
+                position.setWinner(owner.opposite());
+                finish(session, position);
+            }
+        }
+
+        @Override
+        public void undo(long session, int moveIndex) {
+            TicTacToeEngine position = playing.get(session);
+            if (position != null && !position.undo()) {
+                playing.remove(session);
+            }
+        }
+
+        private void finish(long session, TicTacToeEngine position) {
+            playing.remove(session);
+            if (failure != null) {
+                return;
+            }
+            try {
+                write(position);
+                imported++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+    * @return Le nombre de parties écrites, y compris celles du bloc en cours.
+    */
+    public long getGameCount() {
+        return totalGames + games;
+    }
+
+    /**
+    * Écrit le dernier bloc et l'index des blocs, puis ferme le fichier.
+    *
+    * @throws IOException Si l'écriture a échoué.
+    */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            ByteBuffer index = ByteBuffer.allocate(chunkCount * GameArchive.INDEX_ENTRY_SIZE + GameArchive.TRAILER_SIZE)
+                    .order(ByteOrder.BIG_ENDIAN);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                index.putLong(chunkOffsets[chunk]).putInt(chunkCounts[chunk]);
+            }
+            index.putInt(chunkCount).putLong(totalGames).putInt(GameArchive.MAGIC).flip();
+            writeFully(index);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+}
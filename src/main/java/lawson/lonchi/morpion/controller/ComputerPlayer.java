@@ -0,0 +1,156 @@
+package lawson.lonchi.morpion.controller;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javafx.application.Platform;
+import lawson.lonchi.morpion.ai.RandomStrategy;
+import lawson.lonchi.morpion.ai.Strategy;
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+
+/**
+ * Adversaire ordinateur qui ne bloque jamais le thread JavaFX.
+ * La recherche porte sur une copie du moteur, dans un thread d'arrière-plan ; le coup
+ * trouvé est publié en une seule tâche {@link Platform#runLater}, qui remet à faux la
+ * propriété {@link TicTacToeModel#thinkingProperty()} et joue le coup. Une recherche
+ * annulée ou dépassée (partie relancée, coup annulé) est ignorée à la publication.
+ * Si la stratégie échoue ou propose un coup illégal, l'ordinateur joue une case libre
+ * au hasard : la main ne revient jamais au joueur humain sans que l'ordinateur ait joué.
+ * Toutes les méthodes publiques sont appelées depuis le thread JavaFX.
+ */
+public class ComputerPlayer implements AutoCloseable {
+
+    private static final LatencyHistogram THINK_TIME = Metrics.get().histogram("ai.think");
+
+    private static final Strategy FALLBACK = new RandomStrategy();
+
+    private final TicTacToeModel model;
+
+    private final Strategy strategy;
+
+    private final Owner side;
+
+    private final Executor publisher;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "morpion-ai");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    /**
+    * N'est utilisé que par le thread de recherche.
+    */
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Future<?> pending;
+
+    /**
+    * Numéro de la dernière recherche lancée ; un résultat d'un autre numéro est périmé.
+    */
+    private long generation;
+
+    /**
+    * @param model    Le modèle de la partie.
+    * @param strategy La stratégie de l'ordinateur.
+    * @param side     Le joueur tenu par l'ordinateur.
+    */
+    public ComputerPlayer(TicTacToeModel model, Strategy strategy, Owner side) {
+        this(model, strategy, side, Platform::runLater);
+    }
+
+    /**
+    * @param model     Le modèle de la partie.
+    * @param strategy  La stratégie de l'ordinateur.
+    * @param side      Le joueur tenu par l'ordinateur.
+    * @param publisher L'exécuteur du thread qui possède le modèle.
+    */
+    public ComputerPlayer(TicTacToeModel model, Strategy strategy, Owner side, Executor publisher) {
+        this.model = model;
+        this.strategy = strategy;
+        this.side = side;
+        this.publisher = publisher;
+    }
+
+    /**
+    * @return Le joueur tenu par l'ordinateur.
+    */
+    public Owner getSide() {
+        return side;
+    }
+
+    /**
+    * Lance la recherche si c'est à l'ordinateur de jouer et qu'aucune recherche n'est en cours.
+    *
+    * @return true si une recherche a été lancée.
+    */
+    public boolean requestMove() {
+        TicTacToeEngine engine = model.getEngine();
+        if (pending != null || engine.isGameOver() || engine.getTurn() != side) {
+            return false;
+        }
+        TicTacToeEngine position = new TicTacToeEngine(engine);
+        long ticket = ++generation;
+        model.thinkingProperty().set(true);
+        pending = executor.submit(() -> {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+            int square;
+            try {
+                square = strategy.chooseMove(position, random);
+            } catch (RuntimeException e) {
+                System.err.println("Recherche de l'ordinateur interrompue : " + e);
+                square = -1;
+            }
+            int width = position.getWidth();
+            if (square < 0 || !position.validSquare(square / width, square % width)) {
+                square = FALLBACK.chooseMove(position, random);
+            }
+            if (Metrics.ENABLED) {
+                THINK_TIME.record(System.nanoTime() - start);
+            }
+            int move = square;
+            publisher.execute(() -> publish(ticket, move));
+        });
+        return true;
+    }
+
+    private void publish(long ticket, int square) {
+        if (ticket != generation) {
+            return;
+        }
+        pending = null;
+        model.thinkingProperty().set(false);
+        if (square >= 0) {
+            model.play(square / model.getWidth(), square % model.getWidth());
+        }
+    }
+
+    /**
+    * Abandonne la recherche en cours : son résultat ne sera pas joué.
+    */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        model.thinkingProperty().set(false);
+    }
+
+    /**
+    * Abandonne la recherche en cours et arrête le thread de recherche.
+    */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
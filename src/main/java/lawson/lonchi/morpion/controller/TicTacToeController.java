@@ -1,13 +1,26 @@
     package lawson.lonchi.morpion.controller;
 
+    import javafx.beans.InvalidationListener;
+    import javafx.beans.binding.BooleanBinding;
+    import javafx.css.PseudoClass;
     import javafx.fxml.FXML;
     import javafx.geometry.Insets;
     import javafx.scene.control.Button;
     import javafx.scene.control.Label;
+    import javafx.scene.layout.BorderPane;
+    import javafx.scene.layout.ColumnConstraints;
     import javafx.scene.layout.GridPane;
+    import javafx.scene.layout.Priority;
+    import javafx.scene.layout.RowConstraints;
     import javafx.scene.layout.VBox;
+    import lawson.lonchi.morpion.ai.Strategy;
+    import lawson.lonchi.morpion.metrics.LatencyHistogram;
+    import lawson.lonchi.morpion.metrics.Metrics;
     import lawson.lonchi.morpion.model.TicTacToeModel;
+    import lawson.lonchi.morpion.simulation.SelfPlaySimulator;
+    import lawson.lonchi.morpion.view.CanvasBoardView;
     import lawson.lonchi.morpion.view.TicTacToeSquare;
+    import lawson.lonchi.morpion.view.TicTacToeView;
     import lawson.lonchi.morpion.model.Owner;
 
     public class TicTacToeController {
@@ -30,12 +43,61 @@
         @FXML
         private Button restartButton;
 
+        @FXML
+        private Button undoButton;
+
+        @FXML
+        private Button redoButton;
+
+        @FXML
+        private Label thinkingLabel;
+
+        private static final int CANVAS_THRESHOLD = 400;
+
+        private static final PseudoClass TO_MOVE = PseudoClass.getPseudoClass("to-move");
+
+        private static final PseudoClass GAME_OVER = PseudoClass.getPseudoClass("game-over");
+
+        private static final LatencyHistogram CLICK_TIME = Metrics.get().histogram("ui.click");
+
+        private static final LatencyHistogram UPDATE_TIME = Metrics.get().histogram("ui.update");
+
         private TicTacToeModel model = TicTacToeModel.getInstance();
 
+        private BooleanBinding gameOver;
+
+        private final InvalidationListener turnListener = observable -> updateView();
+
+        private ComputerPlayer computer;
+
+        private CanvasBoardView boardView;
+
+        /**
+         * Relie le contrôleur à une vue construite en Java, sans chargement FXML ni injection
+         * par réflexion, puis l'initialise.
+         *
+         * @param view La vue principale.
+         */
+        public void attach(TicTacToeView view) {
+            gridPane = view.getGridPane();
+            xScoreLabel = view.getXScoreLabel();
+            oScoreLabel = view.getOScoreLabel();
+            freeSquaresLabel = view.getFreeSquaresLabel();
+            endOfGameMessage = view.getEndOfGameMessage();
+            thinkingLabel = view.getThinkingLabel();
+            restartButton = view.getRestartButton();
+            undoButton = view.getUndoButton();
+            redoButton = view.getRedoButton();
+            undoButton.setOnAction(event -> handleUndo());
+            restartButton.setOnAction(event -> handleRestart());
+            redoButton.setOnAction(event -> handleRedo());
+            initialize();
+        }
+
         /**
          * Initialise le contrôleur et configure les bindings entre la vue et le modèle.
          * Cette méthode est appelée automatiquement après le chargement du fichier
-         * FXML.
+         * FXML, ou par {@link #attach}.
          */
         @FXML
         public void initialize() {
@@ -44,91 +106,166 @@
             freeSquaresLabel.textProperty().bind(model.getFreeSquares().asString().concat(" cases libres"));
             endOfGameMessage.textProperty().bind(model.getEndOfGameMessage());
 
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    TicTacToeSquare square = new TicTacToeSquare(i, j, this);
-                    square.getStyleClass().add("tic-tac-toe-button"); 
-                    gridPane.add(square, j, i);
+            gameOver = model.gameOver();
+            freeSquaresLabel.visibleProperty().bind(gameOver.not());
+            gameOver.addListener((observable, oldValue, newValue) -> updateView());
+            model.turnProperty().addListener(turnListener);
+            updateView();
+
+            String computerStrategy = System.getProperty("morpion.computer");
+            if (computerStrategy != null) {
+                Strategy strategy = SelfPlaySimulator.strategy(computerStrategy, model.getWidth(), model.getHeight(),
+                        model.getWinningCount());
+                computer = new ComputerPlayer(model, strategy, Owner.SECOND);
+            }
+            thinkingLabel.visibleProperty().bind(model.thinkingProperty());
+            thinkingLabel.managedProperty().bind(model.thinkingProperty());
+
+            if (useCanvas()) {
+                boardView = new CanvasBoardView(model, this);
+                ((BorderPane) gridPane.getParent()).setCenter(boardView);
+            } else {
+                for (int j = 0; j < model.getWidth(); j++) {
+                    ColumnConstraints column = new ColumnConstraints();
+                    column.setHgrow(Priority.ALWAYS);
+                    gridPane.getColumnConstraints().add(column);
+                }
+                for (int i = 0; i < model.getHeight(); i++) {
+                    RowConstraints row = new RowConstraints();
+                    row.setVgrow(Priority.ALWAYS);
+                    gridPane.getRowConstraints().add(row);
+                }
+
+                for (int i = 0; i < model.getHeight(); i++) {
+                    for (int j = 0; j < model.getWidth(); j++) {
+                        TicTacToeSquare square = new TicTacToeSquare(i, j, model, this);
+                        square.getStyleClass().add("tic-tac-toe-button"); 
+                        gridPane.add(square, j, i);
 
+                    }
                 }
             }
-            VBox.setMargin(restartButton, new Insets(20, 0, 0, 0));
+            VBox.setMargin(restartButton.getParent(), new Insets(20, 0, 0, 0));
+
+        }
 
+        /**
+         * Choisit le rendu du plateau : une case {@link TicTacToeSquare} par cellule pour les petits
+         * plateaux, un {@link CanvasBoardView} au-delà de {@value #CANVAS_THRESHOLD} cases.
+         * La propriété système {@code morpion.canvas} force l'un ou l'autre.
+         */
+        private boolean useCanvas() {
+            String canvas = System.getProperty("morpion.canvas");
+            if (canvas != null) {
+                return Boolean.parseBoolean(canvas);
+            }
+            return model.getWidth() * model.getHeight() > CANVAS_THRESHOLD;
         }
 
         /**
          * Gère l'action du bouton "Restart".
-         * Réinitialise le modèle et met à jour la vue.
+         * Abandonne la réflexion de l'ordinateur et réinitialise le modèle ;
+         * la vue suit les propriétés du modèle.
          */
         @FXML
         private void handleRestart() {
-            freeSquaresLabel.setVisible(true);
-            xScoreLabel.setStyle("-fx-background-color: cyan;");
+            if (computer != null) {
+                computer.cancel();
+            }
             model.restart(); 
+        }
 
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    TicTacToeSquare square = (TicTacToeSquare) gridPane.getChildren().get(i * 3 + j);
-                    square.setStyle("-fx-background-color: white; " +
-                            "-fx-font-size: 25px; " +
-                            "-fx-text-fill: black; " +
-                            "-fx-alignment: center;");
-                }
+        /**
+         * Gère l'action du bouton "Undo" : annule le dernier coup.
+         * Contre l'ordinateur, annule aussi sa réponse pour rendre la main au joueur.
+         */
+        @FXML
+        private void handleUndo() {
+            if (computer != null) {
+                computer.cancel();
+            }
+            if (model.undo() && computer != null && model.turnProperty().get() == computer.getSide()) {
+                model.undo();
             }
+            requestComputerMove();
         }
 
         /**
-         * Gère le clic sur une case du plateau.
+         * Gère l'action du bouton "Redo" : rejoue le dernier coup annulé.
+         * Contre l'ordinateur, rejoue aussi sa réponse, ou la recalcule si elle n'est plus dans l'historique.
+         */
+        @FXML
+        private void handleRedo() {
+            if (model.redo() && computer != null && model.turnProperty().get() == computer.getSide()) {
+                model.redo();
+            }
+            requestComputerMove();
+        }
+
+        private void requestComputerMove() {
+            if (computer != null) {
+                computer.requestMove();
+            }
+        }
+
+        /**
+         * Détache la vue du modèle lorsque le plateau est détruit : les étiquettes cessent
+         * d'observer le modèle et les liaisons partagées du modèle sont libérées.
+         */
+        public void dispose() {
+            xScoreLabel.textProperty().unbind();
+            oScoreLabel.textProperty().unbind();
+            freeSquaresLabel.textProperty().unbind();
+            freeSquaresLabel.visibleProperty().unbind();
+            endOfGameMessage.textProperty().unbind();
+            thinkingLabel.visibleProperty().unbind();
+            thinkingLabel.managedProperty().unbind();
+            model.turnProperty().removeListener(turnListener);
+            if (computer != null) {
+                computer.close();
+            }
+            if (boardView != null) {
+                boardView.dispose();
+            }
+            model.dispose();
+        }
+
+        /**
+         * Gère le clic sur une case du plateau. Le coup du joueur est appliqué immédiatement ;
+         * la réponse de l'ordinateur est cherchée en arrière-plan, et les clics sont ignorés
+         * tant qu'elle n'est pas jouée.
          *
          * @param row    La ligne de la case cliquée.
          * @param column La colonne de la case cliquée.
          */
-        int i = 0;
-
         public void handleButtonClick(int row, int column) {
+            if (model.isThinking()) {
+                return;
+            }
+            long start = Metrics.ENABLED ? System.nanoTime() : 0L;
             model.play(row, column);
-            updateView();
-
+            requestComputerMove();
+            if (Metrics.ENABLED) {
+                CLICK_TIME.record(System.nanoTime() - start);
+            }
         }
 
     
         /**
-         * Met à jour la vue en fonction de l'état actuel du modèle.
+         * Met à jour les étiquettes de score en fonction du joueur au trait et de la fin de partie.
+         * Les cases, elles, suivent chacune leurs propres propriétés : seules celles qui changent
+         * sont restylées, et la feuille de style n'est réappliquée qu'une fois par pulse.
          */
         public void updateView() {
-            freeSquaresLabel.setVisible(!model.gameOver().get());
+            long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+            boolean over = gameOver.get();
             Owner turnOwner = model.turnProperty().get();
-                    if(turnOwner==Owner.FIRST){
-                        xScoreLabel.setStyle("-fx-background-color: cyan;");
-                        oScoreLabel.setStyle("-fx-background-color: red;");
-                    }else if(turnOwner==Owner.SECOND){
-                        xScoreLabel.setStyle("-fx-background-color: red;");
-                        oScoreLabel.setStyle("-fx-background-color: cyan;");
-                    }
-
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    
-                    TicTacToeSquare square = (TicTacToeSquare) gridPane.getChildren().get(i * 3 + j);
-
-                    Owner owner = model.getSquare(i, j).get();
-                    if (model.getWinningSquare(i, j).get()) {
-                        square.setStyle("-fx-background-color: brown; " +
-                                "-fx-font-size: 25px; " +
-                                "-fx-font-weight: bold; " +
-                                "-fx-text-fill: black; " +
-                                "-fx-alignment: center;");
-
-                    } else if (model.gameOver().get() && !model.getWinningSquare(i, j).get()) {
-                        square.setStyle("-fx-background-color: white; ");
-                        xScoreLabel.setStyle("-fx-background-color: red;");
-                        oScoreLabel.setStyle("-fx-background-color: red;");
-                    }
-
-                    else if (owner != Owner.NONE) {
-                        square.setStyle("-fx-background-color: red;");
-                    }
-                }
+            xScoreLabel.pseudoClassStateChanged(TO_MOVE, !over && turnOwner == Owner.FIRST);
+            oScoreLabel.pseudoClassStateChanged(TO_MOVE, !over && turnOwner == Owner.SECOND);
+            xScoreLabel.pseudoClassStateChanged(GAME_OVER, over);
+            oScoreLabel.pseudoClassStateChanged(GAME_OVER, over);
+            if (Metrics.ENABLED) {
+                UPDATE_TIME.record(System.nanoTime() - start);
             }
         }
     }
\ No newline at end of file
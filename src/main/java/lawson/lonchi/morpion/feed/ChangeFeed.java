@@ -0,0 +1,206 @@
+package lawson.lonchi.morpion.feed;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Flux de changements d'une partie, pour les spectateurs : un {@link MoveEvent} immuable
+ * par coup, annulation, abandon ou recommencement, publié dans un anneau borné.
+ * <p>
+ * Un seul thread publie à la fois (celui de la partie). Publier coûte une allocation,
+ * une écriture dans l'anneau et une écriture volatile, quel que soit le nombre de
+ * spectateurs : le thread de la partie n'attend jamais un lecteur. Chaque abonnement
+ * tient son propre curseur ; un spectateur distancé de plus de {@link #getCapacity()}
+ * événements perd les plus anciens au lieu de ralentir la partie.
+ * <p>
+ * Les spectateurs à l'écoute ({@link #subscribe(FeedListener)}) sont servis par
+ * l'exécuteur du flux : une publication y soumet au plus une tâche de diffusion, qui
+ * planifie à son tour la livraison, par lots, de chaque spectateur en retard. Les
+ * événements publiés pendant qu'un spectateur traite un lot sont regroupés dans le suivant.
+ */
+public final class ChangeFeed {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+    * Nombre maximal d'événements par appel de {@link FeedListener#onEvents}.
+    */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final LongAdder EVENTS = Metrics.get().counter("feed.events");
+
+    private static final LongAdder DROPPED = Metrics.get().counter("feed.dropped");
+
+    private final MoveEvent[] ring;
+
+    private final int mask;
+
+    private final Executor executor;
+
+    /**
+    * Nombre d'événements publiés, soit le numéro du prochain.
+    */
+    private volatile long published;
+
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+
+    /**
+    * Crée un flux de capacité par défaut, servi par le pool commun.
+    */
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+    }
+
+    /**
+    * @param capacity Le nombre d'événements conservés, une puissance de deux.
+    * @param executor L'exécuteur qui livre les spectateurs à l'écoute.
+    */
+    public ChangeFeed(int capacity, Executor executor) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacité invalide : " + capacity);
+        }
+        ring = new MoveEvent[capacity];
+        mask = capacity - 1;
+        this.executor = executor;
+    }
+
+    /**
+    * Publie le début (ou le recommencement) d'une partie.
+    *
+    * @return Le numéro de l'événement.
+    */
+    public long start() {
+        return publish(MoveEvent.Type.START, 0, -1, Owner.NONE, Owner.NONE);
+    }
+
+    /**
+    * Publie un coup.
+    *
+    * @param moveIndex Le numéro du coup dans la partie, à partir de 0.
+    * @param square    La case jouée ({@code row * width + column}).
+    * @param player    Le joueur qui a joué.
+    * @param winner    Le gagnant après le coup, ou NONE.
+    * @return Le numéro de l'événement.
+    */
+    public long move(int moveIndex, int square, Owner player, Owner winner) {
+        return publish(MoveEvent.Type.MOVE, moveIndex, square, player, winner);
+    }
+
+    /**
+    * Publie l'annulation du dernier coup ; un coup rejoué est publié comme un coup.
+    *
+    * @param moveIndex Le numéro du coup annulé.
+    * @param square    La case libérée.
+    * @param player    Le joueur dont le coup est annulé.
+    * @return Le numéro de l'événement.
+    */
+    public long undo(int moveIndex, int square, Owner player) {
+        return publish(MoveEvent.Type.UNDO, moveIndex, square, player, Owner.NONE);
+    }
+
+    /**
+    * Publie un abandon.
+    *
+    * @param moveIndex Le nombre de coups joués avant l'abandon.
+    * @param player    Le joueur qui abandonne.
+    * @return Le numéro de l'événement.
+    */
+    public long resign(int moveIndex, Owner player) {
+        return publish(MoveEvent.Type.RESIGN, moveIndex, -1, player, player.opposite());
+    }
+
+    private long publish(MoveEvent.Type type, int moveIndex, int square, Owner player, Owner winner) {
+        long sequence = published;
+        ring[(int) sequence & mask] = new MoveEvent(sequence, type, moveIndex, square, player, winner);
+        published = sequence + 1;
+        if (Metrics.ENABLED) {
+            EVENTS.increment();
+        }
+        if (!listeners.isEmpty() && fanOutScheduled.compareAndSet(false, true)) {
+            executor.execute(this::fanOut);
+        }
+        return sequence;
+    }
+
+    /**
+    * Planifie la livraison des spectateurs en retard. L'indicateur est levé avant le
+    * parcours : une publication concurrente soumet une nouvelle diffusion.
+    */
+    private void fanOut() {
+        fanOutScheduled.set(false);
+        for (Subscription subscription : listeners) {
+            subscription.schedule();
+        }
+    }
+
+    /**
+    * Ouvre un abonnement lu par l'appelant ({@link Subscription#poll}), à partir du
+    * prochain événement.
+    *
+    * @return L'abonnement.
+    */
+    public Subscription subscribe() {
+        return new Subscription(this, null, published);
+    }
+
+    /**
+    * Abonne un spectateur, qui recevra les événements publiés à partir de maintenant.
+    *
+    * @param listener Le spectateur.
+    * @return L'abonnement, à fermer pour se désabonner.
+    */
+    public Subscription subscribe(FeedListener listener) {
+        Subscription subscription = new Subscription(this, listener, published);
+        listeners.add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        listeners.remove(subscription);
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    void dropped(long count) {
+        if (Metrics.ENABLED) {
+            DROPPED.add(count);
+        }
+    }
+
+    MoveEvent get(long sequence) {
+        return ring[(int) sequence & mask];
+    }
+
+    /**
+    * @return Le nombre d'événements publiés depuis la création du flux.
+    */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+    * @return Le nombre d'événements conservés par l'anneau.
+    */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+    * @return Le nombre de spectateurs à l'écoute.
+    */
+    public int getListenerCount() {
+        return listeners.size();
+    }
+}
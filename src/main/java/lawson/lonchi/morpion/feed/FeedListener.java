@@ -0,0 +1,28 @@
+package lawson.lonchi.morpion.feed;
+
+import java.util.List;
+
+/**
+ * Spectateur d'un {@link ChangeFeed}. Les événements arrivent par lots, dans l'ordre,
+ * sur un thread de l'exécuteur du flux ; un même spectateur n'est jamais appelé par
+ * deux threads à la fois.
+ */
+public interface FeedListener {
+
+    /**
+    * Reçoit les événements publiés depuis le lot précédent.
+    *
+    * @param events Les événements, dans l'ordre ; la liste n'est valable que pendant l'appel.
+    */
+    void onEvents(List<MoveEvent> events);
+
+    /**
+    * Signale que le spectateur, trop lent, a été dépassé par l'anneau : des événements
+    * ont été écrasés avant d'être lus. Le spectateur doit se resynchroniser sur un
+    * instantané de la partie ; la livraison reprend au plus ancien événement conservé.
+    *
+    * @param dropped Le nombre d'événements perdus.
+    */
+    default void onGap(long dropped) {
+    }
+}
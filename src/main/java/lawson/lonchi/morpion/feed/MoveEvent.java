@@ -0,0 +1,82 @@
+package lawson.lonchi.morpion.feed;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Événement immuable du flux de changements d'une partie : un coup, une annulation,
+ * un abandon ou un (re)commencement. Les champs sont finaux : un événement lu dans l'anneau d'un
+ * {@link ChangeFeed} depuis un autre thread est toujours complet.
+ */
+public final class MoveEvent {
+
+    public enum Type {
+        START, MOVE, UNDO, RESIGN
+    }
+
+    private final long sequence;
+
+    private final Type type;
+
+    private final int moveIndex;
+
+    private final int square;
+
+    private final Owner player;
+
+    private final Owner winner;
+
+    MoveEvent(long sequence, Type type, int moveIndex, int square, Owner player, Owner winner) {
+        this.sequence = sequence;
+        this.type = type;
+        this.moveIndex = moveIndex;
+        this.square = square;
+        this.player = player;
+        this.winner = winner;
+    }
+
+    /**
+    * @return Le numéro de l'événement dans le flux, à partir de 0.
+    */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+    * @return Le numéro du coup joué ou annulé, à partir de 0 ; le nombre de coups joués pour
+    *         un abandon ; 0 pour un début de partie.
+    */
+    public int getMoveIndex() {
+        return moveIndex;
+    }
+
+    /**
+    * @return La case jouée ou libérée ({@code row * width + column}), ou -1 pour un début de partie ou un abandon.
+    */
+    public int getSquare() {
+        return square;
+    }
+
+    /**
+    * @return Le joueur qui a joué, dont le coup est annulé ou qui abandonne ; NONE pour un début de partie.
+    */
+    public Owner getPlayer() {
+        return player;
+    }
+
+    /**
+    * @return Le gagnant après l'événement, ou NONE.
+    */
+    public Owner getWinner() {
+        return winner;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + (type == Type.START ? "" : " " + moveIndex + ":" + square + " " + player)
+                + (winner == Owner.NONE ? "" : " gagnant " + winner);
+    }
+}
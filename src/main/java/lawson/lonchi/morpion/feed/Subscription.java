@@ -0,0 +1,131 @@
+package lawson.lonchi.morpion.feed;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Abonnement à un {@link ChangeFeed} : un curseur sur l'anneau, propre à un spectateur.
+ * Un abonnement sans écouteur est lu par un seul thread à la fois avec {@link #poll} ;
+ * un abonnement avec écouteur est livré par l'exécuteur du flux. Les numéros de
+ * séquence des événements lus se suivent, sauf après une perte.
+ */
+public final class Subscription implements AutoCloseable {
+
+    private final ChangeFeed feed;
+
+    private final FeedListener listener;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private MoveEvent[] batch;
+
+    /**
+    * Numéro du prochain événement à lire ; écrit par le seul lecteur, lu par la diffusion.
+    */
+    private volatile long cursor;
+
+    /**
+    * Événements perdus depuis la dernière livraison, pas encore signalés à l'écouteur.
+    */
+    private long gap;
+
+    private volatile long dropped;
+
+    private volatile boolean closed;
+
+    Subscription(ChangeFeed feed, FeedListener listener, long cursor) {
+        this.feed = feed;
+        this.listener = listener;
+        this.cursor = cursor;
+    }
+
+    /**
+    * Lit les événements disponibles. Si l'anneau a dépassé le curseur, la lecture
+    * reprend au plus ancien événement conservé ; un lot ne franchit jamais une perte.
+    *
+    * @param events Le tableau à remplir.
+    * @return Le nombre d'événements lus, 0 s'il n'y en a pas de nouveau.
+    */
+    public int poll(MoveEvent[] events) {
+        long head = feed.getPublished();
+        int capacity = feed.getCapacity();
+        long next = cursor;
+        int count = 0;
+        while (next < head && count < events.length) {
+            MoveEvent event = head - next > capacity ? null : feed.get(next);
+            if (event == null || event.getSequence() != next) {
+                // Écrasé par le thread de la partie.
+                if (count > 0) {
+                    break;
+                }
+                head = feed.getPublished();
+                long missed = head - capacity - next;
+                next += missed;
+                gap += missed;
+                dropped += missed;
+                feed.dropped(missed);
+                continue;
+            }
+            events[count++] = event;
+            next++;
+        }
+        cursor = next;
+        return count;
+    }
+
+    /**
+    * Soumet la livraison si le spectateur est en retard et n'est pas déjà servi.
+    */
+    void schedule() {
+        if (listener != null && !closed && cursor < feed.getPublished() && scheduled.compareAndSet(false, true)) {
+            feed.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            if (batch == null) {
+                batch = new MoveEvent[ChangeFeed.DEFAULT_BATCH_SIZE];
+            }
+            while (!closed) {
+                int count = poll(batch);
+                if (gap > 0) {
+                    long missed = gap;
+                    gap = 0;
+                    listener.onGap(missed);
+                }
+                if (count == 0) {
+                    break;
+                }
+                listener.onEvents(Arrays.asList(batch).subList(0, count));
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // Un événement publié entre la dernière lecture et la levée de l'indicateur.
+        schedule();
+    }
+
+    /**
+    * @return Le nombre d'événements publiés et pas encore lus.
+    */
+    public long getLag() {
+        return Math.max(0, feed.getPublished() - cursor);
+    }
+
+    /**
+    * @return Le nombre total d'événements perdus par cet abonnement.
+    */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+    * Désabonne le spectateur ; un lot en cours de livraison se termine.
+    */
+    @Override
+    public void close() {
+        closed = true;
+        feed.unsubscribe(this);
+    }
+}
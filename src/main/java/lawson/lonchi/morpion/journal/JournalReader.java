@@ -0,0 +1,225 @@
+package lawson.lonchi.morpion.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Relecture d'un journal produit par {@link MoveJournal}.
+ * Le fichier est projeté en mémoire par tranches en lecture seule et parcouru
+ * séquentiellement avec des lectures absolues, sans copie ni allocation par coup.
+ * Un enregistrement incomplet en fin de fichier est ignoré.
+ */
+public final class JournalReader {
+
+    /**
+    * Taille d'une tranche projetée : un multiple de la taille d'un enregistrement.
+    */
+    private static final long CHUNK_SIZE = (Integer.MAX_VALUE / MoveJournal.RECORD_SIZE) * (long) MoveJournal.RECORD_SIZE;
+
+    private static final Owner[] OWNERS = Owner.values();
+
+    private JournalReader() {
+    }
+
+    static void checkHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MoveJournal.RECORD_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Lecture de l'en-tête complet.
+        }
+        if (header.hasRemaining() || header.getInt(0) != MoveJournal.MAGIC
+                || header.getInt(4) != MoveJournal.VERSION || header.getInt(8) != MoveJournal.RECORD_SIZE) {
+            throw new IOException("Journal invalide : " + path);
+        }
+    }
+
+    /**
+    * Parcourt tous les enregistrements d'un journal.
+    *
+    * @param path    Le chemin du journal.
+    * @param visitor Le destinataire des enregistrements.
+    * @return Le nombre d'enregistrements lus.
+    * @throws IOException Si le fichier est illisible, n'est pas un journal ou contient un
+    *                     enregistrement corrompu.
+    */
+    public static long read(Path path, JournalVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkHeader(channel, path);
+            long end = channel.size() - channel.size() % MoveJournal.RECORD_SIZE;
+            long records = 0;
+            for (long offset = MoveJournal.RECORD_SIZE; offset < end; offset += CHUNK_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(CHUNK_SIZE, end - offset));
+                buffer.order(ByteOrder.BIG_ENDIAN);
+                for (int position = 0; position < buffer.limit(); position += MoveJournal.RECORD_SIZE) {
+                    long session = buffer.getLong(position);
+                    int moveIndex = buffer.getInt(position + 8);
+                    int square = buffer.getShort(position + 12) & 0xFFFF;
+                    int owner = buffer.get(position + 14);
+                    switch (buffer.get(position + 15)) {
+                        case MoveJournal.START:
+                            visitor.start(session, square >>> 8, square & 0xFF, owner);
+                            break;
+                        case MoveJournal.MOVE:
+                            visitor.move(session, moveIndex, square, player(owner, offset + position, path));
+                            break;
+                        case MoveJournal.RESIGN:
+                            visitor.resign(session, moveIndex, player(owner, offset + position, path));
+                            break;
+                        case MoveJournal.UNDO:
+                            visitor.undo(session, moveIndex);
+                            break;
+                        default:
+                            throw new IOException("Enregistrement inconnu à l'octet " + (offset + position) + " : " + path);
+                    }
+                    records++;
+                }
+            }
+            return records;
+        }
+    }
+
+    private static Owner player(int owner, long offset, Path path) throws IOException {
+        if (owner != Owner.FIRST.ordinal() && owner != Owner.SECOND.ordinal()) {
+            throw new IOException("Joueur invalide à l'octet " + offset + " : " + path);
+        }
+        return OWNERS[owner];
+    }
+
+    /**
+    * Reconstruit toutes les parties d'un journal, dans leur dernier état.
+    *
+    * @param path Le chemin du journal.
+    * @return Les positions, indexées par identifiant de session.
+    * @throws IOException Si le fichier est illisible ou incohérent.
+    */
+    public static Map<Long, TicTacToeEngine> replay(Path path) throws IOException {
+        Replay replay = new Replay(-1);
+        read(path, replay);
+        replay.check(path);
+        return replay.engines;
+    }
+
+    /**
+    * Reconstruit une seule partie d'un journal, dans son dernier état.
+    *
+    * @param path    Le chemin du journal.
+    * @param session L'identifiant de session.
+    * @return La position, ou null si la session n'apparaît pas dans le journal.
+    * @throws IOException Si le fichier est illisible ou incohérent.
+    */
+    public static TicTacToeEngine replay(Path path, long session) throws IOException {
+        Replay replay = new Replay(session);
+        read(path, replay);
+        replay.check(path);
+        return replay.engines.get(session);
+    }
+
+    /**
+    * Rejoue les enregistrements sur un moteur par session.
+    */
+    private static final class Replay implements JournalVisitor {
+
+        private final long only;
+
+        private final Map<Long, TicTacToeEngine> engines = new HashMap<>();
+
+        private long lastSession = -1;
+
+        private TicTacToeEngine lastEngine;
+
+        private String error;
+
+        Replay(long only) {
+            this.only = only;
+        }
+
+        private TicTacToeEngine engine(long session) {
+            if (session != lastSession) {
+                lastEngine = engines.get(session);
+                lastSession = session;
+            }
+            return lastEngine;
+        }
+
+        @Override
+        public void start(long session, int width, int height, int winningCount) {
+            if (only >= 0 && session != only) {
+                return;
+            }
+            TicTacToeEngine engine = engine(session);
+            if (engine != null && engine.getWidth() == width && engine.getHeight() == height
+                    && engine.getWinningCount() == winningCount) {
+                engine.restart();
+            } else {
+                try {
+                    lastEngine = new TicTacToeEngine(width, height, winningCount);
+                    engines.put(session, lastEngine);
+                } catch (IllegalArgumentException e) {
+                    engines.remove(session);
+                    lastEngine = null;
+                    if (error == null) {
+                        error = "dimensions " + width + "x" + height + ", k=" + winningCount + " de la session " + session;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void move(long session, int moveIndex, int square, Owner owner) {
+            if (only >= 0 && session != only) {
+                return;
+            }
+            TicTacToeEngine engine = engine(session);
+            if (engine == null || square >= engine.getSize() || engine.getTurn() != owner
+                    || !engine.play(square / engine.getWidth(), square % engine.getWidth())) {
+                fail(session, moveIndex);
+            }
+        }
+
+        @Override
+        public void resign(long session, int moveIndex, Owner owner) {
+            if (only >= 0 && session != only) {
+                return;
+            }
+            TicTacToeEngine engine = engine(session);
+            if (engine == null) {
+                fail(session, moveIndex);
+            } else if (!engine.isGameOver()) {
+                engine.setWinner(owner.opposite());
+            }
+        }
+
+        @Override
+        public void undo(long session, int moveIndex) {
+            if (only >= 0 && session != only) {
+                return;
+            }
+            TicTacToeEngine engine = engine(session);
+            if (engine == null || !engine.undo()) {
+                fail(session, moveIndex);
+            }
+        }
+
+        private void fail(long session, int moveIndex) {
+            if (error == null) {
+                error = "coup " + moveIndex + " de la session " + session;
+            }
+        }
+
+        void check(Path path) throws IOException {
+            if (error != null) {
+                throw new IOException("Journal incohérent (" + error + ") : " + path);
+            }
+        }
+    }
+}
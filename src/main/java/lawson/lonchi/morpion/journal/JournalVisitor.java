@@ -0,0 +1,49 @@
+package lawson.lonchi.morpion.journal;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Reçoit les enregistrements d'un journal, dans l'ordre du fichier.
+ * Les valeurs sont passées en types primitifs : la relecture n'alloue aucun objet par coup.
+ */
+public interface JournalVisitor {
+
+    /**
+    * Début ou recommencement d'une partie.
+    *
+    * @param session      L'identifiant de session.
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    void start(long session, int width, int height, int winningCount);
+
+    /**
+    * Coup joué.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le numéro du coup dans la partie.
+    * @param square    La case jouée ({@code row * width + column}).
+    * @param owner     Le joueur qui a joué.
+    */
+    void move(long session, int moveIndex, int square, Owner owner);
+
+    /**
+    * Abandon.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le nombre de coups joués avant l'abandon.
+    * @param owner     Le joueur qui abandonne.
+    */
+    default void resign(long session, int moveIndex, Owner owner) {
+    }
+
+    /**
+    * Annulation du dernier coup.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le numéro du coup annulé.
+    */
+    default void undo(long session, int moveIndex) {
+    }
+}
@@ -0,0 +1,339 @@
+package lawson.lonchi.morpion.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Journal des coups, en ajout seul, dans un fichier binaire.
+ * Chaque enregistrement occupe {@value #RECORD_SIZE} octets (gros-boutiste) :
+ * <ul>
+ * <li>0-7 : identifiant de session ;</li>
+ * <li>8-11 : numéro du coup dans la partie ;</li>
+ * <li>12-13 : case jouée ({@code row * width + column}), ou {@code width << 8 | height} pour un début de partie ;</li>
+ * <li>14 : joueur ({@link Owner#ordinal()}), ou nombre de pions à aligner pour un début de partie ;</li>
+ * <li>15 : type d'enregistrement ({@link #START}, {@link #MOVE}, {@link #RESIGN} ou {@link #UNDO}).</li>
+ * </ul>
+ * Le premier enregistrement du fichier est un en-tête de même taille.
+ * <p>
+ * Les appelants ne font qu'écrire dans un tampon en mémoire ; un thread d'écriture
+ * vide ce tampon par lots (validation groupée) : un seul {@code write} et un seul
+ * {@code force} couvrent tous les coups accumulés depuis le lot précédent.
+ * {@link #sync()} attend que les coups déjà ajoutés soient sur disque.
+ */
+public class MoveJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 16;
+
+    public static final byte START = 0;
+
+    public static final byte MOVE = 1;
+
+    public static final byte RESIGN = 2;
+
+    public static final byte UNDO = 3;
+
+    static final int MAGIC = 0x4D4A524E;
+
+    static final int VERSION = 1;
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+    private final FileChannel channel;
+
+    private final long maxDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition pending = lock.newCondition();
+
+    private final Condition committed = lock.newCondition();
+
+    private final Thread writer;
+
+    private ByteBuffer active;
+
+    private ByteBuffer flushing;
+
+    private long appended;
+
+    private long durable;
+
+    private IOException failure;
+
+    private boolean syncRequested;
+
+    private boolean closed;
+
+    private MoveJournal(FileChannel channel, int batchSize, long maxDelayMillis) {
+        this.channel = channel;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.active = ByteBuffer.allocateDirect(batchSize * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        this.flushing = ByteBuffer.allocateDirect(batchSize * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        this.writer = new Thread(this::writeLoop, "morpion-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+    * Ouvre un journal avec les réglages par défaut.
+    *
+    * @param path Le chemin du fichier, créé s'il n'existe pas.
+    * @return Le journal, prêt à recevoir des coups.
+    * @throws IOException Si le fichier ne peut pas être ouvert ou n'est pas un journal.
+    */
+    public static MoveJournal open(Path path) throws IOException {
+        return open(path, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+    * Ouvre un journal en ajout. Un enregistrement incomplet en fin de fichier,
+    * laissé par un arrêt brutal, est tronqué.
+    *
+    * @param path           Le chemin du fichier, créé s'il n'existe pas.
+    * @param batchSize      Le nombre maximal d'enregistrements par lot.
+    * @param maxDelayMillis Le délai maximal avant l'écriture d'un lot incomplet.
+    * @return Le journal, prêt à recevoir des coups.
+    * @throws IOException Si le fichier ne peut pas être ouvert ou n'est pas un journal.
+    */
+    public static MoveJournal open(Path path, int batchSize, long maxDelayMillis) throws IOException {
+        if (batchSize <= 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Réglages du journal invalides : " + batchSize + ", " + maxDelayMillis);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, RECORD_SIZE - header.remaining());
+                }
+                channel.force(true);
+            } else {
+                JournalReader.checkHeader(channel, path);
+                channel.truncate(size - size % RECORD_SIZE);
+            }
+            channel.position(channel.size());
+            return new MoveJournal(channel, batchSize, maxDelayMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+    * Enregistre le début (ou le recommencement) d'une partie.
+    *
+    * @param session      L'identifiant de session.
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @return Le numéro de séquence de l'enregistrement.
+    */
+    public long start(long session, int width, int height, int winningCount) {
+        if (width > 0xFF || height > 0xFF || winningCount > 0x7F) {
+            throw new IllegalArgumentException("Plateau trop grand pour le journal : " + width + "x" + height);
+        }
+        return append(session, 0, (short) (width << 8 | height), (byte) winningCount, START);
+    }
+
+    /**
+    * Enregistre un coup.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le numéro du coup dans la partie, à partir de 0.
+    * @param square    La case jouée ({@code row * width + column}).
+    * @param owner     Le joueur qui a joué.
+    * @return Le numéro de séquence de l'enregistrement.
+    */
+    public long move(long session, int moveIndex, int square, Owner owner) {
+        return append(session, moveIndex, (short) square, (byte) owner.ordinal(), MOVE);
+    }
+
+    /**
+    * Enregistre un abandon.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le nombre de coups joués avant l'abandon.
+    * @param owner     Le joueur qui abandonne.
+    * @return Le numéro de séquence de l'enregistrement.
+    */
+    public long resign(long session, int moveIndex, Owner owner) {
+        return append(session, moveIndex, (short) 0, (byte) owner.ordinal(), RESIGN);
+    }
+
+    /**
+    * Enregistre l'annulation du dernier coup ; un coup rejoué est enregistré comme un coup.
+    *
+    * @param session   L'identifiant de session.
+    * @param moveIndex Le numéro du coup annulé.
+    * @return Le numéro de séquence de l'enregistrement.
+    */
+    public long undo(long session, int moveIndex) {
+        return append(session, moveIndex, (short) 0, (byte) 0, UNDO);
+    }
+
+    private long append(long session, int moveIndex, short square, byte owner, byte type) {
+        lock.lock();
+        try {
+            while (!active.hasRemaining() && !closed && failure == null) {
+                pending.signal();
+                committed.awaitUninterruptibly();
+            }
+            checkOpen();
+            active.putLong(session).putInt(moveIndex).putShort(square).put(owner).put(type);
+            if (active.position() == RECORD_SIZE || !active.hasRemaining()) {
+                pending.signal();
+            }
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+    * Attend que tous les enregistrements déjà ajoutés soient écrits et forcés sur disque.
+    *
+    * @throws IOException Si une écriture a échoué.
+    */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = appended;
+            syncRequested = true;
+            pending.signal();
+            while (durable < target && failure == null) {
+                committed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+    * @return Le nombre d'enregistrements ajoutés depuis l'ouverture.
+    */
+    public long getAppended() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal fermé");
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            long batchEnd;
+            lock.lock();
+            try {
+                // Le délai maximal court à partir du premier enregistrement du lot.
+                long remaining = maxDelayNanos;
+                while (!closed && !syncRequested && active.hasRemaining()
+                        && (active.position() == 0 || remaining > 0)) {
+                    try {
+                        if (active.position() == 0) {
+                            pending.await();
+                        } else {
+                            remaining = pending.awaitNanos(remaining);
+                        }
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                syncRequested = false;
+                if (active.position() == 0) {
+                    committed.signalAll();
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                ByteBuffer batch = active;
+                active = flushing;
+                flushing = batch;
+                batchEnd = appended;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                flushing.flip();
+                while (flushing.hasRemaining()) {
+                    channel.write(flushing);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                flushing.clear();
+            }
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    committed.signalAll();
+                    return;
+                }
+                durable = batchEnd;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+    * Écrit les derniers enregistrements, force le fichier sur disque puis le ferme.
+    *
+    * @throws IOException Si la dernière écriture a échoué.
+    */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package lawson.lonchi.morpion.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences à précision relative constante, dans l'esprit de HdrHistogram :
+ * chaque puissance de deux est découpée en {@code 2^SUB_BUCKET_BITS} sous-intervalles,
+ * soit une erreur relative d'environ 3 %. L'enregistrement est sans verrou et sans allocation.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS * (64 - SUB_BUCKET_BITS + 1));
+
+    /**
+    * Enregistre une valeur.
+    *
+    * @param value La valeur (par exemple une durée en nanosecondes), négative ramenée à 0.
+    */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(Math.max(0L, value)));
+    }
+
+    /**
+    * Ajoute les comptes d'un autre histogramme.
+    *
+    * @param other L'histogramme à fusionner.
+    */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+    * @return Le nombre total de valeurs enregistrées.
+    */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+    * Retourne la valeur sous laquelle se trouve un pourcentage donné des mesures.
+    *
+    * @param percentile Le percentile, entre 0 et 100.
+    * @return La borne supérieure de l'intervalle contenant ce percentile, ou 0 si vide.
+    */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return highestValueAt(i);
+            }
+        }
+        return highestValueAt(counts.length() - 1);
+    }
+
+    /**
+    * @return La plus grande valeur enregistrée (à la précision de l'histogramme près).
+    */
+    public long getMax() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueAt(i);
+            }
+        }
+        return 0L;
+    }
+
+    /**
+    * Remet tous les comptes à zéro.
+    */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0L);
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
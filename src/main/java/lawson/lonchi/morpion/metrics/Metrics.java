@@ -0,0 +1,207 @@
+package lawson.lonchi.morpion.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registre de métriques : compteurs {@link LongAdder}, histogrammes de latence
+ * {@link LatencyHistogram} et jauges calculées, indexés par nom. Les appelants
+ * récupèrent leurs métriques une fois (typiquement dans un champ statique) puis les
+ * mettent à jour sans verrou ni allocation ; le registre n'est consulté qu'à la lecture.
+ * Les métriques sont exposées par JMX ({@link #registerMBean()}) et peuvent être
+ * écrites périodiquement dans un fichier texte ou JSON ({@link #startReporter}).
+ * L'instrumentation peut être coupée avec {@code -Dmorpion.metrics=false}.
+ */
+public final class Metrics {
+
+    /**
+    * Vrai si l'instrumentation est active. La constante est figée au chargement,
+    * si bien que le JIT élimine les mesures quand elle est fausse.
+    */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("morpion.metrics", "true"));
+
+    public static final String OBJECT_NAME = "lawson.lonchi.morpion:type=Metrics";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    /**
+    * @return Le registre global de l'application.
+    */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+    * Retourne un compteur, créé au premier appel.
+    *
+    * @param name Le nom du compteur.
+    * @return Le compteur.
+    */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+    * Retourne un histogramme de latences, en nanosecondes, créé au premier appel.
+    *
+    * @param name Le nom de l'histogramme.
+    * @return L'histogramme.
+    */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+    * Déclare une jauge, valeur calculée à la lecture (par exemple un débit dérivé de deux compteurs).
+    *
+    * @param name  Le nom de la jauge.
+    * @param value Le calcul de sa valeur.
+    */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    Map<String, LongSupplier> getGauges() {
+        return gauges;
+    }
+
+    Map<String, LongAdder> getCounters() {
+        return counters;
+    }
+
+    Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+
+    /**
+    * Remet toutes les métriques à zéro.
+    */
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+    * @return Les métriques sous forme texte, une par ligne, les durées en microsecondes.
+    */
+    public String toText() {
+        StringBuilder builder = new StringBuilder();
+        counters.forEach((name, counter) -> builder.append(name).append(' ').append(counter.sum()).append('\n'));
+        gauges.forEach((name, gauge) -> builder.append(name).append(' ').append(gauge.getAsLong()).append('\n'));
+        histograms.forEach((name, histogram) -> builder.append(String.format(
+                "%s count=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus%n", name, histogram.getCount(),
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3)));
+        return builder.toString();
+    }
+
+    /**
+    * @return Les métriques au format JSON, les durées en nanosecondes.
+    */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("{\"counters\":{");
+        String separator = "";
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            builder.append(separator).append('"').append(entry.getKey()).append("\":").append(entry.getValue().sum());
+            separator = ",";
+        }
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            builder.append(separator).append('"').append(entry.getKey()).append("\":").append(entry.getValue().getAsLong());
+            separator = ",";
+        }
+        builder.append("},\"histograms\":{");
+        separator = "";
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            builder.append(separator).append('"').append(entry.getKey()).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"p50\":").append(histogram.getValueAtPercentile(50))
+                    .append(",\"p99\":").append(histogram.getValueAtPercentile(99))
+                    .append(",\"p999\":").append(histogram.getValueAtPercentile(99.9))
+                    .append(",\"max\":").append(histogram.getMax()).append('}');
+            separator = ",";
+        }
+        return builder.append("}}").toString();
+    }
+
+    /**
+    * Enregistre le registre auprès du serveur JMX de la plateforme, sous {@value #OBJECT_NAME}.
+    * Un second appel est sans effet.
+    */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(this), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Enregistrement JMX impossible", e);
+        }
+    }
+
+    /**
+    * Écrit périodiquement les métriques dans un fichier, remplacé atomiquement à chaque écriture.
+    * Le format est JSON si le nom du fichier se termine par {@code .json}, texte sinon.
+    *
+    * @param path   Le fichier de sortie.
+    * @param period La période d'écriture.
+    * @return L'ordonnanceur, à arrêter pour cesser les écritures.
+    */
+    public ScheduledExecutorService startReporter(Path path, Duration period) {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "morpion-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean json = path.getFileName().toString().endsWith(".json");
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                Files.write(temporary, (json ? toJson() : toText()).getBytes(StandardCharsets.UTF_8));
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Écriture des métriques impossible : " + e.getMessage());
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    /**
+    * Active JMX et, si la propriété système {@code morpion.metrics.file} est définie,
+    * l'écriture périodique des métriques (toutes les {@code morpion.metrics.period}
+    * secondes, 10 par défaut). Ne fait rien si l'instrumentation est coupée.
+    */
+    public static void startFromSystemProperties() {
+        if (!ENABLED) {
+            return;
+        }
+        INSTANCE.registerMBean();
+        String file = System.getProperty("morpion.metrics.file");
+        if (file != null) {
+            INSTANCE.startReporter(Path.of(file), Duration.ofSeconds(Long.getLong("morpion.metrics.period", 10)));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package lawson.lonchi.morpion.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+
+/**
+ * Vue JMX du registre : un attribut par compteur et par jauge, et pour chaque histogramme les
+ * attributs {@code nom.count}, {@code nom.p50}, {@code nom.p99}, {@code nom.p999}
+ * et {@code nom.max} (en nanosecondes). Les attributs suivent les métriques créées
+ * après l'enregistrement ; l'opération {@code reset} remet tout à zéro.
+ */
+class MetricsMBean implements DynamicMBean {
+
+    private static final String[] HISTOGRAM_SUFFIXES = {".count", ".p50", ".p99", ".p999", ".max"};
+
+    private final Metrics metrics;
+
+    MetricsMBean(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        LongAdder counter = metrics.getCounters().get(attribute);
+        if (counter != null) {
+            return counter.sum();
+        }
+        LongSupplier gauge = metrics.getGauges().get(attribute);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+        int dot = attribute.lastIndexOf('.');
+        LatencyHistogram histogram = dot < 0 ? null : metrics.getHistograms().get(attribute.substring(0, dot));
+        if (histogram != null) {
+            switch (attribute.substring(dot)) {
+                case ".count":
+                    return histogram.getCount();
+                case ".p50":
+                    return histogram.getValueAtPercentile(50);
+                case ".p99":
+                    return histogram.getValueAtPercentile(99);
+                case ".p999":
+                    return histogram.getValueAtPercentile(99.9);
+                case ".max":
+                    return histogram.getMax();
+                default:
+                    break;
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Les attributs inconnus sont omis, comme le prévoit DynamicMBean.
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Attribut en lecture seule : " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        if ("reset".equals(actionName)) {
+            metrics.reset();
+            return null;
+        }
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : metrics.getCounters().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "long", "Compteur", true, false, false));
+        }
+        for (String name : metrics.getGauges().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "long", "Jauge", true, false, false));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getHistograms().entrySet()) {
+            for (String suffix : HISTOGRAM_SUFFIXES) {
+                attributes.add(new MBeanAttributeInfo(entry.getKey() + suffix, "long",
+                        "Histogramme de latence (ns)", true, false, false));
+            }
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Remet les métriques à zéro",
+                null, "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(Metrics.class.getName(), "Métriques du morpion",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] {reset}, null);
+    }
+}
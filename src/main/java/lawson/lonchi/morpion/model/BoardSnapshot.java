@@ -0,0 +1,275 @@
+package lawson.lonchi.morpion.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Instantané immuable d'une position, au codage binaire canonique et de taille fixe
+ * pour des dimensions données. Le codage est une suite de {@code long} :
+ * <ul>
+ * <li>un en-tête : largeur (bits 0-7), hauteur (8-15), nombre de pions à aligner (16-23),
+ * joueur au trait (24-25), gagnant (26-27), score de X (32-47) et score de O (48-63) ;</li>
+ * <li>si les deux plateaux tiennent dans 64 bits (jusqu'à 32 cases, donc le 3x3),
+ * un seul mot : les cases de X sur les bits {@code 0..size-1}, celles de O au-delà ;</li>
+ * <li>sinon, les mots du bitboard de X puis ceux du bitboard de O.</li>
+ * </ul>
+ * Un 3x3 tient ainsi en deux {@code long}, et un instantané 3x3 n'alloue que lui-même.
+ * Les instantanés peuvent être partagés librement entre threads.
+ */
+public final class BoardSnapshot {
+
+    private static final Owner[] OWNERS = Owner.values();
+
+    private final long header;
+
+    private final long packed;
+
+    private final long[] words;
+
+    private BoardSnapshot(long header, long packed, long[] words) {
+        this.header = header;
+        this.packed = packed;
+        this.words = words;
+    }
+
+    /**
+    * Capture la position d'un moteur.
+    *
+    * @param engine Le moteur.
+    * @return L'instantané de sa position.
+    */
+    public static BoardSnapshot of(TicTacToeEngine engine) {
+        int width = engine.getWidth();
+        int height = engine.getHeight();
+        if (width > 0xFF || height > 0xFF) {
+            throw new IllegalArgumentException("Plateau trop grand pour un instantané : " + width + "x" + height);
+        }
+        long header = width | (long) height << 8 | (long) engine.getWinningCount() << 16
+                | (long) engine.getTurn().ordinal() << 24 | (long) engine.getWinner().ordinal() << 26
+                | (long) engine.getScore(Owner.FIRST) << 32 | (long) engine.getScore(Owner.SECOND) << 48;
+        int size = engine.getSize();
+        if (isPacked(size)) {
+            long first = engine.getBitboardWord(Owner.FIRST, 0);
+            long second = engine.getBitboardWord(Owner.SECOND, 0);
+            return new BoardSnapshot(header, first | second << size, null);
+        }
+        int wordCount = engine.getWordCount();
+        long[] words = new long[2 * wordCount];
+        for (int word = 0; word < wordCount; word++) {
+            words[word] = engine.getBitboardWord(Owner.FIRST, word);
+            words[wordCount + word] = engine.getBitboardWord(Owner.SECOND, word);
+        }
+        return new BoardSnapshot(header, 0L, words);
+    }
+
+    private static boolean isPacked(int size) {
+        return 2 * size <= Long.SIZE;
+    }
+
+    /**
+    * @param width  Le nombre de colonnes.
+    * @param height Le nombre de lignes.
+    * @return La taille en octets du codage d'une position de ces dimensions.
+    */
+    public static int encodedSize(int width, int height) {
+        int size = width * height;
+        return Long.BYTES * (isPacked(size) ? 2 : 1 + 2 * ((size + 63) >>> 6));
+    }
+
+    /**
+    * @return La taille en octets du codage de cet instantané.
+    */
+    public int getEncodedSize() {
+        return encodedSize(getWidth(), getHeight());
+    }
+
+    /**
+    * Écrit le codage de l'instantané à la position courante d'un tampon.
+    *
+    * @param buffer Le tampon de destination, avec au moins {@link #getEncodedSize()} octets libres.
+    */
+    public void encode(ByteBuffer buffer) {
+        buffer.putLong(header);
+        if (words == null) {
+            buffer.putLong(packed);
+        } else {
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+    }
+
+    /**
+    * Lit un instantané à la position courante d'un tampon.
+    *
+    * @param buffer Le tampon source.
+    * @return L'instantané décodé.
+    * @throws IllegalArgumentException Si l'en-tête ne décrit pas un plateau valide, ou si les
+    *                                  bitboards se chevauchent, débordent du plateau ou ne
+    *                                  correspondent pas aux scores.
+    */
+    public static BoardSnapshot decode(ByteBuffer buffer) {
+        long header = buffer.getLong();
+        int width = (int) (header & 0xFF);
+        int height = (int) (header >>> 8 & 0xFF);
+        int winningCount = (int) (header >>> 16 & 0xFF);
+        if (width == 0 || height == 0 || winningCount == 0 || winningCount > Math.max(width, height)
+                || (header >>> 24 & 0x3) > 2 || (header >>> 26 & 0x3) > 2) {
+            throw new IllegalArgumentException("Instantané invalide : " + Long.toHexString(header));
+        }
+        int size = width * height;
+        BoardSnapshot snapshot;
+        if (isPacked(size)) {
+            long packed = buffer.getLong();
+            if (2 * size < Long.SIZE && packed >>> 2 * size != 0) {
+                throw new IllegalArgumentException("Instantané invalide : cases hors du plateau");
+            }
+            snapshot = new BoardSnapshot(header, packed, null);
+        } else {
+            long[] words = new long[2 * ((size + 63) >>> 6)];
+            for (int word = 0; word < words.length; word++) {
+                words[word] = buffer.getLong();
+            }
+            long outside = size % Long.SIZE == 0 ? 0L : -1L << size;
+            if ((words[words.length / 2 - 1] & outside) != 0 || (words[words.length - 1] & outside) != 0) {
+                throw new IllegalArgumentException("Instantané invalide : cases hors du plateau");
+            }
+            snapshot = new BoardSnapshot(header, 0L, words);
+        }
+        int firstCount = 0;
+        int secondCount = 0;
+        for (int word = 0; word < (size + 63) >>> 6; word++) {
+            long first = snapshot.getBitboardWord(Owner.FIRST, word);
+            long second = snapshot.getBitboardWord(Owner.SECOND, word);
+            if ((first & second) != 0) {
+                throw new IllegalArgumentException("Instantané invalide : case occupée par les deux joueurs");
+            }
+            firstCount += Long.bitCount(first);
+            secondCount += Long.bitCount(second);
+        }
+        if (firstCount != snapshot.getScore(Owner.FIRST) || secondCount != snapshot.getScore(Owner.SECOND)) {
+            throw new IllegalArgumentException("Instantané invalide : scores " + snapshot.getScore(Owner.FIRST) + "/"
+                    + snapshot.getScore(Owner.SECOND) + " pour " + firstCount + "/" + secondCount + " pions");
+        }
+        return snapshot;
+    }
+
+    /**
+    * Reconstruit un moteur indépendant à partir de l'instantané.
+    *
+    * @return Un nouveau moteur dans cette position.
+    */
+    public TicTacToeEngine toEngine() {
+        return new TicTacToeEngine(this);
+    }
+
+    public int getWidth() {
+        return (int) (header & 0xFF);
+    }
+
+    public int getHeight() {
+        return (int) (header >>> 8 & 0xFF);
+    }
+
+    public int getWinningCount() {
+        return (int) (header >>> 16 & 0xFF);
+    }
+
+    public int getSize() {
+        return getWidth() * getHeight();
+    }
+
+    public Owner getTurn() {
+        return OWNERS[(int) (header >>> 24 & 0x3)];
+    }
+
+    public Owner getWinner() {
+        return OWNERS[(int) (header >>> 26 & 0x3)];
+    }
+
+    /**
+    * @param owner Le joueur.
+    * @return Le nombre de cases occupées par ce joueur.
+    */
+    public int getScore(Owner owner) {
+        return owner == Owner.FIRST ? (int) (header >>> 32 & 0xFFFF)
+                : owner == Owner.SECOND ? (int) (header >>> 48 & 0xFFFF) : 0;
+    }
+
+    /**
+    * @return Le nombre de cases libres.
+    */
+    public int getFreeSquares() {
+        return getSize() - getScore(Owner.FIRST) - getScore(Owner.SECOND);
+    }
+
+    /**
+    * @return true si la partie est terminée (gagnant ou plateau plein).
+    */
+    public boolean isGameOver() {
+        return getWinner() != Owner.NONE || getFreeSquares() == 0;
+    }
+
+    /**
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return Le propriétaire de la case (NONE si elle est libre).
+    */
+    public Owner getOwner(int row, int column) {
+        return getOwner(row * getWidth() + column);
+    }
+
+    /**
+    * @param square L'indice de la case ({@code row * width + column}).
+    * @return Le propriétaire de la case (NONE si elle est libre).
+    */
+    public Owner getOwner(int square) {
+        if ((getBitboardWord(Owner.FIRST, square >>> 6) & (1L << square)) != 0) {
+            return Owner.FIRST;
+        }
+        return (getBitboardWord(Owner.SECOND, square >>> 6) & (1L << square)) != 0 ? Owner.SECOND : Owner.NONE;
+    }
+
+    /**
+    * Retourne un mot du bitboard d'un joueur, au format de {@link TicTacToeEngine#getBitboardWord}.
+    *
+    * @param owner Le joueur (FIRST pour X, SECOND pour O).
+    * @param word  L'indice du mot.
+    * @return Les bits des cases {@code 64 * word} à {@code 64 * word + 63}.
+    */
+    public long getBitboardWord(Owner owner, int word) {
+        if (words != null) {
+            return owner == Owner.FIRST ? words[word] : owner == Owner.SECOND ? words[words.length / 2 + word] : 0L;
+        }
+        int size = getSize();
+        long mask = (1L << size) - 1;
+        return owner == Owner.FIRST ? packed & mask : owner == Owner.SECOND ? packed >>> size & mask : 0L;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof BoardSnapshot)) {
+            return false;
+        }
+        BoardSnapshot snapshot = (BoardSnapshot) other;
+        return header == snapshot.header && packed == snapshot.packed && Arrays.equals(words, snapshot.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(header) * 31 + Long.hashCode(packed) * 17 + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(getSize() + getHeight());
+        for (int square = 0; square < getSize(); square++) {
+            if (square > 0 && square % getWidth() == 0) {
+                builder.append('/');
+            }
+            Owner owner = getOwner(square);
+            builder.append(owner == Owner.NONE ? "." : owner.toString());
+        }
+        return builder.toString();
+    }
+}
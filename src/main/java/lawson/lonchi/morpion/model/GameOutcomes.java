@@ -0,0 +1,35 @@
+package lawson.lonchi.morpion.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.Metrics;
+
+/**
+ * Compteurs des parties terminées par issue, partagés par l'interface et le serveur.
+ */
+public final class GameOutcomes {
+
+    private static final LongAdder FIRST_WINS = Metrics.get().counter("games.xWins");
+
+    private static final LongAdder SECOND_WINS = Metrics.get().counter("games.oWins");
+
+    private static final LongAdder DRAWS = Metrics.get().counter("games.draws");
+
+    private GameOutcomes() {
+    }
+
+    /**
+    * Compte une partie terminée.
+    *
+    * @param winner Le gagnant, ou NONE pour un match nul.
+    */
+    public static void record(Owner winner) {
+        if (winner == Owner.FIRST) {
+            FIRST_WINS.increment();
+        } else if (winner == Owner.SECOND) {
+            SECOND_WINS.increment();
+        } else {
+            DRAWS.increment();
+        }
+    }
+}
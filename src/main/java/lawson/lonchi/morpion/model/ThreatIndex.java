@@ -0,0 +1,329 @@
+package lawson.lonchi.morpion.model;
+
+import java.util.Arrays;
+
+/**
+ * Index des fenêtres d'alignement d'un plateau m,n,k : toutes les suites de k cases
+ * alignées, dans les quatre directions. Chaque fenêtre tient le nombre de pions de X,
+ * de pions de O et de cases vides ; un coup ne met à jour que les fenêtres qui couvrent
+ * la case jouée (au plus 4k).
+ * Une fenêtre qui ne contient que des pions d'un même joueur est une menace de niveau
+ * égal à son nombre de pions : une menace de niveau k est un alignement, une menace de
+ * niveau k - 1 se complète (ou se bloque) en une case. Les menaces sont rangées par joueur
+ * et par niveau dans des listes doublement chaînées intrusives, sur tableaux primitifs :
+ * les ajouts et retraits sont en O(1), sans allocation.
+ * Pour les menaces de niveau k - 1, la case vide est connue en O(1) : chaque fenêtre tient
+ * la somme de ses cases vides, qui se réduit à cette case.
+ */
+public final class ThreatIndex {
+
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+
+    private static final int[] DIRECTION_COLUMNS = {1, 0, 1, -1};
+
+    private final int width;
+
+    private final int winningCount;
+
+    private final int windowCount;
+
+    /**
+    * Première case et pas (écart d'indice entre deux cases successives) de chaque fenêtre.
+    */
+    private final int[] windowStarts;
+
+    private final int[] windowSteps;
+
+    /**
+    * Fenêtres couvrant chaque case, au format CSR : celles de la case {@code s}
+    * sont {@code squareWindows[squareOffsets[s] .. squareOffsets[s + 1]]}.
+    */
+    private final int[] squareOffsets;
+
+    private final int[] squareWindows;
+
+    private final int[] firstCounts;
+
+    private final int[] secondCounts;
+
+    private final int[] emptySums;
+
+    /**
+    * Listes de menaces : tête de chaque liste (joueur, niveau), puis chaînage par fenêtre.
+    */
+    private final int[] heads;
+
+    private final int[] sizes;
+
+    private final int[] next;
+
+    private final int[] previous;
+
+    /**
+    * Liste à laquelle appartient chaque fenêtre, ou -1.
+    */
+    private final int[] lists;
+
+    /**
+    * Crée l'index d'un plateau vide.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    public ThreatIndex(int width, int height, int winningCount) {
+        this.width = width;
+        this.winningCount = winningCount;
+        int size = width * height;
+        int[] starts = new int[4 * size];
+        int[] steps = new int[4 * size];
+        int count = 0;
+        int[] coverage = new int[size + 1];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                for (int direction = 0; direction < 4; direction++) {
+                    int endRow = row + DIRECTION_ROWS[direction] * (winningCount - 1);
+                    int endColumn = column + DIRECTION_COLUMNS[direction] * (winningCount - 1);
+                    if (endRow >= height || endColumn < 0 || endColumn >= width) {
+                        continue;
+                    }
+                    starts[count] = row * width + column;
+                    steps[count] = DIRECTION_ROWS[direction] * width + DIRECTION_COLUMNS[direction];
+                    for (int i = 0; i < winningCount; i++) {
+                        coverage[starts[count] + i * steps[count] + 1]++;
+                    }
+                    count++;
+                }
+            }
+        }
+        windowCount = count;
+        windowStarts = Arrays.copyOf(starts, count);
+        windowSteps = Arrays.copyOf(steps, count);
+        for (int square = 0; square < size; square++) {
+            coverage[square + 1] += coverage[square];
+        }
+        squareOffsets = coverage.clone();
+        squareWindows = new int[coverage[size]];
+        for (int window = 0; window < count; window++) {
+            for (int i = 0; i < winningCount; i++) {
+                squareWindows[coverage[getSquare(window, i)]++] = window;
+            }
+        }
+        firstCounts = new int[count];
+        secondCounts = new int[count];
+        emptySums = new int[count];
+        heads = new int[2 * (winningCount + 1)];
+        sizes = new int[heads.length];
+        next = new int[count];
+        previous = new int[count];
+        lists = new int[count];
+        clear();
+    }
+
+    /**
+    * Construit l'index d'une position existante.
+    *
+    * @param position La position.
+    * @return L'index, à jour de la position.
+    */
+    public static ThreatIndex of(TicTacToeEngine position) {
+        ThreatIndex index = new ThreatIndex(position.getWidth(), position.getHeight(), position.getWinningCount());
+        for (int square = 0; square < position.getSize(); square++) {
+            Owner owner = position.getOwner(square);
+            if (owner != Owner.NONE) {
+                index.place(square, owner);
+            }
+        }
+        return index;
+    }
+
+    /**
+    * Vide l'index : toutes les fenêtres sont vides.
+    */
+    public void clear() {
+        Arrays.fill(firstCounts, 0);
+        Arrays.fill(secondCounts, 0);
+        Arrays.fill(heads, -1);
+        Arrays.fill(sizes, 0);
+        Arrays.fill(lists, -1);
+        for (int window = 0; window < windowCount; window++) {
+            int sum = 0;
+            for (int i = 0; i < winningCount; i++) {
+                sum += getSquare(window, i);
+            }
+            emptySums[window] = sum;
+        }
+    }
+
+    /**
+    * Pose un pion : met à jour les fenêtres qui couvrent la case.
+    *
+    * @param square La case, libre.
+    * @param owner  Le joueur.
+    */
+    public void place(int square, Owner owner) {
+        int[] counts = owner == Owner.FIRST ? firstCounts : secondCounts;
+        for (int i = squareOffsets[square]; i < squareOffsets[square + 1]; i++) {
+            int window = squareWindows[i];
+            counts[window]++;
+            emptySums[window] -= square;
+            relink(window);
+        }
+    }
+
+    /**
+    * Retire un pion, pour annuler un coup.
+    *
+    * @param square La case.
+    * @param owner  Le joueur qui l'occupait.
+    */
+    public void remove(int square, Owner owner) {
+        int[] counts = owner == Owner.FIRST ? firstCounts : secondCounts;
+        for (int i = squareOffsets[square]; i < squareOffsets[square + 1]; i++) {
+            int window = squareWindows[i];
+            counts[window]--;
+            emptySums[window] += square;
+            relink(window);
+        }
+    }
+
+    /**
+    * Range une fenêtre dans la liste correspondant à son contenu.
+    */
+    private void relink(int window) {
+        int first = firstCounts[window];
+        int second = secondCounts[window];
+        int list = first > 0 && second == 0 ? list(Owner.FIRST, first)
+                : second > 0 && first == 0 ? list(Owner.SECOND, second) : -1;
+        int current = lists[window];
+        if (list == current) {
+            return;
+        }
+        if (current >= 0) {
+            int before = previous[window];
+            int after = next[window];
+            if (before >= 0) {
+                next[before] = after;
+            } else {
+                heads[current] = after;
+            }
+            if (after >= 0) {
+                previous[after] = before;
+            }
+            sizes[current]--;
+        }
+        if (list >= 0) {
+            int head = heads[list];
+            next[window] = head;
+            previous[window] = -1;
+            if (head >= 0) {
+                previous[head] = window;
+            }
+            heads[list] = window;
+            sizes[list]++;
+        }
+        lists[window] = list;
+    }
+
+    private int list(Owner owner, int level) {
+        return (owner == Owner.FIRST ? 0 : winningCount + 1) + level;
+    }
+
+    /**
+    * @return Le nombre de fenêtres du plateau.
+    */
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    /**
+    * @param window La fenêtre.
+    * @param i      La position dans la fenêtre, de 0 à k - 1.
+    * @return L'indice de la case.
+    */
+    public int getSquare(int window, int i) {
+        return windowStarts[window] + i * windowSteps[window];
+    }
+
+    /**
+    * @param window La fenêtre.
+    * @param owner  Le joueur, ou NONE pour les cases vides.
+    * @return Le nombre de cases de la fenêtre occupées par ce joueur.
+    */
+    public int getCount(int window, Owner owner) {
+        if (owner == Owner.FIRST) {
+            return firstCounts[window];
+        }
+        if (owner == Owner.SECOND) {
+            return secondCounts[window];
+        }
+        return winningCount - firstCounts[window] - secondCounts[window];
+    }
+
+    /**
+    * @param owner Le joueur.
+    * @param level Le nombre de pions, de 1 à k.
+    * @return Le nombre de fenêtres ne contenant que {@code level} pions de ce joueur.
+    */
+    public int getThreatCount(Owner owner, int level) {
+        return sizes[list(owner, level)];
+    }
+
+    /**
+    * Parcours des menaces : {@code for (int w = firstThreat(owner, level); w >= 0; w = nextThreat(w))}.
+    * L'index ne doit pas être modifié pendant le parcours.
+    *
+    * @param owner Le joueur.
+    * @param level Le nombre de pions, de 1 à k.
+    * @return La première fenêtre de la liste, ou -1 si elle est vide.
+    */
+    public int firstThreat(Owner owner, int level) {
+        return heads[list(owner, level)];
+    }
+
+    /**
+    * @param window Une fenêtre de la liste parcourue.
+    * @return La fenêtre suivante de la même liste, ou -1.
+    */
+    public int nextThreat(int window) {
+        return next[window];
+    }
+
+    /**
+    * @param window Une fenêtre qui n'a qu'une case vide.
+    * @return Cette case.
+    */
+    public int getCompletingSquare(int window) {
+        return emptySums[window];
+    }
+
+    /**
+    * @param owner Le joueur.
+    * @return true si le joueur a un alignement complet.
+    */
+    public boolean hasLine(Owner owner) {
+        return sizes[list(owner, winningCount)] > 0;
+    }
+
+    /**
+    * Retourne une case qui complète un alignement du joueur : pour le joueur au trait, c'est
+    * un coup gagnant ; pour son adversaire, c'est la case à bloquer.
+    *
+    * @param owner Le joueur.
+    * @return La case, ou -1 si aucune fenêtre du joueur n'est à un pion de l'alignement.
+    */
+    public int findCompletingSquare(Owner owner) {
+        if (winningCount < 2) {
+            return -1;
+        }
+        int window = heads[list(owner, winningCount - 1)];
+        return window < 0 ? -1 : emptySums[window];
+    }
+
+    /**
+    * @return Le nombre de colonnes du plateau.
+    */
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,590 @@
+package lawson.lonchi.morpion.model;
+
+import java.util.Arrays;
+
+/**
+ * Moteur de jeu du morpion généralisé (m,n,k), indépendant de JavaFX.
+ * La position est stockée dans deux bitboards primitifs, un par joueur :
+ * le bit {@code row * width + column} vaut 1 lorsque la case appartient au joueur.
+ * Les bitboards sont découpés en mots de 64 bits, ce qui permet des plateaux
+ * de taille quelconque (19x19 et au-delà).
+ * La détection du gagnant ne parcourt que les quatre directions autour du dernier
+ * coup : chaque coup coûte O(k) et non O(plateau).
+ * Les coups joués sont empilés dans un tableau primitif, ce qui permet d'annuler et
+ * de rejouer chaque coup en O(1) (O(k) pour rejouer un coup gagnant) ; c'est aussi le
+ * mécanisme de jouer/déjouer des recherches, qui n'ont ainsi pas à copier la position.
+ */
+public class TicTacToeEngine {
+
+    public final static int DEFAULT_WIDTH = 3;
+
+    public final static int DEFAULT_HEIGHT = 3;
+
+    public final static int DEFAULT_WINNING_COUNT = 3;
+
+    public final static int NO_LINE = -1;
+
+    /**
+    * Directions d'alignement : horizontale, verticale, diagonale, anti-diagonale.
+    */
+    private final static int[] DIRECTION_ROWS = {0, 1, 1, 1};
+
+    private final static int[] DIRECTION_COLUMNS = {1, 0, 1, -1};
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final int size;
+
+    private final long[] firstBoard;
+
+    private final long[] secondBoard;
+
+    private int firstCount;
+
+    private int secondCount;
+
+    private Owner turn = Owner.FIRST;
+
+    private Owner winner = Owner.NONE;
+
+    private int winningLine = NO_LINE;
+
+    /**
+    * Historique des coups : {@code case << 2 | joueur}. Les entrées de {@code moveCount}
+    * à {@code historyLength} sont les coups annulés, qui peuvent être rejoués.
+    */
+    private final int[] history;
+
+    private int moveCount;
+
+    private int historyLength;
+
+    private final Zobrist zobrist;
+
+    /**
+    * XOR des clés de Zobrist des cases occupées, mis à jour à chaque pion posé ou retiré.
+    */
+    private long squaresHash;
+
+    /**
+    * Index des menaces, créé à la première demande puis tenu à jour à chaque coup.
+    */
+    private ThreatIndex threats;
+
+    /**
+    * Crée un moteur pour le plateau classique 3x3.
+    */
+    public TicTacToeEngine() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_WINNING_COUNT);
+    }
+
+    /**
+    * Crée un moteur pour un plateau m,n,k.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    public TicTacToeEngine(int width, int height, int winningCount) {
+        if (width < 1 || height < 1 || winningCount < 1 || winningCount > Math.max(width, height)) {
+            throw new IllegalArgumentException(
+                    "Plateau invalide : " + width + "x" + height + ", k=" + winningCount);
+        }
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.size = width * height;
+        int words = (size + 63) >>> 6;
+        this.firstBoard = new long[words];
+        this.secondBoard = new long[words];
+        this.history = new int[size];
+        this.zobrist = Zobrist.of(width, height, winningCount);
+    }
+
+    /**
+    * Crée une copie indépendante d'une position.
+    *
+    * @param other Le moteur à copier.
+    */
+    public TicTacToeEngine(TicTacToeEngine other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.winningCount = other.winningCount;
+        this.size = other.size;
+        this.firstBoard = other.firstBoard.clone();
+        this.secondBoard = other.secondBoard.clone();
+        this.firstCount = other.firstCount;
+        this.secondCount = other.secondCount;
+        this.turn = other.turn;
+        this.winner = other.winner;
+        this.winningLine = other.winningLine;
+        this.history = other.history.clone();
+        this.moveCount = other.moveCount;
+        this.historyLength = other.historyLength;
+        this.zobrist = other.zobrist;
+        this.squaresHash = other.squaresHash;
+    }
+
+    /**
+    * Reconstruit une position à partir d'un instantané. La ligne gagnante,
+    * qui ne fait pas partie de l'instantané, est recherchée sur le plateau ;
+    * l'historique des coups, lui, n'est pas restauré.
+    *
+    * @param snapshot L'instantané.
+    */
+    TicTacToeEngine(BoardSnapshot snapshot) {
+        this(snapshot.getWidth(), snapshot.getHeight(), snapshot.getWinningCount());
+        for (int word = 0; word < firstBoard.length; word++) {
+            firstBoard[word] = snapshot.getBitboardWord(Owner.FIRST, word);
+            secondBoard[word] = snapshot.getBitboardWord(Owner.SECOND, word);
+        }
+        firstCount = snapshot.getScore(Owner.FIRST);
+        secondCount = snapshot.getScore(Owner.SECOND);
+        turn = snapshot.getTurn();
+        winner = snapshot.getWinner();
+        for (int square = 0; square < size; square++) {
+            Owner owner = getOwner(square);
+            if (owner != Owner.NONE) {
+                squaresHash ^= zobrist.key(owner, square);
+            }
+        }
+        if (winner != Owner.NONE) {
+            long[] board = winner == Owner.FIRST ? firstBoard : secondBoard;
+            for (int square = 0; square < size && winningLine == NO_LINE; square++) {
+                if (isSet(board, square)) {
+                    winningLine = findLine(board, square / width, square % width);
+                }
+            }
+        }
+    }
+
+    /**
+    * Réinitialise le moteur : plateau vide, X commence.
+    */
+    public void restart() {
+        Arrays.fill(firstBoard, 0L);
+        Arrays.fill(secondBoard, 0L);
+        firstCount = 0;
+        secondCount = 0;
+        turn = Owner.FIRST;
+        winner = Owner.NONE;
+        winningLine = NO_LINE;
+        moveCount = 0;
+        historyLength = 0;
+        squaresHash = 0L;
+        if (threats != null) {
+            threats.clear();
+        }
+    }
+
+    /**
+    * @return Le nombre de colonnes.
+    */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+    * @return Le nombre de lignes.
+    */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+    * @return Le nombre de pions à aligner pour gagner.
+    */
+    public int getWinningCount() {
+        return winningCount;
+    }
+
+    /**
+    * @return Le nombre total de cases.
+    */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+    * @return Le joueur dont c'est le tour.
+    */
+    public Owner getTurn() {
+        return turn;
+    }
+
+    /**
+    * Passe au joueur suivant.
+    */
+    public void nextPlayer() {
+        turn = turn.opposite();
+    }
+
+    /**
+    * @return Le gagnant, ou NONE si la partie est en cours ou nulle.
+    */
+    public Owner getWinner() {
+        return winner;
+    }
+
+    /**
+    * Définit le gagnant du jeu.
+    *
+    * @param winner Le gagnant du jeu.
+    */
+    public void setWinner(Owner winner) {
+        this.winner = winner;
+    }
+
+    /**
+    * @return Le nombre de mots de 64 bits de chaque bitboard.
+    */
+    public int getWordCount() {
+        return firstBoard.length;
+    }
+
+    /**
+    * Retourne un mot du bitboard d'un joueur.
+    *
+    * @param owner Le joueur (FIRST pour X, SECOND pour O).
+    * @param word  L'indice du mot.
+    * @return Les bits des cases {@code 64 * word} à {@code 64 * word + 63}.
+    */
+    public long getBitboardWord(Owner owner, int word) {
+        return owner == Owner.FIRST ? firstBoard[word] : owner == Owner.SECOND ? secondBoard[word] : 0L;
+    }
+
+    /**
+    * Retourne le propriétaire d'une case.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return Le propriétaire de la case (NONE si elle est libre).
+    */
+    public Owner getOwner(int row, int column) {
+        return getOwner(row * width + column);
+    }
+
+    /**
+    * Retourne le propriétaire d'une case à partir de son indice.
+    *
+    * @param square L'indice de la case ({@code row * width + column}).
+    * @return Le propriétaire de la case (NONE si elle est libre).
+    */
+    public Owner getOwner(int square) {
+        if (isSet(firstBoard, square)) {
+            return Owner.FIRST;
+        }
+        return isSet(secondBoard, square) ? Owner.SECOND : Owner.NONE;
+    }
+
+    /**
+    * Vérifie si une case est sur le plateau.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si la case existe.
+    */
+    public boolean isInside(int row, int column) {
+        return row >= 0 && row < height && column >= 0 && column < width;
+    }
+
+    /**
+    * Vérifie si une case est valide (sur le plateau, libre et jeu non terminé).
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si la case est valide, false sinon.
+    */
+    public boolean validSquare(int row, int column) {
+        if (!isInside(row, column)) {
+            return false;
+        }
+        int square = row * width + column;
+        return winner == Owner.NONE && !isSet(firstBoard, square) && !isSet(secondBoard, square);
+    }
+
+    /**
+    * Joue dans une case pour le joueur courant si le coup est légal,
+    * puis vérifie s'il y a un gagnant et passe au joueur suivant.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si le coup a été joué, false s'il était illégal.
+    */
+    public boolean play(int row, int column) {
+        if (!validSquare(row, column)) {
+            return false;
+        }
+        place(row * width + column);
+        historyLength = moveCount;
+        return true;
+    }
+
+    private void place(int square) {
+        long[] board;
+        if (turn == Owner.FIRST) {
+            board = firstBoard;
+            firstCount++;
+        } else {
+            board = secondBoard;
+            secondCount++;
+        }
+        board[square >>> 6] |= 1L << square;
+        history[moveCount++] = square << 2 | turn.ordinal();
+        squaresHash ^= zobrist.key(turn, square);
+        if (threats != null) {
+            threats.place(square, turn);
+        }
+        checkForWinner(board, square / width, square % width);
+        nextPlayer();
+    }
+
+    /**
+    * Annule le dernier coup : la case est libérée, le joueur qui l'avait jouée
+    * redevient le joueur au trait et un éventuel gagnant est effacé.
+    *
+    * @return true si un coup a été annulé, false si l'historique est vide.
+    */
+    public boolean undo() {
+        if (moveCount == 0) {
+            return false;
+        }
+        int move = history[--moveCount];
+        int square = move >>> 2;
+        if ((move & 0x3) == Owner.FIRST.ordinal()) {
+            firstBoard[square >>> 6] &= ~(1L << square);
+            firstCount--;
+            turn = Owner.FIRST;
+        } else {
+            secondBoard[square >>> 6] &= ~(1L << square);
+            secondCount--;
+            turn = Owner.SECOND;
+        }
+        squaresHash ^= zobrist.key(turn, square);
+        if (threats != null) {
+            threats.remove(square, turn);
+        }
+        winner = Owner.NONE;
+        winningLine = NO_LINE;
+        return true;
+    }
+
+    /**
+    * Rejoue le dernier coup annulé. Jouer un nouveau coup efface les coups annulés.
+    *
+    * @return true si un coup a été rejoué, false s'il n'y a rien à rejouer.
+    */
+    public boolean redo() {
+        if (moveCount == historyLength) {
+            return false;
+        }
+        int move = history[moveCount];
+        turn = (move & 0x3) == Owner.FIRST.ordinal() ? Owner.FIRST : Owner.SECOND;
+        place(move >>> 2);
+        return true;
+    }
+
+    /**
+    * Retourne l'index des fenêtres d'alignement de la position. Il est construit au premier
+    * appel (en O(plateau)), puis mis à jour à chaque coup joué, annulé ou rejoué, pour O(k)
+    * par coup ; les moteurs qui ne le demandent jamais n'en paient pas le coût.
+    * Une copie du moteur reconstruit son propre index à la demande.
+    *
+    * @return L'index des menaces.
+    */
+    public ThreatIndex getThreatIndex() {
+        if (threats == null) {
+            threats = ThreatIndex.of(this);
+        }
+        return threats;
+    }
+
+    /**
+    * @return true si l'index des menaces a déjà été construit et est tenu à jour.
+    */
+    public boolean hasThreatIndex() {
+        return threats != null;
+    }
+
+    /**
+    * Retourne le hash de Zobrist de la position (plateau, dimensions et joueur au trait),
+    * tenu à jour en O(1) à chaque coup joué, annulé ou rejoué. Deux positions identiques
+    * ont le même hash quel que soit l'ordre des coups ; le gagnant n'en fait pas partie.
+    *
+    * @return Le hash de la position.
+    */
+    public long getHash() {
+        return squaresHash ^ zobrist.boardKey() ^ (turn == Owner.SECOND ? zobrist.sideKey() : 0L);
+    }
+
+    /**
+    * @return Le nombre de coups joués depuis le début de la partie.
+    */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+    * @return Le nombre de coups annulés qui peuvent être rejoués.
+    */
+    public int getRedoCount() {
+        return historyLength - moveCount;
+    }
+
+    /**
+    * Retourne un coup de l'historique.
+    *
+    * @param index Le numéro du coup, de 0 à {@code getMoveCount() + getRedoCount() - 1}.
+    * @return L'indice de la case jouée.
+    */
+    public int getMove(int index) {
+        return history[index] >>> 2;
+    }
+
+    /**
+    * @param index Le numéro du coup.
+    * @return Le joueur qui a joué ce coup.
+    */
+    public Owner getMoveOwner(int index) {
+        return (history[index] & 0x3) == Owner.FIRST.ordinal() ? Owner.FIRST : Owner.SECOND;
+    }
+
+    /**
+    * Vérifie, sans modifier la position, si poser un pion dans une case libre
+    * ferait gagner un joueur.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @param owner  Le joueur (FIRST ou SECOND).
+    * @return true si le coup compléterait un alignement de k pions.
+    */
+    public boolean isWinningMove(int row, int column, Owner owner) {
+        long[] board = owner == Owner.FIRST ? firstBoard : secondBoard;
+        for (int direction = 0; direction < DIRECTION_ROWS.length; direction++) {
+            int dr = DIRECTION_ROWS[direction];
+            int dc = DIRECTION_COLUMNS[direction];
+            if (countAligned(board, row, column, -dr, -dc) + 1 + countAligned(board, row, column, dr, dc) >= winningCount) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    * Cherche un alignement passant par la case jouée dans les quatre directions,
+    * en ne regardant que les k-1 cases de part et d'autre.
+    */
+    private void checkForWinner(long[] board, int row, int column) {
+        int line = findLine(board, row, column);
+        if (line != NO_LINE) {
+            winningLine = line;
+            winner = turn;
+        }
+    }
+
+    private int findLine(long[] board, int row, int column) {
+        for (int direction = 0; direction < DIRECTION_ROWS.length; direction++) {
+            int dr = DIRECTION_ROWS[direction];
+            int dc = DIRECTION_COLUMNS[direction];
+            int backward = countAligned(board, row, column, -dr, -dc);
+            int forward = countAligned(board, row, column, dr, dc);
+            if (backward + 1 + forward >= winningCount) {
+                int start = (row - backward * dr) * width + (column - backward * dc);
+                return start * DIRECTION_ROWS.length + direction;
+            }
+        }
+        return NO_LINE;
+    }
+
+    private int countAligned(long[] board, int row, int column, int dr, int dc) {
+        int count = 0;
+        int r = row + dr;
+        int c = column + dc;
+        while (count < winningCount - 1 && isInside(r, c) && isSet(board, r * width + c)) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+
+    /**
+    * @param owner Le joueur.
+    * @return Le nombre de cases occupées par ce joueur.
+    */
+    public int getScore(Owner owner) {
+        return owner == Owner.FIRST ? firstCount : owner == Owner.SECOND ? secondCount : 0;
+    }
+
+    /**
+    * @return Le nombre de cases libres.
+    */
+    public int getFreeSquares() {
+        return size - firstCount - secondCount;
+    }
+
+    /**
+    * @return true si toutes les cases sont occupées.
+    */
+    public boolean isBoardFull() {
+        return firstCount + secondCount == size;
+    }
+
+    /**
+    * @return true si la partie est terminée (gagnant ou plateau plein).
+    */
+    public boolean isGameOver() {
+        return winner != Owner.NONE || isBoardFull();
+    }
+
+    /**
+    * Retourne l'indice compact de la ligne gagnante :
+    * {@code caseDeDépart * 4 + direction}.
+    *
+    * @return L'indice de la ligne gagnante, ou NO_LINE si aucun gagnant.
+    */
+    public int getWinningLine() {
+        return winningLine;
+    }
+
+    /**
+    * Retourne la i-ème case d'une ligne.
+    *
+    * @param line  L'indice de la ligne.
+    * @param index La position dans la ligne, de 0 à k-1.
+    * @return L'indice de la case ({@code row * width + column}).
+    */
+    public int getLineSquare(int line, int index) {
+        int direction = line % DIRECTION_ROWS.length;
+        int start = line / DIRECTION_ROWS.length;
+        return start + index * (DIRECTION_ROWS[direction] * width + DIRECTION_COLUMNS[direction]);
+    }
+
+    /**
+    * Vérifie si une case fait partie de la ligne gagnante.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si la case est gagnante.
+    */
+    public boolean isWinningSquare(int row, int column) {
+        if (winningLine == NO_LINE) {
+            return false;
+        }
+        int square = row * width + column;
+        for (int i = 0; i < winningCount; i++) {
+            if (getLineSquare(winningLine, i) == square) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSet(long[] board, int square) {
+        return (board[square >>> 6] & (1L << square)) != 0;
+    }
+}
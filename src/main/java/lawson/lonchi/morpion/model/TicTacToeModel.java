@@ -2,45 +2,95 @@ package lawson.lonchi.morpion.model;
 
 import javafx.beans.property.*;
 import lawson.lonchi.morpion.controller.TicTacToeController;
-
-import java.util.ArrayList;
-import java.util.List;
+import lawson.lonchi.morpion.feed.ChangeFeed;
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
 
 import javafx.beans.binding.*;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class TicTacToeModel {
 
-    private final static int BOARD_WIDTH = 3;
+    private static final LongAdder MOVES = Metrics.get().counter("model.moves");
+
+    private static final LongAdder ILLEGAL_MOVES = Metrics.get().counter("model.illegalMoves");
+
+    private static final LongAdder WIN_CHECKS = Metrics.get().counter("model.winChecks");
+
+    /**
+    * Durée du coup dans le moteur (validation et recherche d'alignement).
+    */
+    private static final LatencyHistogram ENGINE_TIME = Metrics.get().histogram("model.engine");
+
+    /**
+    * Durée de la mise à jour des propriétés, y compris les liaisons et écouteurs qu'elle déclenche.
+    */
+    private static final LatencyHistogram BINDINGS_TIME = Metrics.get().histogram("model.bindings");
+
+    private final int boardWidth;
     
-    private final static int BOARD_HEIGHT = 3;
+    private final int boardHeight;
     
-    private final static int WINNING_COUNT = 3;
+    private final TicTacToeEngine engine;
     
     private final IntegerProperty xScore = new SimpleIntegerProperty(0);
     
     private final IntegerProperty oScore = new SimpleIntegerProperty(0);
     
-    private final IntegerProperty freeSquares = new SimpleIntegerProperty(9);
+    private final IntegerProperty freeSquares;
     
     private final ObjectProperty<Owner> turn = new SimpleObjectProperty<>(Owner.FIRST);
     
     private final ObjectProperty<Owner> winner = new SimpleObjectProperty<>(Owner.NONE);
     
-    @SuppressWarnings("unchecked")
-    private final ObjectProperty<Owner>[][] board = new SimpleObjectProperty[BOARD_WIDTH][BOARD_HEIGHT];
+    private final BooleanProperty thinking = new SimpleBooleanProperty(false);
+    
+    private final ObjectProperty<Owner>[][] board;
+    
+    private final BooleanProperty[][] winningBoard;
+    
+    private BooleanBinding gameOver;
+    
+    private StringBinding endOfGameMessage;
+    
+    private BooleanBinding[][] legalMoves;
+    
+    private MoveJournal journal;
+    
+    private long journalSession;
+    
+    private ChangeFeed changeFeed;
     
-    private final BooleanProperty[][] winningBoard = new BooleanProperty[BOARD_WIDTH][BOARD_HEIGHT];
+    /**
+    * Vrai quand l'issue de la partie en cours a été comptée : annuler puis rejouer
+    * le dernier coup ne la compte pas une seconde fois.
+    */
+    private boolean outcomeRecorded;
     
     TicTacToeController controller;
     
     
     
     /**
-    * Constructeur privé pour initialiser le plateau de jeu et les cases gagnantes.
+    * Construit un modèle pour un plateau m,n,k et initialise le plateau de jeu
+    * et les cases gagnantes.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
     */
-    private TicTacToeModel() {
-        for (int i = 0; i < BOARD_WIDTH; i++) {
-            for (int j = 0; j < BOARD_HEIGHT; j++) {
+    @SuppressWarnings("unchecked")
+    public TicTacToeModel(int width, int height, int winningCount) {
+        engine = new TicTacToeEngine(width, height, winningCount);
+        boardWidth = width;
+        boardHeight = height;
+        freeSquares = new SimpleIntegerProperty(engine.getSize());
+        board = new SimpleObjectProperty[height][width];
+        winningBoard = new BooleanProperty[height][width];
+        for (int i = 0; i < boardHeight; i++) {
+            for (int j = 0; j < boardWidth; j++) {
                 board[i][j] = new SimpleObjectProperty<>(Owner.NONE);
                 winningBoard[i][j] = new SimpleBooleanProperty(false);
             }
@@ -56,17 +106,118 @@ public class TicTacToeModel {
     
     /**
     * Classe interne pour gérer l'instance unique du modèle.
+    * Les dimensions peuvent être choisies avec les propriétés système
+    * {@code morpion.width}, {@code morpion.height} et {@code morpion.winningCount}.
     */
     private static class TicTacToeModelHolder {
-        private static final TicTacToeModel INSTANCE = new TicTacToeModel();
+        private static final TicTacToeModel INSTANCE = new TicTacToeModel(
+        Integer.getInteger("morpion.width", TicTacToeEngine.DEFAULT_WIDTH),
+        Integer.getInteger("morpion.height", TicTacToeEngine.DEFAULT_HEIGHT),
+        Integer.getInteger("morpion.winningCount", TicTacToeEngine.DEFAULT_WINNING_COUNT));
+    }
+    
+    /**
+    * Retourne le moteur de jeu sous-jacent, sans propriétés JavaFX.
+    *
+    * @return Le moteur de jeu.
+    */
+    public TicTacToeEngine getEngine() {
+        return engine;
+    }
+    
+    /**
+    * Retourne l'index des menaces de la partie, pour l'ordre des coups de l'ordinateur
+    * ou la mise en évidence des cases qui complètent ou bloquent un alignement.
+    *
+    * @return L'index, tenu à jour à chaque coup.
+    */
+    public ThreatIndex getThreatIndex() {
+        return engine.getThreatIndex();
+    }
+    
+    /**
+    * Retourne le hash de Zobrist de la position courante, mis à jour en O(1) par
+    * {@link #play}, {@link #undo}, {@link #redo} et {@link #restart}. C'est la clé
+    * des positions dans un {@link lawson.lonchi.morpion.ai.PositionCache}.
+    *
+    * @return Le hash de la position.
+    */
+    public long getHash() {
+        return engine.getHash();
+    }
+    
+    /**
+    * Capture la position courante (plateau, trait, gagnant et scores) sans parcourir
+    * les propriétés case par case.
+    *
+    * @return Un instantané immuable de la position.
+    */
+    public BoardSnapshot snapshot() {
+        return BoardSnapshot.of(engine);
+    }
+    
+    /**
+    * @return Le nombre de colonnes du plateau.
+    */
+    public int getWidth() {
+        return boardWidth;
+    }
+    
+    /**
+    * @return Le nombre de lignes du plateau.
+    */
+    public int getHeight() {
+        return boardHeight;
+    }
+    
+    /**
+    * @return Le nombre de pions à aligner pour gagner.
+    */
+    public int getWinningCount() {
+        return engine.getWinningCount();
+    }
+    
+    /**
+    * Enregistre désormais chaque coup de ce modèle dans un journal.
+    * Le journal doit être branché sur un plateau vide.
+    *
+    * @param journal Le journal des coups, ou null pour ne plus rien enregistrer.
+    * @param session L'identifiant sous lequel les parties de ce modèle sont enregistrées.
+    */
+    public void setJournal(MoveJournal journal, long session) {
+        if (journal != null && engine.getFreeSquares() != engine.getSize()) {
+            throw new IllegalStateException("Le journal doit être branché avant le premier coup");
+        }
+        this.journal = journal;
+        this.journalSession = session;
+        if (journal != null) {
+            journal.start(session, boardWidth, boardHeight, engine.getWinningCount());
+        }
+    }
+    
+    /**
+    * Retourne le flux de changements de la partie, créé au premier appel : un événement
+    * immuable par coup, annulation ou recommencement, diffusé aux spectateurs sans
+    * écouteur sur les propriétés des cases. Les événements sont publiés depuis le
+    * thread JavaFX ; un spectateur s'abonne, puis se cale sur {@link #snapshot()}
+    * depuis ce même thread.
+    *
+    * @return Le flux de changements.
+    */
+    public ChangeFeed getChangeFeed() {
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed();
+        }
+        return changeFeed;
     }
     
     /**
     * Réinitialise le jeu en remettant à zéro le plateau, les scores et les propriétés.
     */
     public void restart() {
-        for (int i = 0; i < BOARD_WIDTH; i++) {
-            for (int j = 0; j < BOARD_HEIGHT; j++) {
+        engine.restart();
+        for (int i = 0; i < boardHeight; i++) {
+            for (int j = 0; j < boardWidth; j++) {
                 board[i][j].set(Owner.NONE);
                 winningBoard[i][j].set(false);
             }
@@ -76,7 +227,14 @@ public class TicTacToeModel {
         // System.out.println("Modèle réinitialisé.");
         xScore.set(0);
         oScore.set(0);
-        freeSquares.set(9);
+        freeSquares.set(engine.getFreeSquares());
+        outcomeRecorded = false;
+        if (journal != null) {
+            journal.start(journalSession, boardWidth, boardHeight, engine.getWinningCount());
+        }
+        if (changeFeed != null) {
+            changeFeed.start();
+        }
     }
     
     /**
@@ -90,6 +248,20 @@ public class TicTacToeModel {
         return winner;
     }
     
+    /**
+    * Vrai pendant que l'ordinateur cherche son coup en arrière-plan.
+    * La propriété n'est modifiée que depuis le thread JavaFX.
+    *
+    * @return La propriété de réflexion de l'ordinateur.
+    */
+    public BooleanProperty thinkingProperty() {
+        return thinking;
+    }
+    
+    public boolean isThinking() {
+        return thinking.get();
+    }
+    
     /**
     * Retourne la propriété d'une case spécifique du plateau.
     *
@@ -115,21 +287,21 @@ public class TicTacToeModel {
     /**
     * Retourne le message de fin de jeu sous forme de StringExpression.
     * Le message indique soit un match nul, soit le gagnant.
+    * La liaison est créée au premier appel puis partagée par tous les appelants.
     *
     * @return Le message de fin de jeu.
     */
     public StringExpression getEndOfGameMessage() {
-        return Bindings.when(winner.isEqualTo(Owner.NONE).and(getFreeSquares().greaterThan(0)))
-        .then("")
-        .otherwise(
-        Bindings.when(winner.isEqualTo(Owner.NONE))
-        .then("Game over: Match nul")
-        .otherwise(Bindings.createStringBinding(
-        () -> "Game over: Le gagnant est le " +
-        (winner.get() == Owner.FIRST ? "premier joueur (X)" : "second joueur (O)"),
-        winner
-        ))
-        );
+        if (endOfGameMessage == null) {
+            endOfGameMessage = Bindings.createStringBinding(() -> {
+                if (winner.get() == Owner.NONE) {
+                    return freeSquares.get() > 0 ? "" : "Game over: Match nul";
+                }
+                return "Game over: Le gagnant est le " +
+                (winner.get() == Owner.FIRST ? "premier joueur (X)" : "second joueur (O)");
+            }, winner, freeSquares);
+        }
+        return endOfGameMessage;
     }
     
     /**
@@ -138,6 +310,7 @@ public class TicTacToeModel {
     * @param winner Le gagnant du jeu (FIRST pour X, SECOND pour O, NONE pour match nul).
     */
     public void setWinner(Owner winner) {
+        engine.setWinner(winner);
         this.winner.set(winner);
     }
     
@@ -149,14 +322,15 @@ public class TicTacToeModel {
     * @return true si la case est valide, false sinon.
     */
     public boolean validSquare(int row, int column) {
-        return board[row][column].get() == Owner.NONE && winner.get() == Owner.NONE;
+        return engine.validSquare(row, column);
     }
     
     /**
     * Passe au joueur suivant.
     */
     public void nextPlayer() {
-        turn.set(turn.get().opposite());
+        engine.nextPlayer();
+        turn.set(engine.getTurn());
     }
     
     /**
@@ -167,33 +341,109 @@ public class TicTacToeModel {
     * @param column La colonne de la case.
     */
     public void play(int row, int column) {
-        if (validSquare(row, column)) {
-            board[row][column].set(turn.get());
-            
-            if (turn.get() == Owner.FIRST) {
-                xScore.set(xScore.get() + 1);
-            } else {
-                oScore.set(oScore.get() + 1);
+        if (!Metrics.ENABLED) {
+            if (engine.play(row, column)) {
+                moved(row, column);
             }
-            
-            freeSquares.set(freeSquares.get() - 1);
-            
-            checkForWinner(row, column);
-            
-            nextPlayer();
-            
+            return;
+        }
+        long start = System.nanoTime();
+        boolean played = engine.play(row, column);
+        long engineEnd = System.nanoTime();
+        ENGINE_TIME.record(engineEnd - start);
+        if (!played) {
+            ILLEGAL_MOVES.increment();
+            return;
+        }
+        MOVES.increment();
+        moved(row, column);
+        BINDINGS_TIME.record(System.nanoTime() - engineEnd);
+    }
+    
+    /**
+    * Annule le dernier coup. Seules la case jouée, les compteurs et, si le coup
+    * était gagnant, les cases de la ligne gagnante sont mis à jour.
+    *
+    * @return true si un coup a été annulé, false si l'historique est vide.
+    */
+    public boolean undo() {
+        int line = engine.getWinningLine();
+        if (!engine.undo()) {
+            return false;
+        }
+        int square = engine.getMove(engine.getMoveCount());
+        if (journal != null) {
+            journal.undo(journalSession, engine.getMoveCount());
+        }
+        if (changeFeed != null) {
+            changeFeed.undo(engine.getMoveCount(), square, engine.getTurn());
+        }
+        if (line != TicTacToeEngine.NO_LINE) {
+            markWinningSquares(line, false);
+        }
+        board[square / boardWidth][square % boardWidth].set(Owner.NONE);
+        Owner player = engine.getTurn();
+        getScore(player).set(engine.getScore(player));
+        freeSquares.set(engine.getFreeSquares());
+        winner.set(Owner.NONE);
+        turn.set(player);
+        return true;
+    }
+    
+    /**
+    * Rejoue le dernier coup annulé.
+    *
+    * @return true si un coup a été rejoué, false s'il n'y a rien à rejouer.
+    */
+    public boolean redo() {
+        if (!engine.redo()) {
+            return false;
+        }
+        int square = engine.getMove(engine.getMoveCount() - 1);
+        moved(square / boardWidth, square % boardWidth);
+        return true;
+    }
+    
+    /**
+    * Reporte dans les propriétés le coup que le moteur vient de jouer.
+    */
+    private void moved(int row, int column) {
+        Owner player = engine.getOwner(row, column);
+        if (journal != null) {
+            journal.move(journalSession, engine.getMoveCount() - 1, row * boardWidth + column, player);
+        }
+        board[row][column].set(player);
+        
+        getScore(player).set(engine.getScore(player));
+        
+        freeSquares.set(engine.getFreeSquares());
+        
+        checkForWinner(row, column);
+        
+        turn.set(engine.getTurn());
+        
+        if (changeFeed != null) {
+            changeFeed.move(engine.getMoveCount() - 1, row * boardWidth + column, player, engine.getWinner());
         }
     }
     
     /**
     * Retourne un BooleanBinding qui vérifie si un mouvement est légal.
+    * Chaque case a sa propre liaison, créée au premier appel puis mise en cache.
     *
     * @param row    La ligne de la case.
     * @param column La colonne de la case.
     * @return Un BooleanBinding qui vérifie si le mouvement est légal.
     */
     public BooleanBinding legalMove(int row, int column) {
-        return Bindings.createBooleanBinding(() -> validSquare(row, column), board[row][column], winner);
+        if (legalMoves == null) {
+            legalMoves = new BooleanBinding[boardHeight][boardWidth];
+        }
+        if (legalMoves[row][column] == null) {
+            legalMoves[row][column] = Bindings.createBooleanBinding(() -> validSquare(row, column),
+            board[row][column], winner);
+        }
+        return legalMoves[row][column];
     }
     
     /**
@@ -217,159 +467,86 @@ public class TicTacToeModel {
     
     /**
     * Retourne un BooleanBinding qui vérifie si le jeu est terminé.
+    * La liaison est créée au premier appel puis partagée par tous les appelants.
     *
     * @return Un BooleanBinding qui vérifie si le jeu est terminé.
     */
     public BooleanBinding gameOver() {
-        return winner.isNotEqualTo(Owner.NONE).or(getFreeSquares().isEqualTo(0));
-    }
-    
-    
-    /**
-    * Vérifie s'il y a un gagnant après un coup.
-    *
-    * @param row    La ligne de la case jouée.
-    * @param column La colonne de la case jouée.
-    */
-    private void checkForWinner(int row, int column) {
-        Owner currentPlayer = board[row][column].get();
-        List<int[]> winningSquares = getWinningSquares(currentPlayer);
-        if (winningSquares != null) {
-            markWinningSquares(winningSquares); 
-            setWinner(currentPlayer); 
-        } else if (isBoardFull()) {
-            setWinner(Owner.NONE); 
+        if (gameOver == null) {
+            gameOver = Bindings.createBooleanBinding(() -> winner.get() != Owner.NONE || freeSquares.get() == 0,
+            winner, freeSquares);
         }
+        return gameOver;
     }
     
     /**
-    * Retourne les cases gagnantes pour un joueur donné.
-    *
-    * @param player Le joueur à vérifier.
-    * @return Une liste des cases gagnantes, ou null si aucun gagnant.
+    * Libère les liaisons mises en cache, lorsque le plateau affiché est détruit.
+    * Elles cessent d'observer le modèle ; un nouvel appel en recrée de nouvelles.
     */
-    private List<int[]> getWinningSquares(Owner player) {
-        List<int[]> winningSquares = checkLineForWinner(player);
-        if (winningSquares != null) return winningSquares;
-        
-        winningSquares = checkColumnForWinner(player);
-        if (winningSquares != null) return winningSquares;
-        
-        winningSquares = checkDiagonalsForWinner(player);
-        return winningSquares;
-    }
-    
-    /**
-    * Vérifie si une ligne est gagnante et retourne les cases gagnantes.
-    *
-    * @param player Le joueur à vérifier.
-    * @return Une liste des cases gagnantes, ou null si aucune ligne gagnante.
-    */
-    private List<int[]> checkLineForWinner(Owner player) {
-        for (int row = 0; row < BOARD_HEIGHT; row++) {
-            List<int[]> squares = new ArrayList<>();
-            for (int col = 0; col < BOARD_WIDTH; col++) {
-                if (board[row][col].get() == player) {
-                    squares.add(new int[]{row, col});
-                } else {
-                    squares.clear();
-                    break;
-                }
-            }
-            if (squares.size() == WINNING_COUNT) {
-                return squares;
-            }
+    public void dispose() {
+        if (gameOver != null) {
+            gameOver.dispose();
+            gameOver = null;
         }
-        return null;
-    }
-    
-    /**
-    * Vérifie si une colonne est gagnante et retourne les cases gagnantes.
-    *
-    * @param player Le joueur à vérifier.
-    * @return Une liste des cases gagnantes, ou null si aucune colonne gagnante.
-    */
-    private List<int[]> checkColumnForWinner(Owner player) {
-        for (int col = 0; col < BOARD_WIDTH; col++) {
-            List<int[]> squares = new ArrayList<>();
-            for (int row = 0; row < BOARD_HEIGHT; row++) {
-                if (board[row][col].get() == player) {
-                    squares.add(new int[]{row, col});
-                } else {
-                    squares.clear();
-                    break;
+        if (endOfGameMessage != null) {
+            endOfGameMessage.dispose();
+            endOfGameMessage = null;
+        }
+        if (legalMoves != null) {
+            for (BooleanBinding[] row : legalMoves) {
+                for (BooleanBinding legalMove : row) {
+                    if (legalMove != null) {
+                        legalMove.dispose();
+                    }
                 }
             }
-            if (squares.size() == WINNING_COUNT) {
-                return squares;
-            }
+            legalMoves = null;
         }
-        return null;
     }
     
+    
     /**
-    * Vérifie si une diagonale est gagnante et retourne les cases gagnantes.
+    * Reporte le résultat du moteur dans les propriétés après un coup :
+    * marque les cases gagnantes et définit le gagnant le cas échéant.
     *
-    * @param player Le joueur à vérifier.
-    * @return Une liste des cases gagnantes, ou null si aucune diagonale gagnante.
-    */
-    private List<int[]> checkDiagonalsForWinner(Owner player) {
-        List<int[]> squares = new ArrayList<>();
-        for (int i = 0; i < BOARD_WIDTH; i++) {
-            if (board[i][i].get() == player) {
-                squares.add(new int[]{i, i});
-            } else {
-                squares.clear();
-                break;
-            }
-        }
-        if (squares.size() == WINNING_COUNT) {
-            return squares;
-        }
-        
-        squares.clear();
-        for (int i = 0; i < BOARD_WIDTH; i++) {
-            if (board[i][BOARD_WIDTH - 1 - i].get() == player) {
-                squares.add(new int[]{i, BOARD_WIDTH - 1 - i});
-            } else {
-                squares.clear();
-                break;
-            }
+    * @param row    La ligne de la case jouée.
+    * @param column La colonne de la case jouée.
+    */
+    private void checkForWinner(int row, int column) {
+        if (Metrics.ENABLED) {
+            WIN_CHECKS.increment();
         }
-        if (squares.size() == WINNING_COUNT) {
-            return squares;
+        Owner currentPlayer = engine.getOwner(row, column);
+        if (engine.getWinner() == currentPlayer) {
+            markWinningSquares(engine.getWinningLine());
+            winner.set(currentPlayer);
+            recordOutcome(currentPlayer);
+        } else if (engine.isBoardFull()) {
+            winner.set(Owner.NONE);
+            recordOutcome(Owner.NONE);
         }
-        
-        return null;
     }
     
-    
-    /**
-    * Vérifie si le plateau est plein (match nul).
-    *
-    * @return true si le plateau est plein, false sinon.
-    */
-    private boolean isBoardFull() {
-        for (int i = 0; i < BOARD_WIDTH; i++) {
-            for (int j = 0; j < BOARD_HEIGHT; j++) {
-                if (board[i][j].get() == Owner.NONE) {
-                    return false;
-                }
-            }
+    private void recordOutcome(Owner outcome) {
+        if (Metrics.ENABLED && !outcomeRecorded) {
+            GameOutcomes.record(outcome);
         }
-        return true;
+        outcomeRecorded = true;
     }
     
     /**
-    * Marque les cases gagnantes sur le plateau.
+    * Marque les cases d'une ligne gagnante sur le plateau.
     *
-    * @param winningSquares Les cases gagnantes à marquer.
+    * @param line L'indice de la ligne gagnante fourni par le moteur.
     */
-    public void markWinningSquares(List<int[]> winningSquares) {
-        for (int[] square : winningSquares) {
-            int row = square[0];
-            int col = square[1];
-            winningBoard[row][col].set(true);
+    public void markWinningSquares(int line) {
+        markWinningSquares(line, true);
+    }
+    
+    private void markWinningSquares(int line, boolean winning) {
+        for (int i = 0; i < engine.getWinningCount(); i++) {
+            int square = engine.getLineSquare(line, i);
+            winningBoard[square / boardWidth][square % boardWidth].set(winning);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package lawson.lonchi.morpion.model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clés de Zobrist pour un plateau : une clé aléatoire de 64 bits par case et par joueur,
+ * plus une clé pour le trait. Le hash d'une position est le XOR des clés des cases occupées,
+ * ce qui permet de le mettre à jour en O(1) à chaque coup.
+ * Les clés partagées d'un plateau m,n,k ({@link #of}) dépendent de ses dimensions, et le
+ * hash y inclut une clé de plateau : des positions de plateaux différents ne se confondent
+ * pas dans un cache commun.
+ */
+public class Zobrist {
+
+    private static final long DEFAULT_SEED = 0x6D6F7270696F6EL;
+
+    private static final Map<Long, Zobrist> SHARED = new ConcurrentHashMap<>();
+
+    private final long[] firstKeys;
+
+    private final long[] secondKeys;
+
+    private final long sideKey;
+
+    private final long boardKey;
+
+    /**
+    * Crée les clés pour un plateau de {@code size} cases avec une graine fixe,
+    * afin que les hash soient stables d'une exécution à l'autre.
+    *
+    * @param size Le nombre de cases du plateau.
+    */
+    public Zobrist(int size) {
+        this(size, DEFAULT_SEED);
+    }
+
+    /**
+    * Crée les clés pour un plateau de {@code size} cases.
+    *
+    * @param size Le nombre de cases du plateau.
+    * @param seed La graine du générateur.
+    */
+    public Zobrist(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        firstKeys = new long[size];
+        secondKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            firstKeys[i] = random.nextLong();
+            secondKeys[i] = random.nextLong();
+        }
+        sideKey = random.nextLong();
+        boardKey = random.nextLong();
+    }
+
+    /**
+    * Retourne les clés d'un plateau m,n,k, créées au premier appel puis partagées
+    * par tous les moteurs de mêmes dimensions.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @return Les clés, stables d'une exécution à l'autre.
+    */
+    public static Zobrist of(int width, int height, int winningCount) {
+        long geometry = (long) width << 42 | (long) height << 21 | winningCount;
+        return SHARED.computeIfAbsent(geometry,
+                g -> new Zobrist(width * height, DEFAULT_SEED ^ g * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+    * Retourne la clé d'une case occupée par un joueur.
+    *
+    * @param owner  Le joueur (FIRST ou SECOND).
+    * @param square L'indice de la case.
+    * @return La clé à combiner par XOR.
+    */
+    public long key(Owner owner, int square) {
+        return owner == Owner.FIRST ? firstKeys[square] : secondKeys[square];
+    }
+
+    /**
+    * @return La clé à combiner lorsque c'est au second joueur de jouer.
+    */
+    public long sideKey() {
+        return sideKey;
+    }
+
+    /**
+    * @return La clé de plateau, combinée au hash de toute position.
+    */
+    public long boardKey() {
+        return boardKey;
+    }
+
+    /**
+    * Calcule le hash complet d'une position en parcourant le plateau ; il est égal à
+    * celui que le moteur tient à jour ({@link TicTacToeEngine#getHash()}) si les clés
+    * sont celles du plateau.
+    *
+    * @param engine La position.
+    * @return Le hash de Zobrist de la position.
+    */
+    public long hash(TicTacToeEngine engine) {
+        long hash = boardKey ^ (engine.getTurn() == Owner.SECOND ? sideKey : 0L);
+        for (int square = 0; square < engine.getSize(); square++) {
+            Owner owner = engine.getOwner(square);
+            if (owner != Owner.NONE) {
+                hash ^= key(owner, square);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,488 @@
+package lawson.lonchi.morpion.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.BoardSnapshot;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Serveur de jeu en NIO non bloquant, parlant un protocole texte ligne par ligne.
+ * Un thread accepte les connexions et les répartit à tour de rôle entre plusieurs
+ * réacteurs, chacun gérant ses connexions avec son propre {@link Selector}.
+ *
+ * <pre>
+ * NEW [largeur hauteur k]   -> GAME id largeur hauteur k
+ * PLAY ligne colonne        -> OK trait gagnant | ILLEGAL
+ * STATE                     -> STATE id trait gagnant largeur hauteur cases
+ * RESIGN                    -> OVER gagnant
+ * </pre>
+ *
+ * Les joueurs sont notés {@code X} et {@code O}, l'absence de joueur {@code -},
+ * et les cases libres {@code .}. Une erreur est signalée par {@code ERR message} ; si une
+ * commande échoue côté serveur (par exemple une écriture du journal), la réponse est
+ * {@code ERR server error} et la connexion reste ouverte.
+ */
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7777;
+
+    static final int MAX_DIMENSION = 32;
+
+    private static final int INPUT_SIZE = 1024;
+
+    private static final int OUTPUT_SIZE = 4 * 1024;
+
+    /**
+    * Place réservée dans le tampon de sortie avant de traiter une nouvelle commande :
+    * la plus longue réponse est STATE sur un plateau de taille maximale.
+    */
+    private static final int MAX_RESPONSE = MAX_DIMENSION * MAX_DIMENSION + 64;
+
+    private static final byte[] NEW = ascii("NEW");
+    private static final byte[] PLAY = ascii("PLAY");
+    private static final byte[] STATE = ascii("STATE");
+    private static final byte[] RESIGN = ascii("RESIGN");
+
+    private static final byte[] GAME_REPLY = ascii("GAME ");
+    private static final byte[] OK_REPLY = ascii("OK ");
+    private static final byte[] ILLEGAL_REPLY = ascii("ILLEGAL\n");
+    private static final byte[] STATE_REPLY = ascii("STATE ");
+    private static final byte[] OVER_REPLY = ascii("OVER ");
+    private static final byte[] NO_GAME_REPLY = ascii("ERR no game\n");
+    private static final byte[] SYNTAX_REPLY = ascii("ERR syntax\n");
+    private static final byte[] UNKNOWN_REPLY = ascii("ERR unknown command\n");
+    private static final byte[] TOO_LONG_REPLY = ascii("ERR line too long\n");
+    private static final byte[] SERVER_ERROR_REPLY = ascii("ERR server error\n");
+
+    private final GameSessionManager sessions;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Reactor[] reactors;
+
+    private final Thread acceptor;
+
+    private volatile boolean running = true;
+
+    /**
+    * Ouvre le port d'écoute. Le serveur ne traite les connexions qu'après {@link #start()}.
+    *
+    * @param address  L'adresse d'écoute (port 0 pour un port libre).
+    * @param sessions Le gestionnaire des parties.
+    * @param reactors Le nombre de réacteurs NIO.
+    * @throws IOException Si le port ne peut pas être ouvert.
+    */
+    public GameServer(InetSocketAddress address, GameSessionManager sessions, int reactors) throws IOException {
+        this.sessions = sessions;
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, 4096);
+        this.reactors = new Reactor[reactors];
+        for (int i = 0; i < reactors; i++) {
+            this.reactors[i] = new Reactor();
+        }
+        this.acceptor = new Thread(this::accept, "morpion-acceptor");
+    }
+
+    /**
+    * Démarre le thread d'acceptation et les réacteurs.
+    */
+    public void start() {
+        for (int i = 0; i < reactors.length; i++) {
+            Thread thread = new Thread(reactors[i], "morpion-reactor-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+    * @return Le port d'écoute effectif.
+    * @throws IOException Si le canal est fermé.
+    */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+    * Arrête le serveur et ferme toutes les connexions.
+    */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+        }
+    }
+
+    private void accept() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                reactors[next].register(channel);
+                next = (next + 1) % reactors.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+    * Boucle d'événements d'un sous-ensemble des connexions.
+    */
+    private final class Reactor implements Runnable {
+
+        private final Selector selector;
+
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+        Reactor() throws IOException {
+            selector = Selector.open();
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        try {
+                            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                        } catch (ClosedChannelException e) {
+                            // Le client est parti avant d'être pris en charge.
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable() && connection.channel.read(connection.in) < 0) {
+                                connection.close(key);
+                                continue;
+                            }
+                            if (key.isValid()) {
+                                connection.service(key);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            // Seule cette connexion est fermée : le réacteur continue de servir les autres.
+                            connection.close(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Sélecteur inutilisable : on ferme tout ci-dessous.
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Rien à faire de plus à l'arrêt.
+                }
+            }
+        }
+    }
+
+    /**
+    * État d'une connexion : tampons d'entrée et de sortie et partie courante.
+    */
+    private final class Connection {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer in = ByteBuffer.allocate(INPUT_SIZE);
+
+        private final ByteBuffer out = ByteBuffer.allocate(OUTPUT_SIZE + MAX_RESPONSE);
+
+        private final int[] tokenStarts = new int[5];
+
+        private final int[] tokenEnds = new int[5];
+
+        private GameSession session;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+        * Traite les lignes complètes reçues tant que la sortie a de la place, puis écrit
+        * les réponses. Si le client ne lit pas assez vite, la lecture est suspendue.
+        */
+        void service(SelectionKey key) throws IOException {
+            in.flip();
+            byte[] bytes = in.array();
+            int end = in.limit();
+            int start = 0;
+            int cursor = 0;
+            boolean pending;
+            do {
+                while (cursor < end && out.position() <= OUTPUT_SIZE) {
+                    if (bytes[cursor] == '\n') {
+                        int lineEnd = cursor > start && bytes[cursor - 1] == '\r' ? cursor - 1 : cursor;
+                        try {
+                            handle(bytes, start, lineEnd);
+                        } catch (RuntimeException e) {
+                            // Journal en échec ou fermé : la commande est refusée, pas la connexion.
+                            out.put(SERVER_ERROR_REPLY);
+                        }
+                        start = cursor + 1;
+                    }
+                    cursor++;
+                }
+                out.flip();
+                channel.write(out);
+                out.compact();
+                pending = cursor < end;
+            } while (pending && out.position() == 0);
+            if (start == 0 && cursor == in.capacity()) {
+                // Tampon plein sans fin de ligne : la ligne est ignorée.
+                start = cursor;
+                out.put(TOO_LONG_REPLY);
+            }
+            in.position(start);
+            in.compact();
+
+            boolean room = out.position() <= OUTPUT_SIZE;
+            key.interestOps((room ? SelectionKey.OP_READ : 0) | (out.position() > 0 ? SelectionKey.OP_WRITE : 0));
+        }
+
+        private void handle(byte[] line, int start, int end) {
+            int tokens = 0;
+            int i = start;
+            while (i < end && tokens < tokenStarts.length) {
+                while (i < end && line[i] == ' ') {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+                tokenStarts[tokens] = i;
+                while (i < end && line[i] != ' ') {
+                    i++;
+                }
+                tokenEnds[tokens++] = i;
+            }
+            if (tokens == 0) {
+                return;
+            }
+            if (is(line, 0, PLAY)) {
+                play(line, tokens);
+            } else if (is(line, 0, NEW)) {
+                newGame(line, tokens);
+            } else if (is(line, 0, STATE)) {
+                state();
+            } else if (is(line, 0, RESIGN)) {
+                resign();
+            } else {
+                out.put(UNKNOWN_REPLY);
+            }
+        }
+
+        private void newGame(byte[] line, int tokens) {
+            int width = TicTacToeEngine.DEFAULT_WIDTH;
+            int height = TicTacToeEngine.DEFAULT_HEIGHT;
+            int winningCount = TicTacToeEngine.DEFAULT_WINNING_COUNT;
+            if (tokens == 4) {
+                width = parse(line, 1);
+                height = parse(line, 2);
+                winningCount = parse(line, 3);
+            } else if (tokens != 1) {
+                out.put(SYNTAX_REPLY);
+                return;
+            }
+            if (width < 1 || height < 1 || width > MAX_DIMENSION || height > MAX_DIMENSION
+                    || winningCount < 1 || winningCount > Math.max(width, height)) {
+                out.put(SYNTAX_REPLY);
+                return;
+            }
+            session = sessions.create(width, height, winningCount);
+            out.put(GAME_REPLY);
+            putLong(session.getId());
+            out.put((byte) ' ');
+            putLong(width);
+            out.put((byte) ' ');
+            putLong(height);
+            out.put((byte) ' ');
+            putLong(winningCount);
+            out.put((byte) '\n');
+        }
+
+        private void play(byte[] line, int tokens) {
+            if (session == null) {
+                out.put(NO_GAME_REPLY);
+                return;
+            }
+            int row = tokens == 3 ? parse(line, 1) : -1;
+            int column = tokens == 3 ? parse(line, 2) : -1;
+            if (row < 0 || column < 0) {
+                out.put(SYNTAX_REPLY);
+                return;
+            }
+            if (!session.play(row, column)) {
+                out.put(ILLEGAL_REPLY);
+                return;
+            }
+            out.put(OK_REPLY);
+            out.put(symbol(session.getTurn()));
+            out.put((byte) ' ');
+            out.put(symbol(session.getWinner()));
+            out.put((byte) '\n');
+        }
+
+        private void state() {
+            if (session == null) {
+                out.put(NO_GAME_REPLY);
+                return;
+            }
+            BoardSnapshot position = session.snapshot();
+            out.put(STATE_REPLY);
+            putLong(session.getId());
+            out.put((byte) ' ');
+            out.put(symbol(position.getTurn()));
+            out.put((byte) ' ');
+            out.put(symbol(position.getWinner()));
+            out.put((byte) ' ');
+            putLong(position.getWidth());
+            out.put((byte) ' ');
+            putLong(position.getHeight());
+            out.put((byte) ' ');
+            for (int square = 0; square < position.getSize(); square++) {
+                Owner owner = position.getOwner(square);
+                out.put(owner == Owner.NONE ? (byte) '.' : symbol(owner));
+            }
+            out.put((byte) '\n');
+        }
+
+        private void resign() {
+            if (session == null) {
+                out.put(NO_GAME_REPLY);
+                return;
+            }
+            session.resign(session.getTurn());
+            out.put(OVER_REPLY);
+            out.put(symbol(session.getWinner()));
+            out.put((byte) '\n');
+        }
+
+        /**
+        * Lit un entier positif dans un jeton, ou -1 s'il est mal formé.
+        */
+        private int parse(byte[] line, int token) {
+            int value = 0;
+            int start = tokenStarts[token];
+            int end = tokenEnds[token];
+            if (end - start > 6) {
+                return -1;
+            }
+            for (int i = start; i < end; i++) {
+                int digit = line[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private boolean is(byte[] line, int token, byte[] word) {
+            int start = tokenStarts[token];
+            if (tokenEnds[token] - start != word.length) {
+                return false;
+            }
+            for (int i = 0; i < word.length; i++) {
+                if (line[start + i] != word[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void putLong(long value) {
+            if (value >= 10) {
+                putLong(value / 10);
+            }
+            out.put((byte) ('0' + value % 10));
+        }
+
+        void close(SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // La connexion est déjà perdue.
+            }
+        }
+    }
+
+    private static byte symbol(Owner owner) {
+        return owner == Owner.FIRST ? (byte) 'X' : owner == Owner.SECOND ? (byte) 'O' : (byte) '-';
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+    * Lance un serveur : {@code GameServer [port] [réacteurs] [ttl en secondes]}.
+    * La propriété système {@code morpion.journal} donne le chemin du journal des coups ;
+    * les métriques sont réglées par les propriétés décrites dans {@link Metrics#startFromSystemProperties()}.
+    */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int reactors = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long ttl = args.length > 2 ? Long.parseLong(args[2]) : 600;
+        Metrics.startFromSystemProperties();
+        String journalPath = System.getProperty("morpion.journal");
+        MoveJournal journal = journalPath == null ? null : MoveJournal.open(Paths.get(journalPath));
+        GameSessionManager sessions = new GameSessionManager(Duration.ofSeconds(ttl), journal);
+        if (journal != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Journal incomplet : " + e.getMessage());
+                }
+            }));
+        }
+        GameServer server = new GameServer(new InetSocketAddress(port), sessions, reactors);
+        server.start();
+        System.out.println("Serveur de morpion à l'écoute sur le port " + server.getPort()
+                + " (" + reactors + " réacteurs)");
+        Thread.currentThread().join();
+    }
+}
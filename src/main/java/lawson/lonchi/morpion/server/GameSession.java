@@ -0,0 +1,200 @@
+package lawson.lonchi.morpion.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.feed.ChangeFeed;
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.BoardSnapshot;
+import lawson.lonchi.morpion.model.GameOutcomes;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Partie hébergée par le serveur, indépendante de JavaFX.
+ * Les coups d'une même partie sont sérialisés par le moniteur de la session,
+ * tandis que des parties différentes avancent en parallèle sans contention.
+ * Si un journal est fourni, chaque coup accepté y est enregistré. Les spectateurs
+ * suivent la partie par son flux de changements ({@link #getChangeFeed()}).
+ */
+public class GameSession {
+
+    private static final LongAdder MOVES = Metrics.get().counter("session.moves");
+
+    private static final LongAdder ILLEGAL_MOVES = Metrics.get().counter("session.illegalMoves");
+
+    private static final LatencyHistogram PLAY_TIME = Metrics.get().histogram("session.play");
+
+    private final long id;
+
+    private final TicTacToeEngine engine;
+
+    private final MoveJournal journal;
+
+    private ChangeFeed changeFeed;
+
+    private volatile long lastAccess;
+
+    /**
+    * Crée une session autour d'un plateau vide.
+    *
+    * @param id           L'identifiant de la session.
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param journal      Le journal des coups, ou null.
+    */
+    GameSession(long id, int width, int height, int winningCount, MoveJournal journal) {
+        this.id = id;
+        this.engine = new TicTacToeEngine(width, height, winningCount);
+        this.journal = journal;
+        if (journal != null) {
+            journal.start(id, width, height, winningCount);
+        }
+        touch();
+    }
+
+    /**
+    * @return L'identifiant de la session.
+    */
+    public long getId() {
+        return id;
+    }
+
+    /**
+    * @return L'instant du dernier accès, en nanosecondes ({@link System#nanoTime()}).
+    */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    /**
+    * Joue dans une case pour le joueur au trait.
+    *
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si le coup a été joué, false s'il était illégal.
+    */
+    public synchronized boolean play(int row, int column) {
+        touch();
+        long start = Metrics.ENABLED ? lastAccess : 0L;
+        int moveIndex = engine.getMoveCount();
+        Owner player = engine.getTurn();
+        if (!engine.play(row, column)) {
+            if (Metrics.ENABLED) {
+                ILLEGAL_MOVES.increment();
+            }
+            return false;
+        }
+        if (journal != null) {
+            journal.move(id, moveIndex, row * engine.getWidth() + column, player);
+        }
+        if (changeFeed != null) {
+            changeFeed.move(moveIndex, row * engine.getWidth() + column, player, engine.getWinner());
+        }
+        if (Metrics.ENABLED) {
+            MOVES.increment();
+            if (engine.isGameOver()) {
+                GameOutcomes.record(engine.getWinner());
+            }
+            PLAY_TIME.record(System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    /**
+    * Réinitialise la partie.
+    */
+    public synchronized void restart() {
+        touch();
+        engine.restart();
+        if (journal != null) {
+            journal.start(id, engine.getWidth(), engine.getHeight(), engine.getWinningCount());
+        }
+        if (changeFeed != null) {
+            changeFeed.start();
+        }
+    }
+
+    /**
+    * Retourne le flux de changements de la partie, créé au premier appel. Publier ne bloque jamais sur un
+    * spectateur : les coups restent sérialisés par le seul moniteur de la session.
+    * Pour suivre la partie sans trou, s'abonner puis lire {@link #snapshot()} et ignorer
+    * les événements déjà compris dans l'instantané (numéro de coup inférieur au nombre
+    * de pions de l'instantané).
+    *
+    * @return Le flux de changements.
+    */
+    public synchronized ChangeFeed getChangeFeed() {
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed();
+        }
+        return changeFeed;
+    }
+
+    /**
+    * @return Le joueur au trait.
+    */
+    public synchronized Owner getTurn() {
+        return engine.getTurn();
+    }
+
+    /**
+    * @return Le gagnant, ou NONE.
+    */
+    public synchronized Owner getWinner() {
+        return engine.getWinner();
+    }
+
+    /**
+    * @return true si la partie est terminée.
+    */
+    public synchronized boolean isGameOver() {
+        return engine.isGameOver();
+    }
+
+    /**
+    * Retourne une copie de la position, que l'appelant peut lire sans verrou.
+    *
+    * @return Une copie du moteur de la session.
+    */
+    public synchronized TicTacToeEngine copyPosition() {
+        return new TicTacToeEngine(engine);
+    }
+
+    /**
+    * Capture la position. L'instantané est immuable : il peut être lu, encodé ou
+    * partagé sans verrou pendant que la partie continue.
+    *
+    * @return L'instantané de la position.
+    */
+    public synchronized BoardSnapshot snapshot() {
+        return BoardSnapshot.of(engine);
+    }
+
+    /**
+    * Déclare la partie perdue pour un joueur.
+    *
+    * @param owner Le joueur qui abandonne.
+    */
+    public synchronized void resign(Owner owner) {
+        touch();
+        if (!engine.isGameOver()) {
+            engine.setWinner(owner.opposite());
+            if (journal != null) {
+                journal.resign(id, engine.getMoveCount(), owner);
+            }
+            if (changeFeed != null) {
+                changeFeed.resign(engine.getMoveCount(), owner);
+            }
+            if (Metrics.ENABLED) {
+                GameOutcomes.record(owner.opposite());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package lawson.lonchi.morpion.server;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lawson.lonchi.morpion.journal.MoveJournal;
+
+/**
+ * Héberge un grand nombre de parties indépendantes, indexées par identifiant de session.
+ * Les coups sont appliqués depuis n'importe quel thread : ils sont sérialisés par partie
+ * et parallèles entre parties. Les parties inactives depuis plus longtemps que le TTL
+ * sont évincées périodiquement par un thread démon.
+ */
+public class GameSessionManager implements AutoCloseable {
+
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private final long ttlNanos;
+
+    private final ScheduledExecutorService evictor;
+
+    private final MoveJournal journal;
+
+    /**
+    * Crée un gestionnaire dont les parties expirent après {@code ttl} d'inactivité.
+    *
+    * @param ttl La durée d'inactivité au-delà de laquelle une partie est évincée.
+    */
+    public GameSessionManager(Duration ttl) {
+        this(ttl, null);
+    }
+
+    /**
+    * Crée un gestionnaire qui enregistre tous les coups de ses parties dans un journal.
+    *
+    * @param ttl     La durée d'inactivité au-delà de laquelle une partie est évincée.
+    * @param journal Le journal des coups, ou null.
+    */
+    public GameSessionManager(Duration ttl, MoveJournal journal) {
+        this.ttlNanos = ttl.toNanos();
+        this.journal = journal;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "morpion-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(TimeUnit.SECONDS.toMillis(1), ttl.toMillis() / 2);
+        evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+    * Crée une nouvelle partie.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @return La session créée.
+    */
+    public GameSession create(int width, int height, int winningCount) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), width, height, winningCount, journal);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+    * Retourne une partie en cours.
+    *
+    * @param id L'identifiant de la session.
+    * @return La session, ou null si elle n'existe pas ou a expiré.
+    */
+    public GameSession get(long id) {
+        GameSession session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+    * Joue un coup dans une partie.
+    *
+    * @param id     L'identifiant de la session.
+    * @param row    La ligne de la case.
+    * @param column La colonne de la case.
+    * @return true si le coup a été joué, false s'il était illégal.
+    * @throws IllegalArgumentException Si la session n'existe pas.
+    */
+    public boolean play(long id, int row, int column) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Session inconnue : " + id);
+        }
+        return session.play(row, column);
+    }
+
+    /**
+    * Supprime une partie.
+    *
+    * @param id L'identifiant de la session.
+    * @return La session supprimée, ou null.
+    */
+    public GameSession remove(long id) {
+        return sessions.remove(id);
+    }
+
+    /**
+    * @return Le nombre de parties hébergées.
+    */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+    * Évince les parties inactives depuis plus longtemps que le TTL.
+    *
+    * @return Le nombre de parties évincées.
+    */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Iterator<GameSession> it = sessions.values().iterator(); it.hasNext();) {
+            if (now - it.next().getLastAccess() > ttlNanos) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+    * Arrête l'éviction périodique.
+    */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+    }
+}
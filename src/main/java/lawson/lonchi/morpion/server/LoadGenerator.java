@@ -0,0 +1,244 @@
+package lawson.lonchi.morpion.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+
+/**
+ * Générateur de charge local pour {@link GameServer} : ouvre un grand nombre de connexions
+ * en boucle locale, chacune enchaînant des parties 3x3 aux coups aléatoires, puis affiche
+ * le débit de coups et les percentiles de latence (p50, p99, p99.9).
+ * Chaque connexion n'a qu'une requête en vol à la fois ; la latence mesurée est donc
+ * l'aller-retour complet d'une commande.
+ */
+public class LoadGenerator {
+
+    private static final int SQUARES = 9;
+
+    private static final byte[] NEW_COMMAND = "NEW\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] PLAY_COMMAND = "PLAY ".getBytes(StandardCharsets.US_ASCII);
+
+    private final InetSocketAddress address;
+
+    private final int connections;
+
+    private final int threads;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final LongAdder moves = new LongAdder();
+
+    private final LongAdder games = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder connected = new LongAdder();
+
+    /**
+    * @param address     L'adresse du serveur.
+    * @param connections Le nombre de connexions simultanées.
+    * @param threads     Le nombre de threads clients, chacun avec son sélecteur.
+    */
+    public LoadGenerator(InetSocketAddress address, int connections, int threads) {
+        this.address = address;
+        this.connections = connections;
+        this.threads = threads;
+    }
+
+    /**
+    * Lance la charge pendant une durée donnée et retourne le rapport.
+    *
+    * @param seconds La durée de la mesure.
+    * @return Le rapport : connexions, coups par seconde et latences.
+    * @throws InterruptedException Si l'attente est interrompue.
+    */
+    public String run(long seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int share = connections / threads + (t < connections % threads ? 1 : 0);
+            long seed = 0x5EEDL + t;
+            workers[t] = new Thread(() -> drive(share, deadline, new SplittableRandom(seed)), "morpion-load-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return String.format("connexions=%d parties=%d coups=%d (%.0f coups/s) erreurs=%d%n"
+                + "latence p50=%dus p99=%dus p99.9=%dus max=%dus",
+                connected.sum(), games.sum(), moves.sum(), moves.sum() / elapsed, errors.sum(),
+                micros(latencies.getValueAtPercentile(50)), micros(latencies.getValueAtPercentile(99)),
+                micros(latencies.getValueAtPercentile(99.9)), micros(latencies.getMax()));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private void drive(int share, long deadline, SplittableRandom random) {
+        LatencyHistogram local = new LatencyHistogram();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < share; i++) {
+                try {
+                    SocketChannel channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    channel.connect(address);
+                    channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel));
+                } catch (IOException e) {
+                    errors.increment();
+                }
+            }
+            while (System.nanoTime() < deadline && !selector.keys().isEmpty()) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            client.channel.finishConnect();
+                            connected.increment();
+                            key.interestOps(SelectionKey.OP_READ);
+                            client.send(NEW_COMMAND, key);
+                        } else {
+                            if (key.isWritable()) {
+                                client.flush(key);
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                client.receive(key, random, local);
+                            }
+                        }
+                    } catch (IOException e) {
+                        errors.increment();
+                        key.cancel();
+                        client.channel.close();
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        } catch (IOException e) {
+            errors.increment();
+        }
+        latencies.merge(local);
+    }
+
+    /**
+    * Connexion cliente : elle suit localement le plateau pour ne proposer que des cases libres.
+    */
+    private final class Client {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer in = ByteBuffer.allocate(256);
+
+        private final ByteBuffer out = ByteBuffer.allocate(64);
+
+        private final boolean[] occupied = new boolean[SQUARES];
+
+        private int stones;
+
+        private long sentAt;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void send(byte[] command, SelectionKey key) throws IOException {
+            out.put(command);
+            sentAt = System.nanoTime();
+            flush(key);
+        }
+
+        void flush(SelectionKey key) throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(SelectionKey.OP_READ | (out.position() > 0 ? SelectionKey.OP_WRITE : 0));
+        }
+
+        void receive(SelectionKey key, SplittableRandom random, LatencyHistogram local) throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Connexion fermée par le serveur");
+            }
+            in.flip();
+            byte[] bytes = in.array();
+            int start = 0;
+            for (int i = 0; i < in.limit(); i++) {
+                if (bytes[i] == '\n') {
+                    local.record(System.nanoTime() - sentAt);
+                    onLine(bytes, start, key, random);
+                    start = i + 1;
+                }
+            }
+            in.position(start);
+            in.compact();
+        }
+
+        private void onLine(byte[] line, int start, SelectionKey key, SplittableRandom random) throws IOException {
+            if (line[start] == 'G') {
+                Arrays.fill(occupied, false);
+                stones = 0;
+                games.increment();
+                playRandom(key, random);
+            } else if (line[start] == 'O' && line[start + 1] == 'K') {
+                moves.increment();
+                boolean over = line[start + 5] != '-' || stones == SQUARES;
+                if (over) {
+                    send(NEW_COMMAND, key);
+                } else {
+                    playRandom(key, random);
+                }
+            } else {
+                errors.increment();
+                send(NEW_COMMAND, key);
+            }
+        }
+
+        private void playRandom(SelectionKey key, SplittableRandom random) throws IOException {
+            int choice = random.nextInt(SQUARES - stones);
+            int square = 0;
+            while (occupied[square] || choice-- > 0) {
+                square++;
+            }
+            occupied[square] = true;
+            stones++;
+            out.put(PLAY_COMMAND);
+            out.put((byte) ('0' + square / 3)).put((byte) ' ').put((byte) ('0' + square % 3)).put((byte) '\n');
+            sentAt = System.nanoTime();
+            flush(key);
+        }
+    }
+
+    /**
+    * {@code LoadGenerator [hôte] [port] [connexions] [secondes] [threads]}.
+    */
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 30;
+        int threads = args.length > 4 ? Integer.parseInt(args[4])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        LoadGenerator generator = new LoadGenerator(new InetSocketAddress(host, port), connections, threads);
+        System.out.println(generator.run(seconds));
+    }
+}
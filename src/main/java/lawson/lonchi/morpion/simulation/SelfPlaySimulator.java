@@ -0,0 +1,219 @@
+package lawson.lonchi.morpion.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.ai.GreedyStrategy;
+import lawson.lonchi.morpion.ai.MonteCarloSearch;
+import lawson.lonchi.morpion.ai.MonteCarloStrategy;
+import lawson.lonchi.morpion.ai.OpeningBook;
+import lawson.lonchi.morpion.ai.OpeningBookStrategy;
+import lawson.lonchi.morpion.ai.PositionCache;
+import lawson.lonchi.morpion.ai.RandomStrategy;
+import lawson.lonchi.morpion.ai.Solver;
+import lawson.lonchi.morpion.ai.SolverStrategy;
+import lawson.lonchi.morpion.ai.Strategy;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+
+/**
+ * Simulation massive de parties entre deux stratégies, répartie sur tous les cœurs.
+ * Le lot de parties est découpé récursivement dans un {@link ForkJoinPool} ; chaque
+ * feuille reçoit son propre {@link SplittableRandom} (obtenu par {@code split()}) et
+ * son propre moteur, joue ses parties sans aucun état partagé, puis verse ses comptes
+ * dans des compteurs {@link LongAdder} en une seule fois.
+ */
+public class SelfPlaySimulator {
+
+    private static final long GAMES_PER_TASK = 4096;
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final ForkJoinPool pool;
+
+    /**
+    * Crée un simulateur utilisant le pool commun.
+    *
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    */
+    public SelfPlaySimulator(int width, int height, int winningCount) {
+        this(width, height, winningCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param pool         Le pool d'exécution.
+    */
+    public SelfPlaySimulator(int width, int height, int winningCount, ForkJoinPool pool) {
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.pool = pool;
+    }
+
+    /**
+    * Joue un lot de parties, X étant toujours joué par {@code first}.
+    *
+    * @param first  La stratégie du premier joueur.
+    * @param second La stratégie du second joueur.
+    * @param games  Le nombre de parties.
+    * @param seed   La graine, pour des simulations reproductibles.
+    * @return Le résultat agrégé.
+    */
+    public SimulationResult run(Strategy first, Strategy second, long games, long seed) {
+        Totals totals = new Totals(width * height);
+        long start = System.nanoTime();
+        pool.invoke(new Batch(first, second, games, new SplittableRandom(seed), totals));
+        long elapsed = System.nanoTime() - start;
+        long[] histogram = new long[totals.lengths.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = totals.lengths[i].sum();
+        }
+        return new SimulationResult(totals.firstWins.sum(), totals.secondWins.sum(), totals.draws.sum(),
+                histogram, elapsed);
+    }
+
+    /**
+    * Compteurs agrégés, à faible contention.
+    */
+    private static final class Totals {
+
+        private final LongAdder firstWins = new LongAdder();
+
+        private final LongAdder secondWins = new LongAdder();
+
+        private final LongAdder draws = new LongAdder();
+
+        private final LongAdder[] lengths;
+
+        Totals(int size) {
+            lengths = new LongAdder[size + 1];
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] = new LongAdder();
+            }
+        }
+    }
+
+    private final class Batch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Strategy first;
+
+        private final Strategy second;
+
+        private final long games;
+
+        private final SplittableRandom random;
+
+        private final Totals totals;
+
+        Batch(Strategy first, Strategy second, long games, SplittableRandom random, Totals totals) {
+            this.first = first;
+            this.second = second;
+            this.games = games;
+            this.random = random;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (games > GAMES_PER_TASK) {
+                long half = games / 2;
+                invokeAll(new Batch(first, second, half, random.split(), totals),
+                        new Batch(first, second, games - half, random.split(), totals));
+                return;
+            }
+            TicTacToeEngine engine = new TicTacToeEngine(width, height, winningCount);
+            long firstWins = 0;
+            long secondWins = 0;
+            long[] lengths = new long[width * height + 1];
+            for (long game = 0; game < games; game++) {
+                engine.restart();
+                int moves = 0;
+                while (!engine.isGameOver()) {
+                    Owner turn = engine.getTurn();
+                    Strategy strategy = turn == Owner.FIRST ? first : second;
+                    int square = strategy.chooseMove(engine, random);
+                    if (square < 0 || !engine.play(square / width, square % width)) {
+                        // Un coup illégal perd la partie, comme en tournoi.
+                        engine.setWinner(turn.opposite());
+                    } else {
+                        moves++;
+                    }
+                }
+                if (engine.getWinner() == Owner.FIRST) {
+                    firstWins++;
+                } else if (engine.getWinner() == Owner.SECOND) {
+                    secondWins++;
+                }
+                lengths[moves]++;
+            }
+            totals.firstWins.add(firstWins);
+            totals.secondWins.add(secondWins);
+            totals.draws.add(games - firstWins - secondWins);
+            for (int i = 0; i < lengths.length; i++) {
+                if (lengths[i] != 0) {
+                    totals.lengths[i].add(lengths[i]);
+                }
+            }
+        }
+    }
+
+    /**
+    * Retourne une stratégie par son nom : {@code random}, {@code greedy}, {@code solver}
+    * (la {@link OpeningBook#shared() table d'ouvertures} joue le morpion 3x3, les positions
+    * résolues des autres petits plateaux vont dans le {@link PositionCache#shared()
+    * cache commun}) ou {@code mcts} (2000 itérations par coup, dans le thread de la partie).
+    *
+    * @param name         Le nom de la stratégie.
+    * @param width        Le nombre de colonnes (pour le solveur).
+    * @param height       Le nombre de lignes (pour le solveur).
+    * @param winningCount Le nombre de pions à aligner (pour le solveur).
+    * @return La stratégie.
+    */
+    public static Strategy strategy(String name, int width, int height, int winningCount) {
+        switch (name) {
+            case "random":
+                return new RandomStrategy();
+            case "greedy":
+                return new GreedyStrategy();
+            case "solver":
+                Strategy solver = width * height <= 16
+                        ? new SolverStrategy(new Solver(width, height, winningCount), 0, PositionCache.shared())
+                        : new SolverStrategy(new Solver(width, height, winningCount), 10);
+                OpeningBook book = OpeningBook.shared();
+                return book == null ? solver : new OpeningBookStrategy(book, solver);
+            case "mcts":
+                return new MonteCarloStrategy(new MonteCarloSearch(), 0, 2000);
+            default:
+                throw new IllegalArgumentException("Stratégie inconnue : " + name);
+        }
+    }
+
+    /**
+    * {@code SelfPlaySimulator [parties] [stratégie X] [stratégie O] [largeur hauteur k]}.
+    */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int width = args.length > 5 ? Integer.parseInt(args[3]) : TicTacToeEngine.DEFAULT_WIDTH;
+        int height = args.length > 5 ? Integer.parseInt(args[4]) : TicTacToeEngine.DEFAULT_HEIGHT;
+        int winningCount = args.length > 5 ? Integer.parseInt(args[5]) : TicTacToeEngine.DEFAULT_WINNING_COUNT;
+        Strategy first = strategy(args.length > 1 ? args[1] : "random", width, height, winningCount);
+        Strategy second = strategy(args.length > 2 ? args[2] : "random", width, height, winningCount);
+        SelfPlaySimulator simulator = new SelfPlaySimulator(width, height, winningCount);
+        System.out.println(first.getName() + " contre " + second.getName() + " sur "
+                + width + "x" + height + " (k=" + winningCount + ")");
+        System.out.println(simulator.run(first, second, games, System.nanoTime()));
+    }
+}
@@ -0,0 +1,81 @@
+package lawson.lonchi.morpion.simulation;
+
+/**
+ * Résultat agrégé d'une simulation : victoires de chaque joueur, matchs nuls
+ * et histogramme des longueurs de partie.
+ */
+public final class SimulationResult {
+
+    private final long firstWins;
+
+    private final long secondWins;
+
+    private final long draws;
+
+    private final long[] lengthHistogram;
+
+    private final long elapsedNanos;
+
+    SimulationResult(long firstWins, long secondWins, long draws, long[] lengthHistogram, long elapsedNanos) {
+        this.firstWins = firstWins;
+        this.secondWins = secondWins;
+        this.draws = draws;
+        this.lengthHistogram = lengthHistogram;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getFirstWins() {
+        return firstWins;
+    }
+
+    public long getSecondWins() {
+        return secondWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getGames() {
+        return firstWins + secondWins + draws;
+    }
+
+    /**
+    * @param length Un nombre de coups.
+    * @return Le nombre de parties terminées en exactement {@code length} coups.
+    */
+    public long getGamesOfLength(int length) {
+        return length < lengthHistogram.length ? lengthHistogram[length] : 0L;
+    }
+
+    /**
+    * @return La longueur moyenne d'une partie, en coups.
+    */
+    public double getAverageLength() {
+        long moves = 0;
+        for (int length = 0; length < lengthHistogram.length; length++) {
+            moves += length * lengthHistogram[length];
+        }
+        return getGames() == 0 ? 0.0 : (double) moves / getGames();
+    }
+
+    /**
+    * @return Le débit de la simulation, en parties par seconde.
+    */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : getGames() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("parties=%d X=%d O=%d nuls=%d longueur moyenne=%.2f (%.0f parties/s)",
+                getGames(), firstWins, secondWins, draws, getAverageLength(), getGamesPerSecond()));
+        for (int length = 0; length < lengthHistogram.length; length++) {
+            if (lengthHistogram[length] != 0) {
+                builder.append(String.format("%n  %3d coups : %d", length, lengthHistogram[length]));
+            }
+        }
+        return builder.toString();
+    }
+}
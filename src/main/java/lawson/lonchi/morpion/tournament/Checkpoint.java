@@ -0,0 +1,59 @@
+package lawson.lonchi.morpion.tournament;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Properties;
+import java.util.StringJoiner;
+
+/**
+ * Lecture et écriture des points de reprise d'un tournoi, au format {@link Properties}.
+ * Le fichier est remplacé atomiquement : une interruption pendant l'écriture laisse
+ * le point de reprise précédent intact.
+ */
+final class Checkpoint {
+
+    private Checkpoint() {
+    }
+
+    static void write(Path path, Properties properties) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Point de reprise du tournoi");
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Properties read(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    static String toHex(BitSet bits) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (long word : bits.toLongArray()) {
+            joiner.add(Long.toHexString(word));
+        }
+        return joiner.toString();
+    }
+
+    static BitSet fromHex(String text) {
+        if (text == null || text.isEmpty()) {
+            return new BitSet();
+        }
+        String[] parts = text.split(",");
+        long[] words = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            words[i] = Long.parseUnsignedLong(parts[i], 16);
+        }
+        return BitSet.valueOf(words);
+    }
+}
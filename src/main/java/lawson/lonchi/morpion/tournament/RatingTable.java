@@ -0,0 +1,201 @@
+package lawson.lonchi.morpion.tournament;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import lawson.lonchi.morpion.model.Owner;
+
+/**
+ * Classement d'un tournoi : cote Elo, points (1 par victoire, 1/2 par nul) et bilan de
+ * chaque joueur, ainsi que les adversaires déjà rencontrés et les joueurs déjà exemptés
+ * (pour les appariements suisses).
+ * Les résultats sont intégrés un par un, dans l'ordre où les parties se terminent.
+ * La table n'est pas synchronisée : elle n'est modifiée que par le thread qui ordonnance le tournoi.
+ */
+public final class RatingTable {
+
+    public static final double INITIAL_RATING = 1500.0;
+
+    /**
+    * Coefficient K de la mise à jour Elo.
+    */
+    public static final double K_FACTOR = 16.0;
+
+    private final String[] names;
+
+    private final double[] ratings;
+
+    /**
+    * Points en demi-points, pour rester exacts.
+    */
+    private final int[] halfPoints;
+
+    private final int[] wins;
+
+    private final int[] draws;
+
+    private final int[] losses;
+
+    private final BitSet[] opponents;
+
+    private BitSet byes = new BitSet();
+
+    RatingTable(String[] names) {
+        this.names = names.clone();
+        int count = names.length;
+        ratings = new double[count];
+        halfPoints = new int[count];
+        wins = new int[count];
+        draws = new int[count];
+        losses = new int[count];
+        opponents = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            ratings[i] = INITIAL_RATING;
+            opponents[i] = new BitSet(count);
+        }
+    }
+
+    /**
+    * Intègre le résultat d'une partie.
+    *
+    * @param first  Le joueur qui avait X.
+    * @param second Le joueur qui avait O.
+    * @param winner Le gagnant, ou NONE pour un nul.
+    */
+    void record(int first, int second, Owner winner) {
+        double expected = 1.0 / (1.0 + Math.pow(10.0, (ratings[second] - ratings[first]) / 400.0));
+        double score = winner == Owner.FIRST ? 1.0 : winner == Owner.SECOND ? 0.0 : 0.5;
+        double delta = K_FACTOR * (score - expected);
+        ratings[first] += delta;
+        ratings[second] -= delta;
+        if (winner == Owner.FIRST) {
+            wins[first]++;
+            losses[second]++;
+            halfPoints[first] += 2;
+        } else if (winner == Owner.SECOND) {
+            wins[second]++;
+            losses[first]++;
+            halfPoints[second] += 2;
+        } else {
+            draws[first]++;
+            draws[second]++;
+            halfPoints[first]++;
+            halfPoints[second]++;
+        }
+        opponents[first].set(second);
+        opponents[second].set(first);
+    }
+
+    /**
+    * Accorde un point à un joueur exempt lors d'une ronde suisse.
+    */
+    void bye(int player) {
+        halfPoints[player] += 2;
+        byes.set(player);
+    }
+
+    /**
+    * @return true si le joueur a déjà été exempt lors d'une ronde suisse.
+    */
+    public boolean hasHadBye(int player) {
+        return byes.get(player);
+    }
+
+    boolean haveMet(int player, int other) {
+        return opponents[player].get(other);
+    }
+
+    public int getPlayerCount() {
+        return names.length;
+    }
+
+    public String getName(int player) {
+        return names[player];
+    }
+
+    public double getRating(int player) {
+        return ratings[player];
+    }
+
+    public double getPoints(int player) {
+        return halfPoints[player] / 2.0;
+    }
+
+    public int getWins(int player) {
+        return wins[player];
+    }
+
+    public int getDraws(int player) {
+        return draws[player];
+    }
+
+    public int getLosses(int player) {
+        return losses[player];
+    }
+
+    /**
+    * @return Le nombre d'adversaires différents déjà rencontrés.
+    */
+    public int getOpponentCount(int player) {
+        return opponents[player].cardinality();
+    }
+
+    /**
+    * @return Les joueurs classés par points, puis par cote.
+    */
+    public List<Integer> getRanking() {
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            ranking.add(i);
+        }
+        ranking.sort(Comparator.comparingInt((Integer i) -> -halfPoints[i])
+                .thenComparingDouble(i -> -ratings[i]).thenComparingInt(i -> i));
+        return ranking;
+    }
+
+    /**
+    * Écrit la table dans un point de reprise.
+    */
+    void save(Properties properties) {
+        for (int i = 0; i < names.length; i++) {
+            String prefix = "player." + i + ".";
+            properties.setProperty(prefix + "rating", Double.toString(ratings[i]));
+            properties.setProperty(prefix + "halfPoints", Integer.toString(halfPoints[i]));
+            properties.setProperty(prefix + "record", wins[i] + "," + draws[i] + "," + losses[i]);
+            properties.setProperty(prefix + "opponents", Checkpoint.toHex(opponents[i]));
+        }
+        properties.setProperty("byes", Checkpoint.toHex(byes));
+    }
+
+    /**
+    * Relit la table d'un point de reprise.
+    */
+    void load(Properties properties) {
+        for (int i = 0; i < names.length; i++) {
+            String prefix = "player." + i + ".";
+            ratings[i] = Double.parseDouble(properties.getProperty(prefix + "rating"));
+            halfPoints[i] = Integer.parseInt(properties.getProperty(prefix + "halfPoints"));
+            String[] record = properties.getProperty(prefix + "record").split(",");
+            wins[i] = Integer.parseInt(record[0]);
+            draws[i] = Integer.parseInt(record[1]);
+            losses[i] = Integer.parseInt(record[2]);
+            opponents[i] = Checkpoint.fromHex(properties.getProperty(prefix + "opponents"));
+        }
+        byes = Checkpoint.fromHex(properties.getProperty("byes"));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%-4s %-16s %7s %6s %15s",
+                "rang", "joueur", "elo", "points", "V/N/D"));
+        int rank = 1;
+        for (int i : getRanking()) {
+            builder.append(String.format("%n%-4d %-16s %7.1f %6.1f %15s", rank++, names[i], ratings[i],
+                    getPoints(i), wins[i] + "/" + draws[i] + "/" + losses[i]));
+        }
+        return builder.toString();
+    }
+}
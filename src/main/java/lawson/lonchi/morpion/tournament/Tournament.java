@@ -0,0 +1,400 @@
+package lawson.lonchi.morpion.tournament;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import lawson.lonchi.morpion.ai.Strategy;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.simulation.SelfPlaySimulator;
+
+/**
+ * Tournoi sans interface entre stratégies, en toutes rondes ou en système suisse.
+ * Chaque appariement se joue en deux parties, chaque joueur ayant X une fois.
+ * Les parties sont exécutées par un pool de taille fixe ; le thread qui ordonnance n'en
+ * soumet qu'un nombre borné d'avance et attend qu'une partie se termine avant d'en
+ * soumettre une autre, si bien que la file ne grossit pas avec la taille du tournoi.
+ * Chaque résultat est intégré au classement dès qu'il arrive, et un point de reprise est
+ * écrit périodiquement et à la fin de chaque ronde : un tournoi interrompu reprend là où
+ * il s'était arrêté, chaque partie ayant sa propre graine.
+ */
+public class Tournament implements AutoCloseable {
+
+    /**
+    * Format du tournoi.
+    */
+    public enum Format {
+        /**
+        * Chaque joueur rencontre tous les autres, à chaque ronde.
+        */
+        ROUND_ROBIN,
+        /**
+        * Chaque ronde apparie des joueurs de points voisins qui ne se sont pas encore rencontrés.
+        */
+        SWISS
+    }
+
+    private static final LongAdder GAMES = Metrics.get().counter("tournament.games");
+
+    private final int width;
+
+    private final int height;
+
+    private final int winningCount;
+
+    private final Strategy[] players;
+
+    private final String[] names;
+
+    private final int workers;
+
+    private final ExecutorService pool;
+
+    private Path checkpoint;
+
+    private long checkpointNanos = Duration.ofSeconds(30).toNanos();
+
+    /**
+    * @param width        Le nombre de colonnes.
+    * @param height       Le nombre de lignes.
+    * @param winningCount Le nombre de pions à aligner pour gagner.
+    * @param players      Les stratégies inscrites, appelées depuis plusieurs threads.
+    * @param workers      Le nombre de parties jouées simultanément.
+    */
+    public Tournament(int width, int height, int winningCount, List<Strategy> players, int workers) {
+        if (players.size() < 2 || workers < 1) {
+            throw new IllegalArgumentException("Il faut au moins deux joueurs et un thread");
+        }
+        this.width = width;
+        this.height = height;
+        this.winningCount = winningCount;
+        this.players = players.toArray(new Strategy[0]);
+        this.names = new String[this.players.length];
+        for (int i = 0; i < names.length; i++) {
+            String name = this.players[i].getName();
+            int homonyms = 0;
+            for (int j = 0; j < i; j++) {
+                if (this.players[j].getName().equals(name)) {
+                    homonyms++;
+                }
+            }
+            names[i] = homonyms == 0 ? name : name + "#" + (homonyms + 1);
+        }
+        this.workers = workers;
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "morpion-tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+    * Active les points de reprise. Si le fichier existe, le tournoi reprend à partir de son contenu.
+    *
+    * @param path   Le fichier du point de reprise.
+    * @param period L'intervalle minimal entre deux écritures en cours de ronde.
+    */
+    public void setCheckpoint(Path path, Duration period) {
+        this.checkpoint = path;
+        this.checkpointNanos = period.toNanos();
+    }
+
+    /**
+    * Joue le tournoi, ou sa fin s'il reprend d'un point de reprise.
+    *
+    * @param format Le format.
+    * @param rounds Le nombre de rondes.
+    * @param seed   La graine, dont dérive celle de chaque partie.
+    * @return Le classement et le débit.
+    * @throws IOException Si le point de reprise est illisible, incompatible ou ne peut être écrit.
+    */
+    public TournamentResult run(Format format, int rounds, long seed) throws IOException {
+        RatingTable table = new RatingTable(names);
+        Properties header = new Properties();
+        header.setProperty("format", format.name());
+        header.setProperty("rounds", Integer.toString(rounds));
+        header.setProperty("seed", Long.toString(seed));
+        header.setProperty("board", width + "x" + height + "k" + winningCount);
+        header.setProperty("players", String.join(",", names));
+        Run run = new Run(table, header);
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            run.resume(Checkpoint.read(checkpoint));
+        }
+        for (; run.stage < rounds; run.stage++) {
+            if (run.pairs == null) {
+                run.pairs = format == Format.ROUND_ROBIN ? roundRobin() : swissRound(table);
+                run.done = new BitSet();
+            }
+            run.play(seed);
+            run.pairs = null;
+            run.save(true);
+        }
+        return new TournamentResult(table, run.played, System.nanoTime() - run.start, run.cpuNanos.sum(), workers);
+    }
+
+    /**
+    * @return Les parties d'une ronde en toutes rondes, par couples (X, O).
+    */
+    private int[] roundRobin() {
+        int count = players.length;
+        int[] pairs = new int[count * (count - 1) * 2];
+        int g = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                pairs[g++] = i;
+                pairs[g++] = j;
+                pairs[g++] = j;
+                pairs[g++] = i;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+    * Apparie une ronde suisse : du premier au dernier du classement, chacun affronte le mieux
+    * classé de ceux qu'il n'a pas encore rencontrés. Avec un nombre impair de joueurs,
+    * le moins bien classé de ceux qui n'ont pas encore été exemptés est exempt et marque
+    * un point ; chaque joueur n'est exempt qu'une fois, tant qu'il reste des rondes.
+    *
+    * @return Les parties de la ronde, par couples (X, O).
+    */
+    private int[] swissRound(RatingTable table) {
+        List<Integer> unpaired = new ArrayList<>(table.getRanking());
+        if (unpaired.size() % 2 != 0) {
+            int bye = unpaired.size() - 1;
+            while (bye > 0 && table.hasHadBye(unpaired.get(bye))) {
+                bye--;
+            }
+            if (table.hasHadBye(unpaired.get(bye))) {
+                // Tous ont déjà été exemptés : le dernier l'est de nouveau.
+                bye = unpaired.size() - 1;
+            }
+            table.bye(unpaired.remove(bye));
+        }
+        int[] pairs = new int[unpaired.size() * 2];
+        int g = 0;
+        while (!unpaired.isEmpty()) {
+            int player = unpaired.remove(0);
+            int choice = 0;
+            while (choice < unpaired.size() && table.haveMet(player, unpaired.get(choice))) {
+                choice++;
+            }
+            int opponent = unpaired.remove(choice < unpaired.size() ? choice : 0);
+            pairs[g++] = player;
+            pairs[g++] = opponent;
+            pairs[g++] = opponent;
+            pairs[g++] = player;
+        }
+        return pairs;
+    }
+
+    /**
+    * Arrête les threads du tournoi.
+    */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+    * État d'un tournoi en cours : ronde, parties de la ronde et parties déjà jouées.
+    */
+    private final class Run {
+
+        private final RatingTable table;
+
+        private final Properties header;
+
+        private final long start = System.nanoTime();
+
+        private final LongAdder cpuNanos = new LongAdder();
+
+        private int stage;
+
+        private int[] pairs;
+
+        private BitSet done;
+
+        private long played;
+
+        private long lastSave = start;
+
+        Run(RatingTable table, Properties header) {
+            this.table = table;
+            this.header = header;
+        }
+
+        void resume(Properties saved) throws IOException {
+            for (String key : header.stringPropertyNames()) {
+                if (!header.getProperty(key).equals(saved.getProperty(key))) {
+                    throw new IOException("Le point de reprise " + checkpoint + " est celui d'un autre tournoi ("
+                            + key + "=" + saved.getProperty(key) + ")");
+                }
+            }
+            table.load(saved);
+            stage = Integer.parseInt(saved.getProperty("stage"));
+            String games = saved.getProperty("pairs", "");
+            pairs = games.isEmpty() ? null : Arrays.stream(games.split(",")).mapToInt(Integer::parseInt).toArray();
+            done = Checkpoint.fromHex(saved.getProperty("done"));
+        }
+
+        void save(boolean force) throws IOException {
+            long now = System.nanoTime();
+            if (checkpoint == null || (!force && now - lastSave < checkpointNanos)) {
+                return;
+            }
+            lastSave = now;
+            Properties properties = new Properties();
+            properties.putAll(header);
+            properties.setProperty("stage", Integer.toString(pairs == null ? stage + 1 : stage));
+            StringJoiner games = new StringJoiner(",");
+            if (pairs != null) {
+                for (int player : pairs) {
+                    games.add(Integer.toString(player));
+                }
+            }
+            properties.setProperty("pairs", games.toString());
+            properties.setProperty("done", pairs == null ? "" : Checkpoint.toHex(done));
+            table.save(properties);
+            Checkpoint.write(checkpoint, properties);
+        }
+
+        /**
+        * Joue les parties restantes de la ronde en gardant au plus {@code 2 * workers} parties en vol.
+        */
+        void play(long seed) throws IOException {
+            CompletionService<Game> completion = new ExecutorCompletionService<>(pool);
+            int inFlight = 0;
+            for (int g = 0; g < pairs.length / 2; g++) {
+                if (done.get(g)) {
+                    continue;
+                }
+                if (inFlight == 2 * workers) {
+                    record(completion);
+                    inFlight--;
+                }
+                long gameSeed = seed ^ ((long) stage << 32 | g) * 0x9E3779B97F4A7C15L;
+                completion.submit(new Game(g, pairs[2 * g], pairs[2 * g + 1], gameSeed));
+                inFlight++;
+            }
+            for (; inFlight > 0; inFlight--) {
+                record(completion);
+            }
+        }
+
+        private void record(CompletionService<Game> completion) throws IOException {
+            Game game;
+            try {
+                Future<Game> future = completion.take();
+                game = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Tournoi interrompu", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec d'une partie", e.getCause());
+            }
+            table.record(game.first, game.second, game.winner);
+            done.set(game.index);
+            played++;
+            cpuNanos.add(game.cpuNanos);
+            save(false);
+        }
+    }
+
+    /**
+    * Une partie, jouée par un thread du pool sur son propre moteur.
+    */
+    private final class Game implements Callable<Game> {
+
+        private final int index;
+
+        private final int first;
+
+        private final int second;
+
+        private final long seed;
+
+        private Owner winner;
+
+        private long cpuNanos;
+
+        Game(int index, int first, int second, long seed) {
+            this.index = index;
+            this.first = first;
+            this.second = second;
+            this.seed = seed;
+        }
+
+        @Override
+        public Game call() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            SplittableRandom random = new SplittableRandom(seed);
+            TicTacToeEngine engine = new TicTacToeEngine(width, height, winningCount);
+            while (!engine.isGameOver()) {
+                Owner turn = engine.getTurn();
+                int square = players[turn == Owner.FIRST ? first : second].chooseMove(engine, random);
+                if (square < 0 || square >= engine.getSize() || !engine.play(square / width, square % width)) {
+                    // Un coup illégal perd la partie.
+                    engine.setWinner(turn.opposite());
+                }
+            }
+            winner = engine.getWinner();
+            GAMES.increment();
+            cpuNanos = cpuStart < 0 ? 0L : threads.getCurrentThreadCpuTime() - cpuStart;
+            return this;
+        }
+    }
+
+    /**
+    * {@code Tournament <roundrobin|swiss> <rondes> <largeur> <hauteur> <k> <stratégie>...}.
+    * Le point de reprise est activé avec {@code -Dmorpion.tournament.checkpoint=fichier}, le
+    * nombre de threads choisi avec {@code -Dmorpion.tournament.workers}.
+    */
+    public static void main(String[] args) throws IOException {
+        Format format = args.length < 7 ? null
+                : "roundrobin".equals(args[0]) ? Format.ROUND_ROBIN
+                : "swiss".equals(args[0]) ? Format.SWISS : null;
+        if (format == null) {
+            System.err.println("Usage : Tournament <roundrobin|swiss> <rondes> <largeur> <hauteur> <k> <stratégie>...");
+            System.exit(2);
+        }
+        int rounds = Integer.parseInt(args[1]);
+        int width = Integer.parseInt(args[2]);
+        int height = Integer.parseInt(args[3]);
+        int winningCount = Integer.parseInt(args[4]);
+        List<Strategy> strategies = new ArrayList<>();
+        for (int i = 5; i < args.length; i++) {
+            strategies.add(SelfPlaySimulator.strategy(args[i], width, height, winningCount));
+        }
+        int workers = Integer.getInteger("morpion.tournament.workers", Runtime.getRuntime().availableProcessors());
+        try (Tournament tournament = new Tournament(width, height, winningCount, strategies, workers)) {
+            String file = System.getProperty("morpion.tournament.checkpoint");
+            if (file != null) {
+                tournament.setCheckpoint(Paths.get(file), Duration.ofSeconds(30));
+            }
+            System.out.println(tournament.run(format, rounds, 1L));
+        }
+    }
+}
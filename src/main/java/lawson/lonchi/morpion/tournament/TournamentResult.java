@@ -0,0 +1,65 @@
+package lawson.lonchi.morpion.tournament;
+
+/**
+ * Résultat d'un tournoi : le classement et le débit de l'exécution.
+ * Le débit ne porte que sur les parties jouées par cette exécution, pas sur celles
+ * reprises d'un point de reprise.
+ */
+public final class TournamentResult {
+
+    private final RatingTable table;
+
+    private final long games;
+
+    private final long elapsedNanos;
+
+    private final long cpuNanos;
+
+    private final int workers;
+
+    TournamentResult(RatingTable table, long games, long elapsedNanos, long cpuNanos, int workers) {
+        this.table = table;
+        this.games = games;
+        this.elapsedNanos = elapsedNanos;
+        this.cpuNanos = cpuNanos;
+        this.workers = workers;
+    }
+
+    public RatingTable getTable() {
+        return table;
+    }
+
+    /**
+    * @return Le nombre de parties jouées par cette exécution.
+    */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+    * @return Le débit, en parties par seconde.
+    */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games * 1e9 / elapsedNanos;
+    }
+
+    /**
+    * @return Le nombre moyen de cœurs occupés par les parties (temps CPU des threads / durée).
+    */
+    public double getCpuCores() {
+        return elapsedNanos == 0 ? 0.0 : (double) cpuNanos / elapsedNanos;
+    }
+
+    /**
+    * @return La part du temps où les threads du tournoi ont calculé, entre 0 et 1.
+    */
+    public double getUtilisation() {
+        return getCpuCores() / workers;
+    }
+
+    @Override
+    public String toString() {
+        return table + String.format("%n%d parties en %.2f s (%.0f parties/s), CPU %.2f cœurs (%.0f %% de %d threads)",
+                games, elapsedNanos / 1e9, getGamesPerSecond(), getCpuCores(), 100 * getUtilisation(), workers);
+    }
+}
@@ -0,0 +1,384 @@
+package lawson.lonchi.morpion.view;
+
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.input.ZoomEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import lawson.lonchi.morpion.controller.TicTacToeController;
+import lawson.lonchi.morpion.metrics.LatencyHistogram;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+
+/**
+ * Plateau dessiné sur un seul {@link Canvas}, pour les grands plateaux (50x50, 100x100...)
+ * où une case {@link TicTacToeSquare} par cellule coûterait des milliers de contrôles.
+ * Seules les cases visibles sont dessinées : le coût d'affichage dépend de la fenêtre,
+ * pas du plateau. Après un coup, l'état affiché de chaque case visible est comparé à celui
+ * du moteur et seules les cases qui ont changé sont redessinées. Les clics sont convertis
+ * en case par calcul, sans nœud par case.
+ * La molette fait défiler le plateau, Ctrl + molette ou le pincement zooment autour du
+ * pointeur, et le glisser avec le bouton droit ou du milieu déplace la vue.
+ * Les couleurs reprennent celles de la feuille de style des cases.
+ */
+public class CanvasBoardView extends Region {
+
+    private static final double MIN_CELL_SIZE = 4;
+
+    private static final double MAX_CELL_SIZE = 200;
+
+    /**
+    * En dessous de cette taille de case, les pions sont dessinés sans lettre.
+    */
+    private static final double MIN_TEXT_CELL_SIZE = 12;
+
+    private static final Color EMPTY = Color.WHITE;
+
+    private static final Color HOVER = Color.GREEN;
+
+    private static final Color OCCUPIED = Color.RED;
+
+    private static final Color WINNING = Color.BROWN;
+
+    private static final Color OUTSIDE = Color.gray(0.85);
+
+    private static final Owner[] OWNERS = Owner.values();
+
+    private static final LatencyHistogram DRAW_TIME = Metrics.get().histogram("ui.canvas");
+
+    private final TicTacToeModel model;
+
+    private final TicTacToeEngine engine;
+
+    private final TicTacToeController controller;
+
+    private final Canvas canvas = new Canvas();
+
+    /**
+    * État dessiné de chaque case : propriétaire, plus 4 si la case est gagnante, plus 8 si survolée.
+    */
+    private final byte[] drawn;
+
+    /**
+    * Un écouteur de changement lit la nouvelle valeur et revalide ainsi la propriété :
+    * il est prévenu de chaque changement, même sans autre liaison sur la propriété.
+    */
+    private final ChangeListener<Object> changeListener = (observable, oldValue, newValue) -> refresh();
+
+    private boolean gameOver;
+
+    private double cellSize;
+
+    private double offsetX;
+
+    private double offsetY;
+
+    private int hovered = -1;
+
+    private Font font;
+
+    private Font winningFont;
+
+    private double dragX;
+
+    private double dragY;
+
+    /**
+    * @param model      Le modèle de la partie affichée.
+    * @param controller Le contrôleur qui reçoit les clics.
+    */
+    public CanvasBoardView(TicTacToeModel model, TicTacToeController controller) {
+        this.model = model;
+        this.engine = model.getEngine();
+        this.controller = controller;
+        this.drawn = new byte[engine.getSize()];
+        getChildren().add(canvas);
+        // Tout coup, annulation ou relance change le nombre de cases libres ; un abandon change le gagnant.
+        model.getFreeSquares().addListener(changeListener);
+        model.winnerProperty().addListener(changeListener);
+
+        setOnMouseClicked(this::handleClick);
+        setOnMouseMoved(event -> hover(squareAt(event.getX(), event.getY())));
+        setOnMouseExited(event -> hover(-1));
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        setOnMouseDragged(event -> {
+            if (event.getButton() != MouseButton.PRIMARY) {
+                scrollBy(dragX - event.getX(), dragY - event.getY());
+                dragX = event.getX();
+                dragY = event.getY();
+            }
+        });
+        setOnScroll(this::handleScroll);
+        setOnZoom(this::handleZoom);
+    }
+
+    /**
+    * Cesse d'observer le modèle, lorsque le plateau est détruit.
+    */
+    public void dispose() {
+        model.getFreeSquares().removeListener(changeListener);
+        model.winnerProperty().removeListener(changeListener);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double height = getHeight();
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            if (cellSize == 0 && width > 0 && height > 0) {
+                cellSize = clampCellSize(Math.min(width / engine.getWidth(), height / engine.getHeight()));
+            }
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            clampOffsets();
+            redraw();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return Math.min(engine.getWidth() * 32.0, 800);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return Math.min(engine.getHeight() * 32.0, 800);
+    }
+
+    /**
+    * @return La taille d'une case à l'écran, en pixels.
+    */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+    * Case affichée sous un point de la vue.
+    *
+    * @param x L'abscisse dans la vue.
+    * @param y L'ordonnée dans la vue.
+    * @return L'indice de la case ({@code row * width + column}), ou -1 hors du plateau.
+    */
+    public int squareAt(double x, double y) {
+        if (cellSize == 0) {
+            return -1;
+        }
+        int column = (int) Math.floor((x + offsetX) / cellSize);
+        int row = (int) Math.floor((y + offsetY) / cellSize);
+        if (row < 0 || column < 0 || row >= engine.getHeight() || column >= engine.getWidth()) {
+            return -1;
+        }
+        return row * engine.getWidth() + column;
+    }
+
+    private void handleClick(MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
+            return;
+        }
+        int square = squareAt(event.getX(), event.getY());
+        if (square >= 0) {
+            controller.handleButtonClick(square / engine.getWidth(), square % engine.getWidth());
+        }
+    }
+
+    private void handleScroll(ScrollEvent event) {
+        if (event.isControlDown()) {
+            zoom(Math.pow(1.002, event.getDeltaY()), event.getX(), event.getY());
+        } else {
+            scrollBy(-event.getDeltaX(), -event.getDeltaY());
+        }
+        event.consume();
+    }
+
+    private void handleZoom(ZoomEvent event) {
+        zoom(event.getZoomFactor(), event.getX(), event.getY());
+        event.consume();
+    }
+
+    /**
+    * Fait défiler la vue.
+    *
+    * @param dx Le déplacement horizontal, en pixels.
+    * @param dy Le déplacement vertical, en pixels.
+    */
+    public void scrollBy(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        clampOffsets();
+        redraw();
+    }
+
+    /**
+    * Zoome en gardant fixe le point du plateau situé sous (x, y).
+    *
+    * @param factor Le facteur de zoom.
+    * @param x      L'abscisse du centre du zoom dans la vue.
+    * @param y      L'ordonnée du centre du zoom dans la vue.
+    */
+    public void zoom(double factor, double x, double y) {
+        double size = clampCellSize(cellSize * factor);
+        if (size == cellSize) {
+            return;
+        }
+        offsetX = (x + offsetX) / cellSize * size - x;
+        offsetY = (y + offsetY) / cellSize * size - y;
+        cellSize = size;
+        clampOffsets();
+        redraw();
+    }
+
+    private static double clampCellSize(double size) {
+        return Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+    }
+
+    /**
+    * Borne le défilement au plateau ; un plateau plus petit que la vue est centré.
+    */
+    private void clampOffsets() {
+        offsetX = clampOffset(offsetX, engine.getWidth() * cellSize, canvas.getWidth());
+        offsetY = clampOffset(offsetY, engine.getHeight() * cellSize, canvas.getHeight());
+    }
+
+    private static double clampOffset(double offset, double board, double view) {
+        if (board <= view) {
+            return (board - view) / 2;
+        }
+        return Math.max(0, Math.min(board - view, offset));
+    }
+
+    private void hover(int square) {
+        if (square == hovered) {
+            return;
+        }
+        hovered = square;
+        refresh();
+    }
+
+    /**
+    * État à dessiner d'une case.
+    */
+    private byte state(int square) {
+        int state = engine.getOwner(square).ordinal();
+        if (state != 0 && engine.getWinningLine() != TicTacToeEngine.NO_LINE
+                && engine.isWinningSquare(square / engine.getWidth(), square % engine.getWidth())) {
+            state |= 4;
+        }
+        if (square == hovered) {
+            state |= 8;
+        }
+        return (byte) state;
+    }
+
+    /**
+    * Redessine les cases visibles dont l'état a changé depuis le dernier dessin.
+    */
+    private void refresh() {
+        if (engine.isGameOver() != gameOver) {
+            redraw();
+            return;
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        int width = engine.getWidth();
+        for (int row = firstVisible(offsetY); row <= lastVisible(offsetY, canvas.getHeight(), engine.getHeight()); row++) {
+            for (int column = firstVisible(offsetX); column <= lastVisible(offsetX, canvas.getWidth(), width); column++) {
+                int square = row * width + column;
+                byte state = state(square);
+                if (state != drawn[square]) {
+                    drawCell(graphics, row, column, state);
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            DRAW_TIME.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+    * Redessine toute la vue : fond, puis chaque case visible.
+    */
+    private void redraw() {
+        if (cellSize == 0) {
+            return;
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0L;
+        gameOver = engine.isGameOver();
+        if (font == null || font.getSize() != cellSize / 4) {
+            font = Font.font(null, FontWeight.NORMAL, cellSize / 4);
+            winningFont = Font.font(null, FontWeight.BOLD, cellSize / 4);
+        }
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.setFill(OUTSIDE);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.CENTER);
+        int width = engine.getWidth();
+        for (int row = firstVisible(offsetY); row <= lastVisible(offsetY, canvas.getHeight(), engine.getHeight()); row++) {
+            for (int column = firstVisible(offsetX); column <= lastVisible(offsetX, canvas.getWidth(), width); column++) {
+                drawCell(graphics, row, column, state(row * width + column));
+            }
+        }
+        if (Metrics.ENABLED) {
+            DRAW_TIME.record(System.nanoTime() - start);
+        }
+    }
+
+    private int firstVisible(double offset) {
+        return Math.max(0, (int) Math.floor(offset / cellSize));
+    }
+
+    private int lastVisible(double offset, double view, int count) {
+        return Math.min(count - 1, (int) Math.floor((offset + view) / cellSize));
+    }
+
+    private void drawCell(GraphicsContext graphics, int row, int column, byte state) {
+        drawn[row * engine.getWidth() + column] = state;
+        double x = column * cellSize - offsetX;
+        double y = row * cellSize - offsetY;
+        boolean winning = (state & 4) != 0;
+        Owner owner = OWNERS[state & 3];
+        Color background;
+        if (winning) {
+            background = WINNING;
+        } else if (gameOver) {
+            background = EMPTY;
+        } else if (owner != Owner.NONE) {
+            background = OCCUPIED;
+        } else {
+            background = (state & 8) != 0 ? HOVER : EMPTY;
+        }
+        graphics.setFill(background);
+        graphics.fillRect(x, y, cellSize, cellSize);
+        graphics.setStroke(Color.BLACK);
+        graphics.setLineWidth(0.5);
+        graphics.strokeRect(x, y, cellSize, cellSize);
+        if (owner == Owner.NONE) {
+            return;
+        }
+        graphics.setFill(Color.BLACK);
+        if (cellSize < MIN_TEXT_CELL_SIZE) {
+            double inset = cellSize / 4;
+            if (owner == Owner.FIRST) {
+                graphics.fillRect(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+            } else {
+                graphics.fillOval(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+            }
+            return;
+        }
+        graphics.setFont(winning ? winningFont : font);
+        graphics.fillText(owner.toString(), x + cellSize / 2, y + cellSize / 2);
+    }
+}
@@ -1,7 +1,9 @@
 package lawson.lonchi.morpion.view;
 
 import javafx.scene.control.TextField;
+import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.*;
+import javafx.css.PseudoClass;
 import lawson.lonchi.morpion.model.TicTacToeModel;
 import lawson.lonchi.morpion.controller.TicTacToeController;
 import lawson.lonchi.morpion.model.Owner;
@@ -9,7 +11,11 @@ import lawson.lonchi.morpion.model.Owner;
 
 public class TicTacToeSquare extends TextField {
     
-    private static TicTacToeModel model = TicTacToeModel.getInstance();
+    private static final PseudoClass OCCUPIED = PseudoClass.getPseudoClass("occupied");
+    
+    private static final PseudoClass WINNING = PseudoClass.getPseudoClass("winning");
+    
+    private static final PseudoClass GAME_OVER = PseudoClass.getPseudoClass("game-over");
     
     private final ObjectProperty<Owner> ownerProperty = new SimpleObjectProperty<>(Owner.NONE);
     
@@ -19,42 +25,34 @@ public class TicTacToeSquare extends TextField {
     /**
     * Constructeur pour créer une case du plateau de jeu.
     *
-    * @param row    La ligne de la case.
-    * @param column La colonne de la case.
+    * @param row        La ligne de la case.
+    * @param column     La colonne de la case.
+    * @param model      Le modèle de la partie affichée.
+    * @param controller Le contrôleur qui reçoit les clics.
     */
-    public TicTacToeSquare(final int row, final int column,TicTacToeController controller) {
+    public TicTacToeSquare(final int row, final int column, TicTacToeModel model, TicTacToeController controller) {
         
         setEditable(false);
         setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
         
-        setStyle("-fx-background-color: white; " +
-        "-fx-font-size: 25px; " +
-        "-fx-text-fill: black; " +
-        "-fx-alignment: center;");
-        
         ownerProperty.bind(model.getSquare(row, column));
+        winnerProperty.bind(model.getWinningSquare(row, column));
         
         textProperty().bind(ownerProperty.asString());
         
-        disableProperty().bind(model.gameOver().or(model.getSquare(row, column).isNotEqualTo(Owner.NONE)));
+        BooleanBinding gameOver = model.gameOver();
+        disableProperty().bind(model.legalMove(row, column).not());
         
-        setOnMouseEntered(event -> {
-            if (model.validSquare(row, column)) {
-                setStyle("-fx-background-color: green; " +
-                "-fx-font-size: 25px; " +
-                "-fx-text-fill: black; " +
-                "-fx-alignment: center;");
-            }
-        });
-        
-        setOnMouseExited(event -> {
-            if (ownerProperty.get() == Owner.NONE) {
-                setStyle("-fx-background-color: white; " +
-                "-fx-font-size: 25px; " +
-                "-fx-text-fill: black; " +
-                "-fx-alignment: center;");
-            }
-        });
+        // Seules les cases dont l'état change basculent leur pseudo-classe ; le survol est géré par la feuille de style.
+        ownerProperty.addListener((observable, oldValue, newValue) ->
+                pseudoClassStateChanged(OCCUPIED, newValue != Owner.NONE));
+        winnerProperty.addListener((observable, oldValue, newValue) ->
+                pseudoClassStateChanged(WINNING, newValue));
+        gameOver.addListener((observable, oldValue, newValue) ->
+                pseudoClassStateChanged(GAME_OVER, newValue));
+        pseudoClassStateChanged(OCCUPIED, ownerProperty.get() != Owner.NONE);
+        pseudoClassStateChanged(WINNING, winnerProperty.get());
+        pseudoClassStateChanged(GAME_OVER, gameOver.get());
         
         setOnMouseClicked(event -> {
             controller.handleButtonClick(row, column);
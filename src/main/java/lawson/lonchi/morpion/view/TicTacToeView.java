@@ -0,0 +1,92 @@
+package lawson.lonchi.morpion.view;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+/**
+ * Vue principale construite en Java, identique à {@code TicTacToeView.fxml} (mêmes nœuds,
+ * mêmes identifiants CSS). Elle évite au démarrage l'analyse du FXML et l'injection
+ * par réflexion : le contrôleur est relié par {@code TicTacToeController.attach}.
+ */
+public class TicTacToeView extends BorderPane {
+
+    public static final String STYLESHEET = "/lawson/lonchi/morpion/styles/styles.css";
+
+    private final GridPane gridPane = new GridPane();
+
+    private final Button undoButton = new Button("Undo");
+
+    private final Button restartButton = new Button("Restart");
+
+    private final Button redoButton = new Button("Redo");
+
+    private final Label endOfGameMessage = new Label();
+
+    private final Label thinkingLabel = new Label("L'ordinateur réfléchit...");
+
+    private final Label xScoreLabel = new Label("0 case pour X");
+
+    private final Label oScoreLabel = new Label("0 case pour O");
+
+    private final Label freeSquaresLabel = new Label("9 cases libres");
+
+    public TicTacToeView() {
+        getStylesheets().add(TicTacToeView.class.getResource(STYLESHEET).toExternalForm());
+        gridPane.setId("gridPane");
+        endOfGameMessage.setId("endOfGameMessage");
+        thinkingLabel.setId("thinkingLabel");
+        xScoreLabel.setId("xScoreLabel");
+        oScoreLabel.setId("oScoreLabel");
+        freeSquaresLabel.setId("freeSquaresLabel");
+        setCenter(gridPane);
+
+        HBox buttons = new HBox(10, undoButton, restartButton, redoButton);
+        buttons.setAlignment(Pos.CENTER);
+        HBox scores = new HBox(10, xScoreLabel, oScoreLabel, freeSquaresLabel);
+        scores.setAlignment(Pos.CENTER);
+        VBox bottom = new VBox(10, buttons, endOfGameMessage, thinkingLabel, scores);
+        bottom.setAlignment(Pos.CENTER);
+        setBottom(bottom);
+    }
+
+    public GridPane getGridPane() {
+        return gridPane;
+    }
+
+    public Button getUndoButton() {
+        return undoButton;
+    }
+
+    public Button getRestartButton() {
+        return restartButton;
+    }
+
+    public Button getRedoButton() {
+        return redoButton;
+    }
+
+    public Label getEndOfGameMessage() {
+        return endOfGameMessage;
+    }
+
+    public Label getThinkingLabel() {
+        return thinkingLabel;
+    }
+
+    public Label getXScoreLabel() {
+        return xScoreLabel;
+    }
+
+    public Label getOScoreLabel() {
+        return oScoreLabel;
+    }
+
+    public Label getFreeSquaresLabel() {
+        return freeSquaresLabel;
+    }
+}
@@ -1,6 +1,7 @@
 module lawson.lonchi.morpion {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
 
     opens lawson.lonchi.morpion to javafx.fxml;
     exports lawson.lonchi.morpion;
@@ -12,5 +13,13 @@ module lawson.lonchi.morpion {
 
      // Exportez les autres packages si nécessaire
      exports lawson.lonchi.morpion.model;
+     exports lawson.lonchi.morpion.ai;
+     exports lawson.lonchi.morpion.server;
+     exports lawson.lonchi.morpion.simulation;
+     exports lawson.lonchi.morpion.journal;
+     exports lawson.lonchi.morpion.metrics;
+     exports lawson.lonchi.morpion.tournament;
+     exports lawson.lonchi.morpion.feed;
+     exports lawson.lonchi.morpion.archive;
     //  exports lawson.lonchi.morpion.view;
 }
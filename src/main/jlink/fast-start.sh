@@ -0,0 +1,46 @@
+#!/bin/sh
+# Prépare une image jlink pour un démarrage rapide :
+#  1. régénère l'archive CDS de base pour les seuls modules de l'image ;
+#  2. lance une exécution d'entraînement (-Dmorpion.training=true, qui s'arrête au
+#     premier affichage) et archive les classes chargées (-XX:ArchiveClassesAtExit) ;
+#  3. installe bin/morpion-fast, qui démarre avec cette archive.
+# Sans affichage ni xvfb-run, l'entraînement est impossible (JavaFX ouvre une fenêtre) :
+# seule l'archive de base est régénérée et morpion-fast démarre avec elle.
+# Usage : fast-start.sh <répertoire de l'image>
+set -e
+
+IMAGE=${1:?Usage : fast-start.sh <répertoire de l image>}
+JAVA="$IMAGE/bin/java"
+ARCHIVE="$IMAGE/lib/morpion.jsa"
+MAIN=lawson.lonchi.morpion/lawson.lonchi.morpion.App
+
+"$JAVA" -Xshare:dump > /dev/null
+rm -f "$ARCHIVE"
+
+# L'entraînement ouvre une fenêtre : sans affichage, on passe par xvfb-run s'il est disponible.
+if [ -n "$DISPLAY" ]; then
+    RUN=
+elif command -v xvfb-run > /dev/null 2>&1; then
+    RUN="xvfb-run -a"
+else
+    RUN=skip
+fi
+if [ "$RUN" = skip ]; then
+    echo "Aucun affichage : entraînement ignoré, archive CDS de base seulement"
+else
+    $RUN "$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -Dmorpion.training=true -m "$MAIN"
+fi
+
+cat > "$IMAGE/bin/morpion-fast" <<'LAUNCHER'
+#!/bin/sh
+DIR=$(cd "$(dirname "$0")" && pwd)
+ARCHIVE="$DIR/../lib/morpion.jsa"
+if [ -f "$ARCHIVE" ]; then
+    exec "$DIR/java" -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -m lawson.lonchi.morpion/lawson.lonchi.morpion.App "$@"
+fi
+exec "$DIR/java" -Xshare:auto -m lawson.lonchi.morpion/lawson.lonchi.morpion.App "$@"
+LAUNCHER
+chmod +x "$IMAGE/bin/morpion-fast"
+if [ -f "$ARCHIVE" ]; then
+    echo "Archive CDS : $ARCHIVE"
+fi
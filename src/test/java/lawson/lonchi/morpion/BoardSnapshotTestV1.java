@@ -0,0 +1,93 @@
+package lawson.lonchi.morpion;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.model.BoardSnapshot;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSnapshotTestV1 {
+
+    @Test
+    void testClassicBoardFitsInTwoLongs() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(1, 1); // O
+        engine.play(0, 1); // X
+        BoardSnapshot snapshot = BoardSnapshot.of(engine);
+        assertEquals(2 * Long.BYTES, snapshot.getEncodedSize(), "Un 3x3 doit tenir en deux long");
+
+        engine.play(2, 2); // O : l'instantané ne doit pas changer
+        assertEquals(Owner.NONE, snapshot.getOwner(2, 2), "L'instantané doit être immuable");
+        assertEquals(Owner.SECOND, snapshot.getOwner(1, 1), "La case (1, 1) appartient à O");
+        assertEquals(Owner.SECOND, snapshot.getTurn(), "O doit être au trait");
+        assertEquals(2, snapshot.getScore(Owner.FIRST), "X occupe deux cases");
+
+        ByteBuffer buffer = ByteBuffer.allocate(snapshot.getEncodedSize());
+        snapshot.encode(buffer);
+        buffer.flip();
+        BoardSnapshot decoded = BoardSnapshot.decode(buffer);
+        assertEquals(snapshot, decoded, "Le décodage doit redonner la même position");
+        assertEquals("XX./.O./...", decoded.toString());
+    }
+
+    @Test
+    void testLargeBoardRoundTrip() {
+        TicTacToeEngine engine = new TicTacToeEngine(19, 19, 5);
+        for (int i = 0; i < 5; i++) {
+            engine.play(i, 10); // X
+            if (i < 4) {
+                engine.play(18, 18 - i); // O
+            }
+        }
+        BoardSnapshot snapshot = BoardSnapshot.of(engine);
+        assertEquals(BoardSnapshot.encodedSize(19, 19), snapshot.getEncodedSize());
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(snapshot.getEncodedSize());
+        snapshot.encode(buffer);
+        buffer.flip();
+        TicTacToeEngine restored = BoardSnapshot.decode(buffer).toEngine();
+        assertEquals(Owner.FIRST, restored.getWinner(), "X doit avoir gagné");
+        assertTrue(restored.isWinningSquare(4, 10), "La ligne gagnante doit être retrouvée");
+        assertEquals(Owner.SECOND, restored.getOwner(18, 15), "La case (18, 15) appartient à O");
+        assertEquals(engine.getFreeSquares(), restored.getFreeSquares(), "Le nombre de cases libres doit être conservé");
+        assertEquals(snapshot, BoardSnapshot.of(restored), "La position reconstruite doit être identique");
+    }
+
+    @Test
+    void testCorruptedBuffersAreRejected() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(1, 1); // O
+        ByteBuffer valid = ByteBuffer.allocate(2 * Long.BYTES);
+        BoardSnapshot.of(engine).encode(valid);
+        long header = valid.getLong(0);
+        long packed = valid.getLong(Long.BYTES);
+
+        // X et O sur la case 0.
+        assertThrows(IllegalArgumentException.class, () -> decode(header, packed | 1L << 9),
+                "Une case ne peut appartenir aux deux joueurs");
+        // Un pion au-delà des 2 x 9 bits du plateau.
+        assertThrows(IllegalArgumentException.class, () -> decode(header, packed | 1L << 20),
+                "Une case hors du plateau doit être refusée");
+        // Score de X porté à 5 pour un seul pion.
+        assertThrows(IllegalArgumentException.class, () -> decode(header + (4L << 32), packed),
+                "Les scores doivent correspondre aux pions");
+
+        ByteBuffer large = ByteBuffer.allocate(BoardSnapshot.encodedSize(19, 19));
+        BoardSnapshot.of(new TicTacToeEngine(19, 19, 5)).encode(large);
+        // Bit 361 du bitboard de X, au-delà des 361 cases.
+        large.putLong(Long.BYTES * 6, 1L << (361 - 5 * 64));
+        large.flip();
+        assertThrows(IllegalArgumentException.class, () -> BoardSnapshot.decode(large),
+                "Une case hors d'un grand plateau doit être refusée");
+    }
+
+    private static BoardSnapshot decode(long header, long packed) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        buffer.putLong(header).putLong(packed).flip();
+        return BoardSnapshot.decode(buffer);
+    }
+}
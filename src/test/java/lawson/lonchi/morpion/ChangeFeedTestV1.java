@@ -0,0 +1,164 @@
+package lawson.lonchi.morpion;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.feed.ChangeFeed;
+import lawson.lonchi.morpion.feed.FeedListener;
+import lawson.lonchi.morpion.feed.MoveEvent;
+import lawson.lonchi.morpion.feed.Subscription;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTestV1 {
+
+    @Test
+    void testModelPublishesOneEventPerChange() {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        Subscription subscription = model.getChangeFeed().subscribe();
+        model.play(0, 0); // X
+        model.play(1, 1); // O
+        model.play(1, 1); // illégal
+        model.undo();
+        model.play(0, 1); // O
+        model.restart();
+
+        MoveEvent[] events = new MoveEvent[16];
+        assertEquals(5, subscription.poll(events), "Un événement par coup, annulation ou recommencement");
+        assertEquals(MoveEvent.Type.MOVE, events[0].getType());
+        assertEquals(0, events[0].getSquare());
+        assertEquals(Owner.FIRST, events[0].getPlayer());
+        assertEquals(MoveEvent.Type.UNDO, events[2].getType());
+        assertEquals(4, events[2].getSquare(), "L'annulation libère (1, 1)");
+        assertEquals(1, events[3].getMoveIndex(), "Le coup rejoué reprend le numéro 1");
+        assertEquals(MoveEvent.Type.START, events[4].getType());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, events[i].getSequence(), "Les numéros de séquence se suivent");
+        }
+        assertEquals(0, subscription.poll(events), "Rien de nouveau");
+    }
+
+    @Test
+    void testWinnerIsCarriedByTheLastMove() {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        Subscription subscription = model.getChangeFeed().subscribe();
+        model.play(0, 0); // X
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+        MoveEvent[] events = new MoveEvent[8];
+        assertEquals(5, subscription.poll(events));
+        assertEquals(Owner.NONE, events[3].getWinner());
+        assertEquals(Owner.FIRST, events[4].getWinner(), "X gagne au cinquième coup");
+    }
+
+    @Test
+    void testLaggingSubscriptionSkipsToOldestEvent() {
+        ChangeFeed feed = new ChangeFeed(4, Runnable::run);
+        Subscription subscription = feed.subscribe();
+        for (int i = 0; i < 10; i++) {
+            feed.move(i, i, Owner.FIRST, Owner.NONE);
+        }
+        MoveEvent[] events = new MoveEvent[8];
+        assertEquals(4, subscription.poll(events), "Seuls les 4 derniers événements sont conservés");
+        assertEquals(6, events[0].getSequence());
+        assertEquals(6, subscription.getDropped());
+        assertEquals(0, subscription.getLag());
+    }
+
+    @Test
+    void testListenersReceiveEveryEventInOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ChangeFeed feed = new ChangeFeed(1024, executor);
+            int listenerCount = 1000;
+            int eventCount = 200;
+            CountDownLatch done = new CountDownLatch(listenerCount);
+            AtomicLong errors = new AtomicLong();
+            for (int l = 0; l < listenerCount; l++) {
+                feed.subscribe(new FeedListener() {
+                    private long expected;
+
+                    @Override
+                    public void onEvents(List<MoveEvent> events) {
+                        for (MoveEvent event : events) {
+                            if (event.getSequence() != expected++) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        if (expected == eventCount) {
+                            done.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onGap(long dropped) {
+                        errors.incrementAndGet();
+                    }
+                });
+            }
+            for (int i = 0; i < eventCount; i++) {
+                feed.move(i, i, i % 2 == 0 ? Owner.FIRST : Owner.SECOND, Owner.NONE);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS), "Chaque spectateur doit tout recevoir");
+            assertEquals(0, errors.get(), "Ni désordre ni perte quand l'anneau suffit");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSlowListenerDoesNotBlockPublisher() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ChangeFeed feed = new ChangeFeed(16, executor);
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch caughtUp = new CountDownLatch(1);
+            AtomicLong dropped = new AtomicLong();
+            List<Long> received = new CopyOnWriteArrayList<>();
+            feed.subscribe(new FeedListener() {
+                @Override
+                public void onEvents(List<MoveEvent> events) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (MoveEvent event : events) {
+                        received.add(event.getSequence());
+                    }
+                    if (received.get(received.size() - 1) == 99) {
+                        caughtUp.countDown();
+                    }
+                }
+
+                @Override
+                public void onGap(long count) {
+                    dropped.addAndGet(count);
+                }
+            });
+            feed.start();
+            assertTrue(blocked.await(10, TimeUnit.SECONDS), "Le spectateur doit être occupé");
+            for (int i = 1; i < 100; i++) {
+                feed.move(i - 1, i % 9, Owner.FIRST, Owner.NONE);
+            }
+            assertEquals(100, feed.getPublished(), "La partie avance malgré le spectateur bloqué");
+            release.countDown();
+            assertTrue(caughtUp.await(10, TimeUnit.SECONDS), "Le spectateur doit rattraper le dernier événement");
+            assertEquals(100, received.size() + dropped.get(), "Chaque événement est reçu ou compté perdu");
+            assertTrue(dropped.get() > 0, "Le spectateur lent doit perdre des événements");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package lawson.lonchi.morpion;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.GreedyStrategy;
+import lawson.lonchi.morpion.ai.Strategy;
+import lawson.lonchi.morpion.controller.ComputerPlayer;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputerPlayerTestV1 {
+
+    /**
+    * Tient lieu de file du thread JavaFX : les publications y sont exécutées par le test.
+    */
+    private final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+
+    @Test
+    void testReplyIsPublishedInOneBatch() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        try (ComputerPlayer computer = new ComputerPlayer(model, new GreedyStrategy(), Owner.SECOND, fxQueue::add)) {
+            model.play(0, 0); // X
+            model.play(1, 1); // O
+            model.play(0, 1); // X
+            assertTrue(computer.requestMove(), "L'ordinateur doit chercher son coup");
+            assertTrue(model.isThinking(), "Le modèle doit signaler la réflexion");
+            assertFalse(computer.requestMove(), "Une seule recherche à la fois");
+
+            Runnable publication = fxQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(publication, "Le coup doit être publié");
+            assertEquals(3, model.getEngine().getMoveCount(), "Rien n'est joué avant la publication");
+            publication.run();
+            assertFalse(model.isThinking(), "La réflexion est terminée");
+            assertEquals(Owner.SECOND, model.getSquare(0, 2).get(), "O doit bloquer en (0, 2)");
+            assertEquals(Owner.FIRST, model.turnProperty().get(), "La main revient au joueur");
+        }
+    }
+
+    @Test
+    void testCancelledReplyIsDiscarded() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Strategy slow = new Strategy() {
+            @Override
+            public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 4;
+            }
+
+            @Override
+            public String getName() {
+                return "slow";
+            }
+        };
+        try (ComputerPlayer computer = new ComputerPlayer(model, slow, Owner.SECOND, fxQueue::add)) {
+            model.play(0, 0); // X
+            assertTrue(computer.requestMove(), "L'ordinateur doit chercher son coup");
+            assertTrue(started.await(10, TimeUnit.SECONDS), "La recherche doit démarrer");
+            computer.cancel();
+            model.restart();
+            assertFalse(model.isThinking(), "L'annulation met fin à la réflexion");
+            release.countDown();
+
+            Runnable publication = fxQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(publication, "La recherche annulée publie tout de même son résultat");
+            publication.run();
+            assertEquals(Owner.NONE, model.getSquare(1, 1).get(), "Un coup périmé ne doit pas être joué");
+            assertEquals(0, model.getEngine().getMoveCount(), "Le plateau relancé doit rester vide");
+        }
+    }
+
+    @Test
+    void testFailingStrategyStillPlays() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        Strategy failing = new Strategy() {
+            @Override
+            public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+                throw new IllegalStateException("panne");
+            }
+
+            @Override
+            public String getName() {
+                return "failing";
+            }
+        };
+        try (ComputerPlayer computer = new ComputerPlayer(model, failing, Owner.SECOND, fxQueue::add)) {
+            model.play(1, 1); // X
+            assertTrue(computer.requestMove(), "L'ordinateur doit chercher son coup");
+            Runnable publication = fxQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(publication, "Un coup doit être publié malgré l'échec");
+            publication.run();
+            assertFalse(model.isThinking(), "La réflexion est terminée");
+            assertEquals(2, model.getEngine().getMoveCount(), "L'ordinateur a joué une case libre");
+            assertEquals(Owner.FIRST, model.turnProperty().get(), "La main revient au joueur");
+        }
+    }
+}
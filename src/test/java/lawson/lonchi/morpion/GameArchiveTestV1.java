@@ -0,0 +1,186 @@
+package lawson.lonchi.morpion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.archive.ArchiveStatistics;
+import lawson.lonchi.morpion.archive.GameArchive;
+import lawson.lonchi.morpion.archive.GameArchiveWriter;
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+import lawson.lonchi.morpion.server.GameSession;
+import lawson.lonchi.morpion.server.GameSessionManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testParallelAnalysisMatchesWrittenGames() throws IOException {
+        Path path = directory.resolve("games.mga");
+        SplittableRandom random = new SplittableRandom(42);
+        long[] outcomes = new long[3];
+        long moves = 0;
+        long centerFirst = 0;
+        int games = 5000;
+        try (GameArchiveWriter writer = GameArchiveWriter.create(path, 3, 3, 3, 64)) {
+            TicTacToeEngine engine = new TicTacToeEngine();
+            for (int game = 0; game < games; game++) {
+                engine.restart();
+                while (!engine.isGameOver()) {
+                    int square = random.nextInt(9);
+                    engine.play(square / 3, square % 3);
+                }
+                writer.write(engine);
+                outcomes[engine.getWinner().ordinal()]++;
+                moves += engine.getMoveCount();
+                if (engine.getMove(0) == 4 && engine.getMove(1) == 0 && engine.getMove(2) == 8) {
+                    centerFirst++;
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new int[] {4, 4}, 2, Owner.NONE, false),
+                    "Un coup illégal doit être refusé");
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new int[] {4}, 1, Owner.NONE, false),
+                    "Une partie inachevée doit être refusée");
+        }
+
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(games, archive.getGameCount());
+            assertTrue(archive.getChunkCount() > 1, "L'archive doit compter plusieurs blocs");
+            ForkJoinPool pool = new ForkJoinPool(4);
+            ArchiveStatistics statistics;
+            try {
+                statistics = archive.analyze(pool);
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(games, statistics.getGameCount());
+            assertEquals(0, statistics.getInvalidCount());
+            assertEquals(moves, statistics.getMoveCount());
+            assertEquals(outcomes[Owner.FIRST.ordinal()], statistics.getOutcomeCount(Owner.FIRST));
+            assertEquals(outcomes[Owner.NONE.ordinal()], statistics.getOutcomeCount(Owner.NONE));
+            assertEquals(3, statistics.getOpeningDepth());
+            assertEquals(centerFirst, statistics.getOpeningCount(4, 0, 8));
+            assertEquals(games, statistics.getPlayCount(4) + countWithoutCenter(archive),
+                    "Chaque partie joue le centre au plus une fois");
+        }
+    }
+
+    private static long countWithoutCenter(GameArchive archive) throws IOException {
+        long[] count = new long[1];
+        archive.forEach((moves, length, winner, resigned) -> {
+            for (int i = 0; i < length; i++) {
+                if (moves[i] == 4) {
+                    return;
+                }
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    @Test
+    void testCorruptedOutcomeIsRejected() throws IOException {
+        Path path = directory.resolve("corrupt.mga");
+        try (GameArchiveWriter writer = GameArchiveWriter.create(path, 3, 3, 3)) {
+            writer.write(new int[] {0, 3, 1, 4, 2}, 5, Owner.FIRST, false);
+            writer.write(new int[] {4}, 1, Owner.FIRST, true);
+        }
+        // En-tête (16), en-tête du bloc (8), longueurs (2) : issue de la première partie.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) Owner.SECOND.ordinal()}), 26);
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            ArchiveStatistics statistics = archive.analyze();
+            assertEquals(1, statistics.getInvalidCount(), "Le gagnant ne correspond plus au plateau");
+            assertEquals(1, statistics.getResignationCount());
+        }
+    }
+
+    @Test
+    void testGameIsLoadedIntoModel() throws IOException {
+        Path path = directory.resolve("model.mga");
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        try (GameArchiveWriter writer = GameArchiveWriter.create(path, 3, 3, 3)) {
+            model.play(1, 1); // X
+            model.play(0, 0); // O
+            model.play(0, 2); // X
+            model.play(2, 0); // O
+            model.play(1, 0); // X
+            model.play(1, 2); // O
+            model.play(0, 1); // X
+            model.play(2, 1); // O
+            model.play(2, 2); // X
+            writer.write(model);
+        }
+        TicTacToeModel loaded = new TicTacToeModel(3, 3, 3);
+        try (GameArchive archive = GameArchive.open(path)) {
+            archive.load(0, loaded);
+        }
+        assertEquals(Owner.FIRST, loaded.getSquare(1, 1).get());
+        assertEquals(Owner.SECOND, loaded.getSquare(2, 1).get());
+        assertEquals(0, loaded.getFreeSquares().get());
+        assertEquals(model.getHash(), loaded.getHash(), "La position chargée est identique");
+    }
+
+    @Test
+    void testJournalIsImported() throws IOException {
+        Path journalPath = directory.resolve("moves.journal");
+        try (MoveJournal journal = MoveJournal.open(journalPath);
+                GameSessionManager manager = new GameSessionManager(Duration.ofMinutes(5), journal)) {
+            GameSession won = manager.create(3, 3, 3);
+            won.play(0, 0); // X
+            won.play(1, 0); // O
+            won.play(0, 1); // X
+            won.play(1, 1); // O
+            won.play(0, 2); // X
+
+            GameSession resigned = manager.create(3, 3, 3);
+            resigned.play(1, 1); // X
+            resigned.resign(Owner.SECOND);
+
+            GameSession unfinished = manager.create(3, 3, 3);
+            unfinished.play(1, 1); // X
+
+            GameSession other = manager.create(4, 4, 3);
+            other.play(0, 0); // X
+            other.resign(Owner.SECOND);
+            journal.sync();
+        }
+        Path path = directory.resolve("imported.mga");
+        try (GameArchiveWriter writer = GameArchiveWriter.create(path, 3, 3, 3)) {
+            assertEquals(2, writer.importJournal(journalPath), "Seules les parties 3x3 terminées sont importées");
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            ArchiveStatistics statistics = archive.analyze();
+            assertEquals(2, statistics.getOutcomeCount(Owner.FIRST));
+            assertEquals(1, statistics.getResignationCount());
+            assertEquals(3.0, statistics.getAverageLength(), 1e-9);
+        }
+    }
+
+    @Test
+    void testCorruptJournalSquareIsRejected() throws IOException {
+        Path journalPath = directory.resolve("corrupt.journal");
+        try (MoveJournal journal = MoveJournal.open(journalPath)) {
+            journal.start(1, 3, 3, 3);
+            journal.move(1, 0, 9, Owner.FIRST);
+        }
+        try (GameArchiveWriter writer = GameArchiveWriter.create(directory.resolve("corrupt.mga"), 3, 3, 3)) {
+            assertThrows(IOException.class, () -> writer.importJournal(journalPath),
+                    "Une case hors du plateau doit être signalée");
+        }
+    }
+}
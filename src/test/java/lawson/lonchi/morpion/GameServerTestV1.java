@@ -0,0 +1,90 @@
+package lawson.lonchi.morpion;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.server.GameServer;
+import lawson.lonchi.morpion.server.GameSessionManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLineProtocol() throws Exception {
+        try (GameSessionManager sessions = new GameSessionManager(Duration.ofMinutes(1));
+                GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), sessions, 2)) {
+            server.start();
+            try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+                out.print("PLAY 0 0\n");
+                out.flush();
+                assertEquals("ERR no game", in.readLine(), "Il faut créer une partie avant de jouer");
+
+                out.print("NEW\n");
+                out.flush();
+                assertTrue(in.readLine().matches("GAME \\d+ 3 3 3"), "Une partie 3x3 doit être créée");
+
+                out.print("PLAY 1 1\nPLAY 1 1\nPLAY 0 0\nSTATE\n");
+                out.flush();
+                assertEquals("OK O -", in.readLine(), "Le coup de X est accepté");
+                assertEquals("ILLEGAL", in.readLine(), "La case est déjà occupée");
+                assertEquals("OK X -", in.readLine(), "Le coup de O est accepté");
+                assertTrue(in.readLine().endsWith(" X - 3 3 O...X...."), "L'état reflète les deux coups");
+
+                out.print("RESIGN\nDANCE\n");
+                out.flush();
+                assertEquals("OVER O", in.readLine(), "X abandonne, O gagne");
+                assertEquals("ERR unknown command", in.readLine(), "Commande inconnue");
+            }
+        }
+    }
+
+    @Test
+    void testClosedJournalKeepsReactorRunning() throws Exception {
+        try (MoveJournal journal = MoveJournal.open(directory.resolve("moves.journal"));
+                GameSessionManager sessions = new GameSessionManager(Duration.ofMinutes(1), journal);
+                GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), sessions, 1)) {
+            server.start();
+            try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                out.print("NEW\nPLAY 1 1\n");
+                out.flush();
+                assertTrue(in.readLine().startsWith("GAME "));
+                assertEquals("OK O -", in.readLine());
+
+                journal.close();
+                out.print("PLAY 0 0\nNEW\n");
+                out.flush();
+                assertEquals("ERR server error", in.readLine(), "L'échec du journal est signalé");
+                assertEquals("ERR server error", in.readLine(), "L'échec du journal est signalé");
+
+                try (Socket other = new Socket("127.0.0.1", server.getPort())) {
+                    PrintWriter otherOut = new PrintWriter(other.getOutputStream(), true, StandardCharsets.US_ASCII);
+                    BufferedReader otherIn = new BufferedReader(new InputStreamReader(other.getInputStream(),
+                            StandardCharsets.US_ASCII));
+                    otherOut.print("STATE\n");
+                    otherOut.flush();
+                    assertEquals("ERR no game", otherIn.readLine(), "Le réacteur sert encore les autres clients");
+                }
+                out.print("STATE\n");
+                out.flush();
+                assertTrue(in.readLine().startsWith("STATE "), "La connexion reste ouverte");
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package lawson.lonchi.morpion;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.server.GameSession;
+import lawson.lonchi.morpion.server.GameSessionManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionManagerTestV1 {
+
+    @Test
+    void testSessionsAreIndependent() {
+        try (GameSessionManager manager = new GameSessionManager(Duration.ofMinutes(5))) {
+            GameSession first = manager.create(3, 3, 3);
+            GameSession second = manager.create(3, 3, 3);
+            assertNotEquals(first.getId(), second.getId(), "Chaque partie a son propre identifiant");
+
+            assertTrue(manager.play(first.getId(), 1, 1), "Le coup doit être joué dans la première partie");
+            assertEquals(Owner.SECOND, first.getTurn(), "C'est au tour de O dans la première partie");
+            assertEquals(Owner.FIRST, second.getTurn(), "La seconde partie n'est pas affectée");
+            assertFalse(manager.play(first.getId(), 3, 0), "Un coup hors du plateau est refusé");
+        }
+    }
+
+    @Test
+    void testConcurrentMovesAreSerialisedPerGame() throws Exception {
+        try (GameSessionManager manager = new GameSessionManager(Duration.ofMinutes(5))) {
+            GameSession session = manager.create(19, 19, 19);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    int accepted = 0;
+                    for (int square = 0; square < 361; square++) {
+                        if (manager.play(session.getId(), square / 19, square % 19)) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            executor.shutdown();
+            assertEquals(361 - session.copyPosition().getFreeSquares(), total,
+                    "Chaque coup accepté doit occuper exactement une case");
+            assertTrue(session.isGameOver(), "La partie doit être terminée");
+        }
+    }
+
+    @Test
+    void testIdleSessionsAreEvicted() throws InterruptedException {
+        try (GameSessionManager manager = new GameSessionManager(Duration.ofMillis(1))) {
+            GameSession session = manager.create(3, 3, 3);
+            Thread.sleep(10);
+            assertEquals(1, manager.evictIdle(), "La partie inactive doit être évincée");
+            assertNull(manager.get(session.getId()), "La partie évincée n'est plus accessible");
+            assertThrows(IllegalArgumentException.class, () -> manager.play(session.getId(), 0, 0));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package lawson.lonchi.morpion;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.metrics.Metrics;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTestV1 {
+
+    @Test
+    void testModelMovesAreCountedAndExposed() throws Exception {
+        Metrics metrics = Metrics.get();
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        long moves = metrics.counter("model.moves").sum();
+        long illegal = metrics.counter("model.illegalMoves").sum();
+        long wins = metrics.counter("games.xWins").sum();
+
+        model.play(0, 0); // X
+        model.play(0, 0); // O, illégal
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+
+        assertEquals(moves + 5, metrics.counter("model.moves").sum(), "Cinq coups doivent être comptés");
+        assertEquals(illegal + 1, metrics.counter("model.illegalMoves").sum(), "Le coup illégal doit être compté");
+        assertEquals(wins + 1, metrics.counter("games.xWins").sum(), "La victoire de X doit être comptée");
+        assertTrue(metrics.histogram("model.engine").getCount() >= 6, "Chaque coup doit être chronométré");
+
+        metrics.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertEquals(metrics.counter("model.moves").sum(), server.getAttribute(name, "model.moves"));
+        assertTrue((Long) server.getAttribute(name, "model.bindings.count") >= 5, "Les histogrammes doivent être exposés");
+        assertTrue(metrics.toJson().contains("\"model.moves\":"), "Le JSON doit contenir les compteurs");
+    }
+}
@@ -0,0 +1,44 @@
+package lawson.lonchi.morpion;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.MonteCarloSearch;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSearchTestV1 {
+
+    @Test
+    void testFindsImmediateWin() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(1, 0); // O
+        engine.play(0, 1); // X
+        engine.play(1, 1); // O
+        try (MonteCarloSearch search = new MonteCarloSearch(4)) {
+            MonteCarloSearch.Result result = search.search(engine, 0, 20_000, new SplittableRandom(3));
+            assertEquals(2, result.getSquare(), "X doit gagner en (0, 2)");
+            assertTrue(result.getIterations() >= 20_000, "Le budget d'itérations doit être consommé");
+        }
+        assertEquals(4, engine.getMoveCount(), "La position de l'appelant ne doit pas être modifiée");
+    }
+
+    @Test
+    void testBlocksOnLargeBoard() {
+        TicTacToeEngine engine = new TicTacToeEngine(15, 15, 5);
+        engine.play(7, 5); // X
+        engine.play(0, 0); // O
+        engine.play(7, 6); // X
+        engine.play(0, 14); // O
+        engine.play(7, 7); // X
+        engine.play(14, 0); // O
+        engine.play(7, 8); // X : quatre alignés, O doit bloquer en (7, 4) ou (7, 9)
+        try (MonteCarloSearch search = new MonteCarloSearch(2)) {
+            MonteCarloSearch.Result result = search.search(engine, 2_000, 0, new SplittableRandom(5));
+            assertEquals(7, result.getRow(), "O doit bloquer l'alignement");
+            assertTrue(result.getColumn() == 4 || result.getColumn() == 9, "O doit bloquer une extrémité");
+            assertTrue(result.getIterationsPerSecond() > 0, "Le débit doit être mesuré");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package lawson.lonchi.morpion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.journal.JournalReader;
+import lawson.lonchi.morpion.journal.JournalVisitor;
+import lawson.lonchi.morpion.journal.MoveJournal;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.server.GameSession;
+import lawson.lonchi.morpion.server.GameSessionManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayRebuildsSessions() throws IOException {
+        Path path = directory.resolve("moves.journal");
+        long won;
+        long restarted;
+        long resigned;
+        try (MoveJournal journal = MoveJournal.open(path);
+                GameSessionManager manager = new GameSessionManager(Duration.ofMinutes(5), journal)) {
+            GameSession first = manager.create(3, 3, 3);
+            won = first.getId();
+            first.play(0, 0); // X
+            first.play(1, 0); // O
+            first.play(0, 1); // X
+            first.play(1, 1); // O
+            first.play(0, 2); // X
+
+            GameSession second = manager.create(4, 4, 3);
+            restarted = second.getId();
+            second.play(0, 0); // X
+            second.play(0, 0); // O, illégal : non enregistré
+            second.restart();
+            second.play(3, 3); // X
+
+            GameSession third = manager.create(3, 3, 3);
+            resigned = third.getId();
+            third.play(1, 1); // X
+            third.resign(Owner.SECOND);
+            journal.sync();
+        }
+
+        Map<Long, TicTacToeEngine> engines = JournalReader.replay(path);
+        assertEquals(3, engines.size(), "Le journal doit contenir trois parties");
+        assertEquals(Owner.FIRST, engines.get(won).getWinner(), "X doit avoir gagné la première partie");
+        assertNotEquals(TicTacToeEngine.NO_LINE, engines.get(won).getWinningLine(), "La ligne gagnante doit être rejouée");
+
+        TicTacToeEngine engine = JournalReader.replay(path, restarted);
+        assertEquals(4, engine.getWidth(), "Les dimensions doivent être rejouées");
+        assertEquals(Owner.NONE, engine.getOwner(0, 0), "Le recommencement doit vider le plateau");
+        assertEquals(Owner.FIRST, engine.getOwner(3, 3), "Le coup après recommencement doit être rejoué");
+        assertEquals(Owner.SECOND, engine.getTurn(), "O doit être au trait");
+
+        assertEquals(Owner.FIRST, engines.get(resigned).getWinner(), "L'abandon de O doit faire gagner X");
+        assertNull(JournalReader.replay(path, 42), "Une session absente ne doit pas être reconstruite");
+    }
+
+    @Test
+    void testTornTailIsIgnoredAndTruncated() throws IOException {
+        Path path = directory.resolve("torn.journal");
+        try (MoveJournal journal = MoveJournal.open(path, 2, 0)) {
+            journal.start(7, 3, 3, 3);
+            journal.move(7, 0, 4, Owner.FIRST);
+            journal.move(7, 1, 0, Owner.SECOND);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        assertEquals(2, JournalReader.read(path, new CountingVisitor()), "L'enregistrement incomplet doit être ignoré");
+
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            journal.move(7, 1, 8, Owner.SECOND);
+        }
+        TicTacToeEngine engine = JournalReader.replay(path, 7);
+        assertEquals(Owner.FIRST, engine.getOwner(1, 1), "Le premier coup doit être conservé");
+        assertEquals(Owner.NONE, engine.getOwner(0, 0), "Le coup incomplet doit avoir disparu");
+        assertEquals(Owner.SECOND, engine.getOwner(2, 2), "Le coup ajouté après réouverture doit être relu");
+    }
+
+    @Test
+    void testCorruptRecordsAreRejected() throws IOException {
+        Path path = directory.resolve("corrupt.journal");
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            journal.start(7, 3, 3, 3);
+            journal.move(7, 0, 4, Owner.FIRST);
+            journal.start(8, 3, 3, 3);
+            journal.move(8, 0, 40, Owner.FIRST);
+        }
+        assertNotNull(JournalReader.replay(path, 7), "La session saine est relue");
+        assertThrows(IOException.class, () -> JournalReader.replay(path, 8), "Une case hors du plateau est refusée");
+
+        // En-tête, début de partie, puis octet du joueur du premier coup.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {5}), 2 * MoveJournal.RECORD_SIZE + 14);
+        }
+        assertThrows(IOException.class, () -> JournalReader.replay(path, 7), "Un joueur invalide est refusé");
+    }
+
+    private static final class CountingVisitor implements JournalVisitor {
+
+        @Override
+        public void start(long session, int width, int height, int winningCount) {
+        }
+
+        @Override
+        public void move(long session, int moveIndex, int square, Owner owner) {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package lawson.lonchi.morpion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.ai.OpeningBook;
+import lawson.lonchi.morpion.ai.OpeningBookGenerator;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testGeneratedBookMatchesRules() throws IOException {
+        Path path = directory.resolve("tictactoe.book");
+        OpeningBookGenerator generator = new OpeningBookGenerator();
+        generator.write(path);
+        assertEquals(5478, generator.getReachable(), "Le morpion 3x3 a 5478 positions atteignables");
+
+        OpeningBook book = OpeningBook.open(path);
+        TicTacToeEngine engine = new TicTacToeEngine();
+        assertEquals(OpeningBook.DRAW, book.value(OpeningBook.index(engine)), "Le plateau vide est nul");
+
+        engine.play(0, 0); // X
+        engine.play(1, 0); // O
+        engine.play(0, 1); // X
+        engine.play(1, 1); // O
+        assertEquals(OpeningBook.WIN, book.value(OpeningBook.index(engine)), "X doit gagner");
+        assertEquals(2, book.bestMove(engine), "X doit gagner en (0, 2)");
+
+        engine.play(0, 2); // X
+        assertEquals(-1, book.bestMove(engine), "Aucun coup après la victoire");
+
+        assertEquals(-1, book.bestMove(new TicTacToeEngine(4, 4, 3)), "La table ne couvre que le 3x3");
+        assertEquals(-1, book.bestMove(new TicTacToeEngine(3, 3, 2)), "La table ne couvre que k=3");
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.index(new TicTacToeEngine(4, 4, 3)));
+    }
+
+    @Test
+    void testSharedBookIsOnClasspath() {
+        OpeningBook book = OpeningBook.shared();
+        assertNotNull(book, "La table est générée dans les ressources");
+        assertEquals(OpeningBook.DRAW, book.value(OpeningBook.index(new TicTacToeEngine())));
+    }
+}
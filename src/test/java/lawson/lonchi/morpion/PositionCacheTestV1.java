@@ -0,0 +1,94 @@
+package lawson.lonchi.morpion;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.Evaluation;
+import lawson.lonchi.morpion.ai.PositionCache;
+import lawson.lonchi.morpion.ai.Solver;
+import lawson.lonchi.morpion.ai.SolverStrategy;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.model.TicTacToeModel;
+import lawson.lonchi.morpion.model.Zobrist;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionCacheTestV1 {
+
+    @Test
+    void testIncrementalHashMatchesFullHash() {
+        TicTacToeEngine engine = new TicTacToeEngine(4, 4, 3);
+        Zobrist zobrist = Zobrist.of(4, 4, 3);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int step = 0; step < 200; step++) {
+            int action = random.nextInt(6);
+            if (action == 0) {
+                engine.undo();
+            } else if (action == 1) {
+                engine.redo();
+            } else if (engine.isGameOver() || engine.isBoardFull()) {
+                engine.restart();
+            } else {
+                int square = random.nextInt(engine.getSize());
+                engine.play(square / 4, square % 4);
+            }
+            assertEquals(zobrist.hash(engine), engine.getHash(), "Hash incrémental faux à l'étape " + step);
+        }
+    }
+
+    @Test
+    void testTranspositionsShareTheirHash() {
+        TicTacToeModel model = new TicTacToeModel(3, 3, 3);
+        long empty = model.getHash();
+        model.play(0, 0); // X
+        model.play(1, 1); // O
+        model.play(2, 2); // X
+        long first = model.getHash();
+        model.restart();
+        assertEquals(empty, model.getHash(), "Le plateau vide retrouve son hash");
+        model.play(2, 2); // X
+        model.play(1, 1); // O
+        model.play(0, 0); // X
+        assertEquals(first, model.getHash(), "Même position, autre ordre des coups");
+        model.undo();
+        assertNotEquals(first, model.getHash());
+
+        assertNotEquals(new TicTacToeEngine(3, 3, 3).getHash(), new TicTacToeEngine(4, 4, 3).getHash(),
+                "Des plateaux différents ne se confondent pas");
+        assertNotEquals(new TicTacToeEngine(4, 4, 3).getHash(), new TicTacToeEngine(4, 4, 4).getHash());
+    }
+
+    @Test
+    void testLeastRecentlyUsedPositionIsEvicted() {
+        PositionCache cache = new PositionCache(16);
+        for (long key = 0; key < 16; key++) {
+            cache.put(key, Evaluation.estimated((int) key, 1, 0.5));
+        }
+        assertNotNull(cache.get(0L), "La position 0 devient la plus récente");
+        cache.put(16L, Evaluation.estimated(16, 1, 0.5));
+        assertEquals(16, cache.size(), "Le cache reste borné");
+        assertNotNull(cache.get(0L), "La position consultée est conservée");
+        assertNull(cache.get(1L), "La moins récemment consultée est évincée");
+    }
+
+    @Test
+    void testSolvedPositionsAreShared() {
+        PositionCache cache = new PositionCache(1024);
+        TicTacToeEngine position = new TicTacToeEngine();
+        position.play(0, 0); // X
+        position.play(0, 1); // O
+        position.play(1, 1); // X
+        SolverStrategy strategy = new SolverStrategy(new Solver(3, 3, 3), 0, cache);
+        int move = strategy.chooseMove(position, new SplittableRandom(1));
+        Evaluation evaluation = cache.get(position.getHash());
+        assertNotNull(evaluation, "La position résolue est en cache");
+        assertTrue(evaluation.isExact());
+        assertEquals(Owner.SECOND, position.getTurn());
+        assertEquals(Owner.FIRST, evaluation.getOutcome(), "X gagne en jeu parfait");
+        assertEquals(move, evaluation.getBestMove());
+
+        SolverStrategy other = new SolverStrategy(new Solver(3, 3, 3), 0, cache);
+        assertEquals(move, other.chooseMove(new TicTacToeEngine(position), new SplittableRandom(2)),
+                "Une autre stratégie réutilise l'évaluation");
+    }
+}
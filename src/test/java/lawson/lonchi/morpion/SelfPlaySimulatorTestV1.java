@@ -0,0 +1,63 @@
+package lawson.lonchi.morpion;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.GreedyStrategy;
+import lawson.lonchi.morpion.ai.RandomStrategy;
+import lawson.lonchi.morpion.ai.Solver;
+import lawson.lonchi.morpion.ai.SolverStrategy;
+import lawson.lonchi.morpion.ai.Strategy;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import lawson.lonchi.morpion.simulation.SelfPlaySimulator;
+import lawson.lonchi.morpion.simulation.SimulationResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlaySimulatorTestV1 {
+
+    private final SelfPlaySimulator simulator = new SelfPlaySimulator(3, 3, 3);
+
+    @Test
+    void testRandomGamesAreCounted() {
+        SimulationResult result = simulator.run(new RandomStrategy(), new RandomStrategy(), 50_000, 42L);
+        assertEquals(50_000, result.getGames(), "Toutes les parties doivent être comptées");
+        assertEquals(0, result.getGamesOfLength(4), "Aucune partie ne se termine en 4 coups");
+        assertTrue(result.getGamesOfLength(5) > 0, "Certaines parties se terminent en 5 coups");
+        assertTrue(result.getFirstWins() > result.getSecondWins(), "X gagne plus souvent au hasard");
+    }
+
+    @Test
+    void testSameSeedIsReproducible() {
+        SimulationResult first = simulator.run(new GreedyStrategy(), new RandomStrategy(), 20_000, 7L);
+        SimulationResult second = simulator.run(new GreedyStrategy(), new RandomStrategy(), 20_000, 7L);
+        assertEquals(first.getFirstWins(), second.getFirstWins(), "La même graine donne les mêmes résultats");
+        assertEquals(first.getDraws(), second.getDraws(), "La même graine donne les mêmes résultats");
+    }
+
+    @Test
+    void testSolverNeverLoses() {
+        SolverStrategy solver = new SolverStrategy(new Solver(3, 3, 3), 0);
+        SimulationResult result = simulator.run(new RandomStrategy(), solver, 2_000, 1L);
+        assertEquals(0, result.getFirstWins(), "Le solveur ne perd jamais");
+        SimulationResult selfPlay = simulator.run(solver, solver, 100, 1L);
+        assertEquals(100, selfPlay.getDraws(), "Deux joueurs parfaits font match nul");
+    }
+
+    @Test
+    void testIllegalMoveLosesTheGame() {
+        Strategy center = new Strategy() {
+            @Override
+            public int chooseMove(TicTacToeEngine position, SplittableRandom random) {
+                return 4;
+            }
+
+            @Override
+            public String getName() {
+                return "center";
+            }
+        };
+        SimulationResult result = simulator.run(center, new RandomStrategy(), 1_000, 3L);
+        assertEquals(1_000, result.getSecondWins(), "Rejouer une case occupée perd la partie");
+        assertEquals(1_000, result.getGamesOfLength(2), "Le coup illégal n'est pas compté");
+    }
+}
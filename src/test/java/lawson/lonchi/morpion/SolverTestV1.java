@@ -0,0 +1,54 @@
+package lawson.lonchi.morpion;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.Solver;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTestV1 {
+
+    @Test
+    void testEmptyBoardIsDraw() {
+        Solver solver = new Solver(3, 3, 3);
+        Solver.Result result = solver.solve(new TicTacToeEngine());
+        assertEquals(0, result.getScore(), "Le morpion 3x3 est nul en jeu parfait");
+        assertTrue(result.isExact(), "Le résultat doit être exact");
+        assertTrue(result.getSquare() >= 0, "Un coup doit être proposé");
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new TicTacToeEngine(3, 3, 2)),
+                "Une position d'un autre k ne doit pas réutiliser la table");
+    }
+
+    @Test
+    void testTakesImmediateWin() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(1, 0); // O
+        engine.play(0, 1); // X
+        engine.play(1, 1); // O
+
+        Solver.Result result = new Solver(3, 3, 3).solve(engine);
+        assertEquals(0, result.getRow(), "X doit gagner en (0, 2)");
+        assertEquals(2, result.getColumn(), "X doit gagner en (0, 2)");
+        assertTrue(result.getScore() > 0, "Le score doit être gagnant pour X");
+    }
+
+    @Test
+    void testBlocksForOtherOwner() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(2, 2); // O
+        engine.play(0, 1); // X
+
+        Solver.Result result = new Solver(3, 3, 3).solve(engine, Owner.SECOND, 0);
+        assertEquals(0, result.getRow(), "O doit bloquer en (0, 2)");
+        assertEquals(2, result.getColumn(), "O doit bloquer en (0, 2)");
+    }
+
+    @Test
+    void testTimeBudgetOnLargeBoard() {
+        TicTacToeEngine engine = new TicTacToeEngine(7, 7, 4);
+        Solver.Result result = new Solver(7, 7, 4).solve(engine, Owner.FIRST, 50);
+        assertTrue(engine.validSquare(result.getRow(), result.getColumn()), "Le coup proposé doit être légal");
+    }
+}
@@ -0,0 +1,73 @@
+package lawson.lonchi.morpion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.ai.OpeningBook;
+import lawson.lonchi.morpion.ai.OpeningBookGenerator;
+import lawson.lonchi.morpion.ai.Tablebase;
+import lawson.lonchi.morpion.ai.TablebaseGenerator;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRetrogradeTableMatchesOpeningBook() throws IOException {
+        Path path = directory.resolve("3x3k3.tb");
+        TablebaseGenerator generator = new TablebaseGenerator(3, 3, 3);
+        generator.write(path);
+        assertEquals(5478, generator.getReachable(), "Le morpion 3x3 a 5478 positions atteignables");
+        Path bookPath = directory.resolve("tictactoe.book");
+        new OpeningBookGenerator().write(bookPath);
+
+        Tablebase tablebase = Tablebase.open(path);
+        OpeningBook book = OpeningBook.open(bookPath);
+        TicTacToeEngine engine = new TicTacToeEngine();
+        assertEquals(Tablebase.DRAW, tablebase.getValue(engine), "Le plateau vide est nul");
+        assertEquals(9, tablebase.getDistance(engine), "Un nul se joue jusqu'au plateau plein");
+        // Toutes les positions à deux et trois pions ont la valeur de la table d'ouvertures.
+        for (int a = 0; a < 9; a++) {
+            for (int b = 0; b < 9; b++) {
+                for (int c = 0; c < 9; c++) {
+                    if (a == b || a == c || b == c) {
+                        continue;
+                    }
+                    engine.play(a / 3, a % 3); // X
+                    engine.play(b / 3, b % 3); // O
+                    assertEquals(book.value(OpeningBook.index(engine)), tablebase.getValue(engine),
+                            "Valeur différente après " + a + ", " + b);
+                    engine.play(c / 3, c % 3); // X
+                    assertEquals(book.value(OpeningBook.index(engine)), tablebase.getValue(engine),
+                            "Valeur différente après " + a + ", " + b + ", " + c);
+                    engine.restart();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDistanceAndBestMove() throws IOException {
+        Path path = directory.resolve("4x3k3.tb");
+        new TablebaseGenerator(4, 3, 3).write(path);
+        Tablebase tablebase = Tablebase.open(path);
+        TicTacToeEngine engine = new TicTacToeEngine(4, 3, 3);
+        engine.play(1, 1); // X
+        engine.play(0, 0); // O
+        engine.play(1, 2); // X : menace des deux côtés
+        assertEquals(Tablebase.LOSS, tablebase.getValue(engine), "O ne peut pas parer deux menaces");
+        assertEquals(2, tablebase.getDistance(engine), "O joue, puis X aligne");
+        engine.play(1, 0); // O
+        assertEquals(7, tablebase.bestMove(engine), "X doit gagner en (1, 3)");
+        engine.play(1, 3); // X
+        assertEquals(Tablebase.LOSS, tablebase.getValue(engine), "O a perdu");
+        assertEquals(0, tablebase.getDistance(engine), "La partie est terminée");
+        assertEquals(-1, tablebase.bestMove(engine), "Aucun coup après la victoire");
+        assertEquals(Tablebase.UNKNOWN, tablebase.getValue(new TicTacToeEngine()), "Le 3x3 n'est pas dans la table");
+    }
+}
@@ -0,0 +1,80 @@
+package lawson.lonchi.morpion;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.ai.GreedyStrategy;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.ThreatIndex;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreatIndexTestV1 {
+
+    @Test
+    void testCompletingSquares() {
+        TicTacToeEngine engine = new TicTacToeEngine(15, 15, 5);
+        ThreatIndex threats = engine.getThreatIndex();
+        assertEquals(2 * 11 * 15 + 2 * 11 * 11, threats.getWindowCount(), "Fenêtres d'un 15x15, k=5");
+        engine.play(7, 5); // X
+        engine.play(0, 0); // O
+        engine.play(7, 6); // X
+        engine.play(0, 14); // O
+        engine.play(7, 7); // X
+        engine.play(14, 0); // O
+        assertEquals(-1, threats.findCompletingSquare(Owner.FIRST), "Trois pions ne suffisent pas");
+        assertEquals(3, threats.getThreatCount(Owner.FIRST, 3), "Trois fenêtres contiennent les trois X");
+        engine.play(7, 8); // X
+        int square = threats.findCompletingSquare(Owner.FIRST);
+        assertTrue(square == 7 * 15 + 4 || square == 7 * 15 + 9, "O doit bloquer en (7, 4) ou (7, 9)");
+        assertEquals(2, threats.getThreatCount(Owner.FIRST, 4), "Deux fenêtres à un pion de l'alignement");
+        engine.play(7, 9); // O
+        engine.play(7, 4); // X
+        assertTrue(threats.hasLine(Owner.FIRST), "X a aligné cinq pions");
+        assertEquals(Owner.FIRST, engine.getWinner(), "Le moteur et l'index doivent s'accorder");
+        engine.undo();
+        assertFalse(threats.hasLine(Owner.FIRST), "L'annulation retire l'alignement");
+        assertEquals(7 * 15 + 4, threats.findCompletingSquare(Owner.FIRST), "Seul (7, 4) complète encore");
+    }
+
+    @Test
+    void testIncrementalIndexMatchesRebuild() {
+        SplittableRandom random = new SplittableRandom(11);
+        TicTacToeEngine engine = new TicTacToeEngine(9, 7, 4);
+        ThreatIndex threats = engine.getThreatIndex();
+        for (int game = 0; game < 50; game++) {
+            while (!engine.isGameOver()) {
+                int square = random.nextInt(engine.getSize());
+                if (engine.play(square / 9, square % 9) && random.nextInt(4) == 0) {
+                    engine.undo();
+                }
+            }
+            ThreatIndex rebuilt = ThreatIndex.of(engine);
+            for (int window = 0; window < threats.getWindowCount(); window++) {
+                assertEquals(rebuilt.getCount(window, Owner.FIRST), threats.getCount(window, Owner.FIRST), "Pions de X");
+                assertEquals(rebuilt.getCount(window, Owner.SECOND), threats.getCount(window, Owner.SECOND), "Pions de O");
+            }
+            for (int level = 1; level <= 4; level++) {
+                assertEquals(rebuilt.getThreatCount(Owner.FIRST, level), threats.getThreatCount(Owner.FIRST, level), "Menaces de X");
+                assertEquals(rebuilt.getThreatCount(Owner.SECOND, level), threats.getThreatCount(Owner.SECOND, level), "Menaces de O");
+            }
+            assertEquals(engine.getWinner() != Owner.NONE, threats.hasLine(Owner.FIRST) || threats.hasLine(Owner.SECOND),
+                    "Un alignement existe si et seulement si la partie est gagnée");
+            engine.restart();
+        }
+    }
+
+    @Test
+    void testGreedyLeavesPositionUnchanged() {
+        TicTacToeEngine engine = new TicTacToeEngine();
+        engine.play(0, 0); // X
+        engine.play(1, 0); // O
+        engine.play(0, 1); // X
+        GreedyStrategy greedy = new GreedyStrategy();
+        assertEquals(2, greedy.chooseMove(engine, new SplittableRandom(1)), "O doit bloquer en (0, 2)");
+        assertFalse(engine.hasThreatIndex(), "La stratégie ne doit pas attacher d'index à la position");
+
+        engine.getThreatIndex();
+        assertEquals(2, greedy.chooseMove(engine, new SplittableRandom(1)), "L'index tenu par la position est lu");
+    }
+}
@@ -0,0 +1,123 @@
+package lawson.lonchi.morpion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.model.Owner;
+import lawson.lonchi.morpion.model.TicTacToeEngine;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicTacToeEngineTestV1 {
+
+    private TicTacToeEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new TicTacToeEngine();
+    }
+
+    @Test
+    void testPlayUpdatesBitboards() {
+        assertTrue(engine.play(1, 1), "Le coup (1, 1) doit être joué");
+        assertEquals(Owner.FIRST, engine.getOwner(1, 1), "La case (1, 1) doit appartenir à X");
+        assertEquals(1L << 4, engine.getBitboardWord(Owner.FIRST, 0), "Le bit 4 doit être à 1 pour X");
+        assertEquals(Owner.SECOND, engine.getTurn(), "C'est au tour de O");
+        assertEquals(8, engine.getFreeSquares(), "Il doit rester 8 cases libres");
+    }
+
+    @Test
+    void testIllegalMoveIsRejected() {
+        engine.play(0, 0);
+        assertFalse(engine.play(0, 0), "Une case occupée ne peut pas être rejouée");
+        assertFalse(engine.play(0, 3), "Une case hors du plateau est refusée");
+        assertFalse(engine.play(-1, 0), "Une case hors du plateau est refusée");
+        assertEquals(Owner.SECOND, engine.getTurn(), "Un coup illégal ne change pas le tour");
+    }
+
+    @Test
+    void testDiagonalWin() {
+        engine.play(0, 2); // X
+        engine.play(0, 0); // O
+        engine.play(1, 1); // X
+        engine.play(0, 1); // O
+        engine.play(2, 0); // X
+
+        assertEquals(Owner.FIRST, engine.getWinner(), "Le gagnant doit être FIRST (X)");
+        assertTrue(engine.isWinningSquare(1, 1), "La case (1, 1) doit être gagnante");
+        assertFalse(engine.isWinningSquare(0, 0), "La case (0, 0) ne doit pas être gagnante");
+        assertFalse(engine.validSquare(2, 2), "Aucun coup n'est valide après la victoire");
+    }
+
+    @Test
+    void testWinningLineIndex() {
+        assertEquals(TicTacToeEngine.NO_LINE, engine.getWinningLine(), "Aucune ligne gagnante au départ");
+        engine.play(2, 0); // X
+        engine.play(0, 0); // O
+        engine.play(2, 1); // X
+        engine.play(0, 1); // O
+        engine.play(2, 2); // X
+
+        int line = engine.getWinningLine();
+        assertEquals(6, engine.getLineSquare(line, 0), "La ligne gagnante commence en (2, 0)");
+        assertEquals(7, engine.getLineSquare(line, 1), "La ligne gagnante passe par (2, 1)");
+        assertEquals(8, engine.getLineSquare(line, 2), "La ligne gagnante finit en (2, 2)");
+    }
+
+    @Test
+    void testGomokuAntiDiagonalWin() {
+        TicTacToeEngine gomoku = new TicTacToeEngine(19, 19, 5);
+        assertEquals(361, gomoku.getFreeSquares(), "Un plateau 19x19 a 361 cases libres");
+        // X joue l'anti-diagonale (4, 14) ... (8, 10) en terminant par le milieu.
+        int[][] xMoves = {{4, 14}, {5, 13}, {7, 11}, {8, 10}, {6, 12}};
+        for (int i = 0; i < xMoves.length; i++) {
+            gomoku.play(xMoves[i][0], xMoves[i][1]);
+            if (i < xMoves.length - 1) {
+                assertEquals(Owner.NONE, gomoku.getWinner(), "Pas de gagnant avant le cinquième pion");
+                gomoku.play(18, 2 * i); // O
+            }
+        }
+        assertEquals(Owner.FIRST, gomoku.getWinner(), "Le gagnant doit être FIRST (X)");
+        assertTrue(gomoku.isWinningSquare(4, 14), "La case (4, 14) doit être gagnante");
+        assertTrue(gomoku.isWinningSquare(8, 10), "La case (8, 10) doit être gagnante");
+        assertFalse(gomoku.isWinningSquare(18, 0), "La case (18, 0) ne doit pas être gagnante");
+    }
+
+    @Test
+    void testDraw() {
+        int[][] moves = {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 2}, {1, 1}, {2, 0}, {2, 2}, {2, 1}};
+        for (int[] move : moves) {
+            engine.play(move[0], move[1]);
+        }
+        assertEquals(Owner.NONE, engine.getWinner(), "Le jeu doit se terminer par un match nul");
+        assertTrue(engine.isBoardFull(), "Le plateau doit être plein");
+        assertTrue(engine.isGameOver(), "Le jeu doit être terminé");
+    }
+
+    @Test
+    void testUndoRedoWinningMove() {
+        engine.play(0, 0); // X
+        engine.play(1, 0); // O
+        engine.play(0, 1); // X
+        engine.play(1, 1); // O
+        engine.play(0, 2); // X
+        assertEquals(Owner.FIRST, engine.getWinner(), "X doit gagner");
+
+        assertTrue(engine.undo(), "Le coup gagnant doit pouvoir être annulé");
+        assertEquals(Owner.NONE, engine.getWinner(), "L'annulation doit effacer le gagnant");
+        assertEquals(TicTacToeEngine.NO_LINE, engine.getWinningLine(), "L'annulation doit effacer la ligne gagnante");
+        assertEquals(Owner.NONE, engine.getOwner(0, 2), "La case (0, 2) doit être libérée");
+        assertEquals(Owner.FIRST, engine.getTurn(), "X doit être de nouveau au trait");
+        assertEquals(2, engine.getScore(Owner.FIRST), "X ne doit plus occuper que deux cases");
+
+        assertTrue(engine.redo(), "Le coup annulé doit pouvoir être rejoué");
+        assertEquals(Owner.FIRST, engine.getWinner(), "Le coup rejoué doit de nouveau gagner");
+        assertFalse(engine.redo(), "Il n'y a plus rien à rejouer");
+
+        while (engine.undo()) {
+            // Retour au plateau vide.
+        }
+        assertEquals(9, engine.getFreeSquares(), "Toutes les cases doivent être libres");
+        assertEquals(5, engine.getRedoCount(), "Les cinq coups doivent pouvoir être rejoués");
+        engine.play(2, 2); // X : nouvelle branche
+        assertEquals(0, engine.getRedoCount(), "Un nouveau coup efface les coups annulés");
+    }
+}
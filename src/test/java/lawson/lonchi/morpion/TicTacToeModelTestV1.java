@@ -1,7 +1,10 @@
 package lawson.lonchi.morpion;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import lawson.lonchi.morpion.metrics.Metrics;
 import lawson.lonchi.morpion.model.Owner;
 import lawson.lonchi.morpion.model.TicTacToeModel;
 import static org.junit.jupiter.api.Assertions.*;
@@ -107,5 +110,73 @@ class TicTacToeModelTestV1 {
 
         assertTrue(model.gameOver().get(), "Le jeu doit être terminé après un match nul");
     }
-    
-}
\ No newline at end of file
+
+    @Test
+    void testBindingsAreShared() {
+        assertSame(model.gameOver(), model.gameOver(), "La liaison de fin de partie doit être partagée");
+        assertSame(model.getEndOfGameMessage(), model.getEndOfGameMessage(), "Le message de fin doit être partagé");
+        assertSame(model.legalMove(1, 1), model.legalMove(1, 1), "La liaison d'une case doit être partagée");
+        assertNotSame(model.legalMove(0, 0), model.legalMove(1, 1), "Chaque case doit avoir sa propre liaison");
+    }
+
+    @Test
+    void testBindingsAfterDispose() {
+        model.play(0, 0); // X
+        assertFalse(model.legalMove(0, 0).get(), "La case (0, 0) ne doit plus être jouable");
+        model.dispose();
+
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+
+        assertTrue(model.gameOver().get(), "Une liaison recréée doit refléter l'état courant");
+        assertFalse(model.legalMove(2, 2).get(), "Aucun coup n'est légal après la victoire");
+        assertEquals("Game over: Le gagnant est le premier joueur (X)", model.getEndOfGameMessage().get());
+    }
+
+    @Test
+    void testUndoRedo() {
+        model.play(0, 0); // X
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+        assertTrue(model.getWinningSquare(0, 2).get(), "La case (0, 2) doit être gagnante");
+
+        assertTrue(model.undo(), "Le dernier coup doit pouvoir être annulé");
+        assertEquals(Owner.NONE, model.getSquare(0, 2).get(), "La case (0, 2) doit être vide");
+        assertFalse(model.getWinningSquare(0, 0).get(), "Les cases gagnantes doivent être effacées");
+        assertEquals(Owner.NONE, model.winnerProperty().get(), "Il ne doit plus y avoir de gagnant");
+        assertFalse(model.gameOver().get(), "La partie doit reprendre");
+        assertEquals(Owner.FIRST, model.turnProperty().get(), "X doit être au trait");
+        assertEquals(2, model.getScore(Owner.FIRST).get(), "X ne doit plus occuper que deux cases");
+        assertEquals(5, model.getFreeSquares().get(), "Il doit y avoir cinq cases libres");
+
+        assertTrue(model.redo(), "Le coup annulé doit pouvoir être rejoué");
+        assertEquals(Owner.FIRST, model.winnerProperty().get(), "X doit de nouveau gagner");
+        assertTrue(model.getWinningSquare(0, 1).get(), "Les cases gagnantes doivent être marquées");
+    }
+
+    @Test
+    void testOutcomeIsRecordedOncePerGame() {
+        LongAdder xWins = Metrics.get().counter("games.xWins");
+        long before = xWins.sum();
+        model.play(0, 0); // X
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+        model.undo();
+        model.redo();
+        assertEquals(Metrics.ENABLED ? before + 1 : before, xWins.sum(), "Une partie n'est comptée qu'une fois");
+
+        model.restart();
+        model.play(0, 0); // X
+        model.play(1, 0); // O
+        model.play(0, 1); // X
+        model.play(1, 1); // O
+        model.play(0, 2); // X
+        assertEquals(Metrics.ENABLED ? before + 2 : before, xWins.sum(), "La partie suivante est comptée");
+    }
+}
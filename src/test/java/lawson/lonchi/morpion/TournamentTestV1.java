@@ -0,0 +1,103 @@
+package lawson.lonchi.morpion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import lawson.lonchi.morpion.ai.GreedyStrategy;
+import lawson.lonchi.morpion.ai.RandomStrategy;
+import lawson.lonchi.morpion.tournament.RatingTable;
+import lawson.lonchi.morpion.tournament.Tournament;
+import lawson.lonchi.morpion.tournament.TournamentResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTestV1 {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundRobinRanksGreedyFirst() throws IOException {
+        try (Tournament tournament = new Tournament(3, 3, 3,
+                Arrays.asList(new RandomStrategy(), new GreedyStrategy(), new RandomStrategy()), 2)) {
+            Path checkpoint = directory.resolve("roundrobin.properties");
+            tournament.setCheckpoint(checkpoint, Duration.ofHours(1));
+            TournamentResult result = tournament.run(Tournament.Format.ROUND_ROBIN, 50, 3L);
+            Properties saved = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint)) {
+                saved.load(reader);
+            }
+            assertEquals("50", saved.getProperty("stage"), "Chaque ronde est une étape, suivie d'un point de reprise");
+            RatingTable table = result.getTable();
+            assertEquals(50 * 3 * 2, result.getGames(), "Chaque paire joue deux parties par ronde");
+            assertEquals("greedy", table.getName(table.getRanking().get(0)), "Le glouton doit finir premier");
+            assertEquals("random#2", table.getName(2), "Les homonymes sont numérotés");
+            double total = 0;
+            for (int i = 0; i < table.getPlayerCount(); i++) {
+                total += table.getRating(i);
+            }
+            assertEquals(3 * RatingTable.INITIAL_RATING, total, 1e-6, "Les cotes Elo s'échangent sans se créer");
+            assertTrue(result.getGamesPerSecond() > 0, "Le débit doit être mesuré");
+        }
+    }
+
+    @Test
+    void testSwissResumesFromCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve("swiss.properties");
+        double[] ratings = new double[4];
+        try (Tournament tournament = new Tournament(4, 4, 3, Arrays.asList(new RandomStrategy(),
+                new GreedyStrategy(), new RandomStrategy(), new GreedyStrategy()), 2)) {
+            tournament.setCheckpoint(checkpoint, Duration.ZERO);
+            TournamentResult result = tournament.run(Tournament.Format.SWISS, 3, 5L);
+            assertEquals(3 * 2 * 2, result.getGames(), "Trois rondes de deux appariements");
+            double points = 0;
+            for (int i = 0; i < 4; i++) {
+                ratings[i] = result.getTable().getRating(i);
+                points += result.getTable().getPoints(i);
+                assertEquals(3, result.getTable().getOpponentCount(i),
+                        "Trois rondes suisses à quatre joueurs : trois adversaires différents");
+            }
+            assertEquals(12, points, 1e-9, "Un point par partie");
+        }
+        assertTrue(Files.exists(checkpoint), "Le point de reprise doit être écrit");
+        try (Tournament tournament = new Tournament(4, 4, 3, Arrays.asList(new RandomStrategy(),
+                new GreedyStrategy(), new RandomStrategy(), new GreedyStrategy()), 2)) {
+            tournament.setCheckpoint(checkpoint, Duration.ZERO);
+            TournamentResult result = tournament.run(Tournament.Format.SWISS, 3, 5L);
+            assertEquals(0, result.getGames(), "Un tournoi terminé ne rejoue aucune partie");
+            for (int i = 0; i < 4; i++) {
+                assertEquals(ratings[i], result.getTable().getRating(i), "Le classement est repris tel quel");
+            }
+            assertThrows(IOException.class, () -> tournament.run(Tournament.Format.SWISS, 4, 5L),
+                    "Un point de reprise d'un autre tournoi doit être refusé");
+        }
+    }
+
+    @Test
+    void testSwissByeGoesToEachPlayerOnce() throws IOException {
+        Path checkpoint = directory.resolve("byes.properties");
+        try (Tournament tournament = new Tournament(3, 3, 3, Arrays.asList(new RandomStrategy(),
+                new GreedyStrategy(), new RandomStrategy()), 2)) {
+            tournament.setCheckpoint(checkpoint, Duration.ZERO);
+            TournamentResult result = tournament.run(Tournament.Format.SWISS, 3, 9L);
+            assertEquals(3 * 2, result.getGames(), "Une paire et un exempt par ronde");
+            for (int i = 0; i < 3; i++) {
+                assertTrue(result.getTable().hasHadBye(i), "Chacun est exempt une fois en trois rondes");
+            }
+        }
+        try (Tournament tournament = new Tournament(3, 3, 3, Arrays.asList(new RandomStrategy(),
+                new GreedyStrategy(), new RandomStrategy()), 2)) {
+            tournament.setCheckpoint(checkpoint, Duration.ZERO);
+            TournamentResult result = tournament.run(Tournament.Format.SWISS, 3, 9L);
+            for (int i = 0; i < 3; i++) {
+                assertTrue(result.getTable().hasHadBye(i), "Les exemptions sont reprises du point de reprise");
+            }
+        }
+    }
+}